@@ -20,8 +20,10 @@ import org.agrona.concurrent.UnsafeBuffer;
 import uk.co.real_logic.artio.fields.*;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
 
 public final class MutableAsciiBuffer extends UnsafeBuffer implements AsciiBuffer
 {
@@ -32,6 +34,14 @@ public final class MutableAsciiBuffer extends UnsafeBuffer implements AsciiBuffe
     private static final byte Y = (byte)'Y';
     private static final byte N = (byte)'N';
 
+    // Constants for SWAR (SIMD within a register) scanning and checksumming, 8 bytes at a time.
+    private static final long REPEATED_BYTE = 0x0101010101010101L;
+    private static final long LOW_SEVEN_BITS = 0x7F7F7F7F7F7F7F7FL;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long ALTERNATE_BYTES = 0x00FF00FF00FF00FFL;
+    // Each 16 bit lane gains at most 2 * 255 per word, so this many words can be summed without overflowing a lane.
+    private static final int CHECKSUM_WORDS_PER_BLOCK = 128;
+
     private static final byte[] MIN_INTEGER_VALUE = String.valueOf(Integer.MIN_VALUE).getBytes(US_ASCII);
     private static final byte[] MIN_LONG_VALUE = String.valueOf(Long.MIN_VALUE).getBytes(US_ASCII);
 
@@ -294,28 +304,65 @@ public final class MutableAsciiBuffer extends UnsafeBuffer implements AsciiBuffe
 
     public int scan(final int startInclusive, final int endInclusive, final byte terminator)
     {
-        int indexValue = UNKNOWN_INDEX;
-        for (int i = startInclusive; i <= endInclusive; i++)
+        final long pattern = (terminator & 0xFFL) * REPEATED_BYTE;
+        // Words are only read when they're within both the range and the buffer, the rest is scanned bytewise.
+        final int lastWordStart = Math.min(endInclusive - (SIZE_OF_LONG - 1), capacity() - SIZE_OF_LONG);
+        int index = startInclusive;
+        for (; index <= lastWordStart; index += SIZE_OF_LONG)
         {
-            final byte value = getByte(i);
-            if (value == terminator)
+            // Little endian so that the byte at the lowest index is the least significant byte in the word.
+            final long matches = zeroBytes(getLong(index, ByteOrder.LITTLE_ENDIAN) ^ pattern);
+            if (matches != 0)
             {
-                indexValue = i;
-                break;
+                return index + (Long.numberOfTrailingZeros(matches) >>> 3);
             }
         }
 
-        return indexValue;
+        for (; index <= endInclusive; index++)
+        {
+            if (getByte(index) == terminator)
+            {
+                return index;
+            }
+        }
+
+        return UNKNOWN_INDEX;
+    }
+
+    // Sets the high bit of each byte of the result that corresponds to a zero byte in the word, without false
+    // positives from carries between bytes.
+    private static long zeroBytes(final long word)
+    {
+        return ~(((word & LOW_SEVEN_BITS) + LOW_SEVEN_BITS) | word | LOW_SEVEN_BITS);
     }
 
     public int computeChecksum(final int offset, final int end)
     {
         int total = 0;
-        for (int index = offset; index < end; index++)
+        int bytesWithHighBitSet = 0;
+        int index = offset;
+        while (end - index >= SIZE_OF_LONG)
+        {
+            final int words = Math.min((end - index) >>> 3, CHECKSUM_WORDS_PER_BLOCK);
+            long lanes = 0;
+            for (int i = 0; i < words; i++, index += SIZE_OF_LONG)
+            {
+                final long word = getLong(index);
+                lanes += (word & ALTERNATE_BYTES) + ((word >>> 8) & ALTERNATE_BYTES);
+                bytesWithHighBitSet += Long.bitCount(word & HIGH_BITS);
+            }
+
+            total += (int)((lanes & 0xFFFF) + ((lanes >>> 16) & 0xFFFF) + ((lanes >>> 32) & 0xFFFF) + (lanes >>> 48));
+        }
+
+        for (; index < end; index++)
         {
             total += (int)getByte(index);
         }
 
+        // The words are summed as unsigned bytes, adjust so that the total matches a sum of signed bytes.
+        total -= bytesWithHighBitSet << 8;
+
         return total % 256;
     }
 
@@ -15,12 +15,15 @@
  */
 package uk.co.real_logic.artio.util;
 
+import org.junit.Test;
 import org.junit.experimental.theories.DataPoints;
 import org.junit.experimental.theories.Theories;
 import org.junit.experimental.theories.Theory;
 import org.junit.runner.RunWith;
 
+import static java.nio.charset.StandardCharsets.US_ASCII;
 import static org.junit.Assert.assertEquals;
+import static uk.co.real_logic.artio.util.AsciiBuffer.UNKNOWN_INDEX;
 
 @RunWith(Theories.class)
 public class MutableAsciiBufferTest
@@ -55,4 +58,78 @@ public class MutableAsciiBufferTest
         assertEquals("Wrong length for " + value, length, MutableAsciiBuffer.lengthInAscii(value));
     }
 
+    @Test
+    public void shouldScanForTerminatorAtEveryOffset()
+    {
+        final int length = 40;
+        for (int terminatorIndex = 0; terminatorIndex < length; terminatorIndex++)
+        {
+            putRepeated('A', length);
+            string.putByte(terminatorIndex, (byte)'=');
+
+            for (int start = 0; start <= terminatorIndex; start++)
+            {
+                assertEquals(terminatorIndex, string.scan(start, length - 1, '='));
+            }
+
+            assertEquals(UNKNOWN_INDEX, string.scan(0, terminatorIndex - 1, '='));
+        }
+    }
+
+    @Test
+    public void shouldReturnFirstTerminatorWhenScanning()
+    {
+        final byte[] message = "8=FIX.4.4\0019=0103\00135=A\001".getBytes(US_ASCII);
+        string.putBytes(0, message);
+
+        assertEquals(9, string.scan(0, message.length - 1, '\001'));
+        assertEquals(1, string.scan(0, message.length - 1, '='));
+        assertEquals(UNKNOWN_INDEX, string.scan(0, message.length - 1, '|'));
+    }
+
+    @Test
+    public void shouldNotReadWordsPastTheEndOfTheBufferWhenScanning()
+    {
+        final byte[] message = "10=123\001".getBytes(US_ASCII);
+        final MutableAsciiBuffer buffer = new MutableAsciiBuffer(new byte[13]);
+        buffer.putBytes(buffer.capacity() - message.length, message);
+
+        assertEquals(buffer.capacity() - 1, buffer.scan(0, buffer.capacity(), '\001'));
+    }
+
+    @Test
+    public void shouldComputeChecksumOfEveryLength()
+    {
+        for (int i = 0; i < 2048; i++)
+        {
+            string.putByte(i, (byte)(i * 31));
+        }
+
+        for (int offset = 0; offset < 9; offset++)
+        {
+            for (int end = offset; end < 2048; end++)
+            {
+                assertEquals(byteByByteChecksum(offset, end), string.computeChecksum(offset, end));
+            }
+        }
+    }
+
+    private int byteByByteChecksum(final int offset, final int end)
+    {
+        int total = 0;
+        for (int index = offset; index < end; index++)
+        {
+            total += (int)string.getByte(index);
+        }
+
+        return total % 256;
+    }
+
+    private void putRepeated(final char value, final int length)
+    {
+        for (int i = 0; i < length; i++)
+        {
+            string.putByte(i, (byte)value);
+        }
+    }
 }
@@ -35,6 +35,13 @@ public class FixCounters implements AutoCloseable
     private static final int INVALID_LIBRARY_ATTEMPTS_TYPE_ID = 10_005;
     private static final int SENT_MSG_SEQ_NO_TYPE_ID = 10_006;
     private static final int RECV_MSG_SEQ_NO_TYPE_ID = 10_007;
+    private static final int RECEIVER_BUFFERS_IN_USE_TYPE_ID = 10_008;
+    private static final int RECEIVER_BUFFERS_ALLOCATED_TYPE_ID = 10_009;
+    private static final int QUOTA_LIMITED_READS_TYPE_ID = 10_010;
+    private static final int INDEX_SYNCS_TYPE_ID = 10_011;
+    private static final int INDEX_SYNCED_RECORDS_TYPE_ID = 10_012;
+    private static final int FILE_USED_BYTES_TYPE_ID = 10_013;
+    private static final int FILE_CAPACITY_TYPE_ID = 10_014;
 
     private final List<Counter> counters = new ArrayList<>();
     private final AtomicCounter failedInboundPublications;
@@ -81,6 +88,12 @@ public class FixCounters implements AutoCloseable
             "Invalid Library Attempts for " + address + " id = " + connectionId);
     }
 
+    public AtomicCounter quotaLimitedReads(final long connectionId, final String address)
+    {
+        return newCounter(QUOTA_LIMITED_READS_TYPE_ID,
+            "Quota limited reads for " + address + " id = " + connectionId);
+    }
+
     public AtomicCounter sentMsgSeqNo(final long connectionId)
     {
         return newCounter(SENT_MSG_SEQ_NO_TYPE_ID, "Last Sent MsgSeqNo for " + connectionId);
@@ -91,6 +104,36 @@ public class FixCounters implements AutoCloseable
         return newCounter(RECV_MSG_SEQ_NO_TYPE_ID, "Last Received MsgSeqNo for " + connectionId);
     }
 
+    public AtomicCounter receiverBuffersInUse()
+    {
+        return newCounter(RECEIVER_BUFFERS_IN_USE_TYPE_ID, "Pooled receiver buffers in use");
+    }
+
+    public AtomicCounter receiverBuffersAllocated()
+    {
+        return newCounter(RECEIVER_BUFFERS_ALLOCATED_TYPE_ID, "Pooled receiver buffers allocated");
+    }
+
+    public AtomicCounter indexSyncs(final String indexName)
+    {
+        return newCounter(INDEX_SYNCS_TYPE_ID, "Syncs of " + indexName);
+    }
+
+    public AtomicCounter indexSyncedRecords(final String indexName)
+    {
+        return newCounter(INDEX_SYNCED_RECORDS_TYPE_ID, "Records synced by " + indexName);
+    }
+
+    public AtomicCounter fileUsedBytes(final String fileName)
+    {
+        return newCounter(FILE_USED_BYTES_TYPE_ID, "Bytes used in " + fileName);
+    }
+
+    public AtomicCounter fileCapacity(final String fileName)
+    {
+        return newCounter(FILE_CAPACITY_TYPE_ID, "Capacity of " + fileName);
+    }
+
     private AtomicCounter newCounter(final int typeId, final String label)
     {
         final Counter counter = aeron.addCounter(typeId, label);
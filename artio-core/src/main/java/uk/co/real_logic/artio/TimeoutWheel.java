@@ -0,0 +1,97 @@
+/*
+ * Copyright 2015-2019 Real Logic Ltd, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.concurrent.DeadlineTimerWheel;
+import org.agrona.concurrent.DeadlineTimerWheel.TimerHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timer wheel of millisecond timeouts, so that a duty cycle only has to process the timeouts that have expired
+ * rather than checking every session or end point. Not thread safe.
+ *
+ * @param <T> the type of object that a timeout is associated with.
+ */
+public class TimeoutWheel<T>
+{
+    public static final long NO_TIMER = -1;
+
+    private static final long TICK_RESOLUTION_IN_MS = 8;
+    private static final int TICKS_PER_WHEEL = 512;
+
+    private final Long2ObjectHashMap<T> timerIdToValue = new Long2ObjectHashMap<>();
+    private final List<T> expired = new ArrayList<>();
+    private final TimerHandler onTimerExpiry = this::onTimerExpiry;
+    private final DeadlineTimerWheel timerWheel;
+
+    public TimeoutWheel(final long startTimeInMs)
+    {
+        timerWheel = new DeadlineTimerWheel(
+            TimeUnit.MILLISECONDS, startTimeInMs, TICK_RESOLUTION_IN_MS, TICKS_PER_WHEEL);
+    }
+
+    public long schedule(final long deadlineInMs, final T value)
+    {
+        final long timerId = timerWheel.scheduleTimer(deadlineInMs);
+        timerIdToValue.put(timerId, value);
+        return timerId;
+    }
+
+    public void cancel(final long timerId)
+    {
+        if (timerIdToValue.remove(timerId) != null)
+        {
+            timerWheel.cancelTimer(timerId);
+        }
+    }
+
+    // Returns the objects whose timeouts have expired, the list is reused by the next poll.
+    // Expired timeouts aren't rescheduled within the wheel's poll as that can resize the tick being polled.
+    public List<T> poll(final long timeInMs)
+    {
+        final List<T> expired = this.expired;
+        expired.clear();
+
+        // The wheel only moves on by one tick per poll, so catch up if it's behind.
+        do
+        {
+            timerWheel.poll(timeInMs, onTimerExpiry, Integer.MAX_VALUE);
+        }
+        while (timerWheel.currentTickTime() <= timeInMs);
+
+        return expired;
+    }
+
+    public int size()
+    {
+        return timerIdToValue.size();
+    }
+
+    private boolean onTimerExpiry(final TimeUnit timeUnit, final long now, final long timerId)
+    {
+        final T value = timerIdToValue.remove(timerId);
+        if (value != null)
+        {
+            expired.add(value);
+        }
+
+        return true;
+    }
+}
@@ -21,20 +21,44 @@ import org.agrona.concurrent.Agent;
 import org.agrona.concurrent.AgentRunner;
 import uk.co.real_logic.artio.dictionary.generation.Exceptions;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ThreadFactory;
 
+import static java.util.Collections.singletonList;
 import static org.agrona.concurrent.AgentRunner.startOnThread;
 
 /**
  * NB: Ensure that a new instance is created for each engine.
+ *
+ * Schedules each indexing agent onto its own thread, so when constructed to separate the indexing agents every
+ * index is driven by its own thread.
  */
 public class DefaultEngineScheduler implements EngineScheduler
 {
+    private final List<AgentRunner> archivingRunners = new ArrayList<>();
+    private final boolean separateIndexingAgents;
+
     private AgentRunner framerRunner;
-    private AgentRunner archivingRunner;
     private AgentRunner monitoringRunner;
     private RecordingCoordinator recordingCoordinator;
 
+    public DefaultEngineScheduler()
+    {
+        this(false);
+    }
+
+    /**
+     * Create the scheduler.
+     *
+     * @param separateIndexingAgents true to drive each index by its own agent on its own thread, false to drive all
+     *                               the indexes of a stream from one agent.
+     */
+    public DefaultEngineScheduler(final boolean separateIndexingAgents)
+    {
+        this.separateIndexingAgents = separateIndexingAgents;
+    }
+
     public void launch(
         final EngineConfiguration configuration,
         final ErrorHandler errorHandler,
@@ -43,6 +67,25 @@ public class DefaultEngineScheduler implements EngineScheduler
         final Agent monitoringAgent,
         final Agent conductorAgent,
         final RecordingCoordinator recordingCoordinator)
+    {
+        launch(
+            configuration,
+            errorHandler,
+            framer,
+            singletonList(indexingAgent),
+            monitoringAgent,
+            conductorAgent,
+            recordingCoordinator);
+    }
+
+    public void launch(
+        final EngineConfiguration configuration,
+        final ErrorHandler errorHandler,
+        final Agent framer,
+        final List<Agent> indexingAgents,
+        final Agent monitoringAgent,
+        final Agent conductorAgent,
+        final RecordingCoordinator recordingCoordinator)
     {
         this.recordingCoordinator = recordingCoordinator;
         if (framerRunner != null)
@@ -52,12 +95,18 @@ public class DefaultEngineScheduler implements EngineScheduler
 
         framerRunner = new AgentRunner(
             configuration.framerIdleStrategy(), errorHandler, null, framer);
-        archivingRunner = new AgentRunner(
-            configuration.archiverIdleStrategy(), errorHandler, null, indexingAgent);
+        for (int i = 0, size = indexingAgents.size(); i < size; i++)
+        {
+            archivingRunners.add(new AgentRunner(
+                configuration.archiverIdleStrategy(), errorHandler, null, indexingAgents.get(i)));
+        }
 
         final ThreadFactory threadFactory = configuration.threadFactory();
         startOnThread(framerRunner, threadFactory);
-        startOnThread(archivingRunner, threadFactory);
+        for (int i = 0, size = archivingRunners.size(); i < size; i++)
+        {
+            startOnThread(archivingRunners.get(i), threadFactory);
+        }
 
         if (monitoringAgent != null)
         {
@@ -73,10 +122,16 @@ public class DefaultEngineScheduler implements EngineScheduler
     public void close()
     {
         EngineScheduler.awaitRunnerStart(framerRunner);
-        EngineScheduler.awaitRunnerStart(archivingRunner);
+        archivingRunners.forEach(EngineScheduler::awaitRunnerStart);
         EngineScheduler.awaitRunnerStart(monitoringRunner);
 
-        Exceptions.closeAll(framerRunner, archivingRunner, recordingCoordinator, monitoringRunner);
+        Exceptions.closeAll(
+            framerRunner, () -> Exceptions.closeAll(archivingRunners), recordingCoordinator, monitoringRunner);
+    }
+
+    public boolean separateIndexingAgents()
+    {
+        return separateIndexingAgents;
     }
 
     public void configure(final Aeron.Context aeronContext)
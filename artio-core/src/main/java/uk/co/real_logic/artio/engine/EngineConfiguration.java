@@ -25,6 +25,7 @@ import uk.co.real_logic.artio.CommonConfiguration;
 import uk.co.real_logic.artio.decoder.*;
 import uk.co.real_logic.artio.engine.framer.DefaultTcpChannelSupplier;
 import uk.co.real_logic.artio.engine.framer.TcpChannelSupplier;
+import uk.co.real_logic.artio.engine.logger.SequenceNumberIndexDurability;
 import uk.co.real_logic.artio.library.SessionConfiguration;
 import uk.co.real_logic.artio.validation.AuthenticationStrategy;
 import uk.co.real_logic.artio.validation.SessionPersistenceStrategy;
@@ -68,6 +69,21 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
      * Property name for size of logging index files
      */
     public static final String REPLAY_INDEX_FILE_SIZE_PROP = "logging.index.size";
+    /**
+     * Property name for the number of recently sent messages per session that the replayer keeps in memory in order
+     * to serve resend requests. 0 disables the cache.
+     */
+    public static final String REPLAY_CACHE_SIZE_PROP = "fix.core.replay_cache_size";
+    /**
+     * Property name for the number of sessions whose replay indexes are allocated as slabs of shared files, rather
+     * than in a file per session. 0 uses a file per session.
+     */
+    public static final String REPLAY_INDEX_SLAB_COUNT_PROP = "fix.core.replay_index_slab_count";
+    /**
+     * Property name for the interval between the entries of the time index, in the precision of
+     * {@link uk.co.real_logic.artio.CommonConfiguration#clock()}. 0 disables the time index.
+     */
+    public static final String TIME_INDEX_INTERVAL_PROP = "fix.core.time_index_interval";
 
     // Care needs to be taken when setting the fragment limits, and buffer sizes
     // The inbound bytes received and buffer sizes should always be set low enough
@@ -90,6 +106,21 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
      * Property name for the size in bytes of the receiver end point's framing buffer.
      */
     public static final String RECEIVER_BUFFER_SIZE_PROP = "fix.core.receiver_buffer_size";
+    /**
+     * Property name for the size in bytes of the framing buffer that receiver end points start with. 0 disables
+     * receiver buffer pooling.
+     */
+    public static final String RECEIVER_INITIAL_BUFFER_SIZE_PROP = "fix.core.receiver_initial_buffer_size";
+    /**
+     * Property name for the time in ms that a receiver end point can be idle before returning its pooled framing
+     * buffer.
+     */
+    public static final String RECEIVER_BUFFER_IDLE_TIMEOUT_PROP = "fix.core.receiver_buffer_idle_timeout";
+    /**
+     * Property name for the number of bytes that each TCP connection can read per poll of the receiver end points.
+     * 0 disables read quotas.
+     */
+    public static final String RECEIVER_READ_QUANTUM_PROP = "fix.core.receiver_read_quantum";
     /**
      * Property name for the size in bytes of the TCP socket's receive buffer.
      */
@@ -106,10 +137,19 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
      * Property name for the size in bytes of the session id file
      */
     public static final String SESSION_ID_BUFFER_SIZE_PROP = "fix.core.session_id_file_size";
+    /**
+     * Property name for the maximum size in bytes that the session id file can grow to, 0 disables growth
+     */
+    public static final String SESSION_ID_BUFFER_MAX_SIZE_PROP = "fix.core.session_id_file_max_size";
     /**
      * Property name for the maximum number of bytes to allow in the quarantine buffer before disconnection
      */
     public static final String SENDER_MAX_BYTES_IN_BUFFER_PROP = "fix.core.sender_max_bytes_in_buffer";
+    /**
+     * Property name for the size in bytes of the buffer that outbound messages are batched into before being
+     * written to a TCP connection. 0 disables write batching.
+     */
+    public static final String SENDER_WRITE_BATCH_SIZE_PROP = "fix.core.sender_write_batch_size";
     /**
      * Property name for the timeout before a connection that hasn't sent a logon is disconnected
      */
@@ -123,16 +163,24 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     public static final int DEFAULT_REPLAY_INDEX_FILE_SIZE = 2 * 1024 * 1024 + INITIAL_RECORD_OFFSET;
     public static final int DEFAULT_LOGGER_CACHE_NUM_SETS = 8;
     public static final int DEFAULT_LOGGER_CACHE_SET_SIZE = 4;
+    public static final int DEFAULT_REPLAY_CACHE_SIZE = 0;
+    public static final int DEFAULT_REPLAY_INDEX_SLAB_COUNT = 0;
+    public static final long DEFAULT_TIME_INDEX_INTERVAL = 0;
 
     public static final int DEFAULT_OUTBOUND_LIBRARY_FRAGMENT_LIMIT = 100;
     public static final int DEFAULT_REPLAY_FRAGMENT_LIMIT = 5;
     public static final int DEFAULT_INBOUND_BYTES_RECEIVED_LIMIT = 8 * 1024;
     public static final int DEFAULT_RECEIVER_BUFFER_SIZE = 16 * 1024;
+    public static final int DEFAULT_RECEIVER_INITIAL_BUFFER_SIZE = 0;
+    public static final long DEFAULT_RECEIVER_BUFFER_IDLE_TIMEOUT_IN_MS = 10_000;
+    public static final int DEFAULT_RECEIVER_READ_QUANTUM = 0;
     public static final int DEFAULT_RECEIVER_SOCKET_BUFFER_SIZE = 1024 * 1024;
     public static final int DEFAULT_SENDER_SOCKET_BUFFER_SIZE = 1024 * 1024;
     public static final int DEFAULT_SEQUENCE_NUMBER_INDEX_SIZE = 8 * 1024 * 1024;
     public static final int DEFAULT_SESSION_ID_BUFFER_SIZE = 4 * 1024 * 1024;
+    public static final int DEFAULT_SESSION_ID_BUFFER_MAX_SIZE = 0;
     public static final int DEFAULT_SENDER_MAX_BYTES_IN_BUFFER = 4 * 1024 * 1024;
+    public static final int DEFAULT_SENDER_WRITE_BATCH_SIZE = 0;
     public static final int DEFAULT_NO_LOGON_DISCONNECT_TIMEOUT = (int)SECONDS.toMillis(5);
     public static final String DEFAULT_SESSION_ID_FILE = "session_id_buffer";
     public static final String DEFAULT_SEQUENCE_NUMBERS_SENT_FILE = "sequence_numbers_sent";
@@ -146,6 +194,7 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     /** Unmodifiable set of defaults, please make a copy if you wish to modify them. */
     public static final Set<String> DEFAULT_GAPFILL_ON_REPLAY_MESSAGE_TYPES;
     public static final long DEFAULT_INDEX_FILE_STATE_FLUSH_TIMEOUT_IN_MS = 10_000;
+    public static final int DEFAULT_SEQUENCE_NUMBER_INDEX_SYNC_RECORD_COUNT = 1;
 
     static
     {
@@ -172,6 +221,12 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     private boolean logInboundMessages = true;
     private boolean logOutboundMessages = true;
     private boolean printStartupWarnings = true;
+    private boolean lazyReceiverBufferCompaction = false;
+    private boolean replayIndexBinarySearch = false;
+    private boolean replayIndexColdTier = false;
+    private int replayCacheSize = getInteger(REPLAY_CACHE_SIZE_PROP, DEFAULT_REPLAY_CACHE_SIZE);
+    private int replayIndexSlabCount = getInteger(REPLAY_INDEX_SLAB_COUNT_PROP, DEFAULT_REPLAY_INDEX_SLAB_COUNT);
+    private long timeIndexInterval = Long.getLong(TIME_INDEX_INTERVAL_PROP, DEFAULT_TIME_INDEX_INTERVAL);
     private IdleStrategy framerIdleStrategy = backoffIdleStrategy();
     private IdleStrategy archiverIdleStrategy = backoffIdleStrategy();
     private AtomicBuffer sentSequenceNumberBuffer;
@@ -190,6 +245,12 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         getInteger(INBOUND_BYTES_RECEIVED_LIMIT_PROP, DEFAULT_INBOUND_BYTES_RECEIVED_LIMIT);
     private int receiverBufferSize =
         getInteger(RECEIVER_BUFFER_SIZE_PROP, DEFAULT_RECEIVER_BUFFER_SIZE);
+    private int receiverInitialBufferSize =
+        getInteger(RECEIVER_INITIAL_BUFFER_SIZE_PROP, DEFAULT_RECEIVER_INITIAL_BUFFER_SIZE);
+    private long receiverBufferIdleTimeoutInMs =
+        Long.getLong(RECEIVER_BUFFER_IDLE_TIMEOUT_PROP, DEFAULT_RECEIVER_BUFFER_IDLE_TIMEOUT_IN_MS);
+    private int receiverReadQuantum =
+        getInteger(RECEIVER_READ_QUANTUM_PROP, DEFAULT_RECEIVER_READ_QUANTUM);
     private int receiverSocketBufferSize =
         getInteger(RECEIVER_SOCKET_BUFFER_SIZE_PROP, DEFAULT_RECEIVER_SOCKET_BUFFER_SIZE);
     private int senderSocketBufferSize =
@@ -198,8 +259,12 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         getInteger(SEQUENCE_NUMBER_INDEX_SIZE_PROP, DEFAULT_SEQUENCE_NUMBER_INDEX_SIZE);
     private int sessionIdBufferSize =
         getInteger(SESSION_ID_BUFFER_SIZE_PROP, DEFAULT_SESSION_ID_BUFFER_SIZE);
+    private int sessionIdBufferMaxSize =
+        getInteger(SESSION_ID_BUFFER_MAX_SIZE_PROP, DEFAULT_SESSION_ID_BUFFER_MAX_SIZE);
     private int senderMaxBytesInBuffer =
         getInteger(SENDER_MAX_BYTES_IN_BUFFER_PROP, DEFAULT_SENDER_MAX_BYTES_IN_BUFFER);
+    private int senderWriteBatchSize =
+        getInteger(SENDER_WRITE_BATCH_SIZE_PROP, DEFAULT_SENDER_WRITE_BATCH_SIZE);
     private int noLogonDisconnectTimeoutInMs =
         getInteger(NO_LOGON_DISCONNECT_TIMEOUT_PROP, DEFAULT_NO_LOGON_DISCONNECT_TIMEOUT);
 
@@ -218,6 +283,8 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     private boolean soleLibraryMode = false;
     private AuthenticationStrategy authenticationStrategy = AuthenticationStrategy.none();
     private long indexFileStateFlushTimeoutInMs = DEFAULT_INDEX_FILE_STATE_FLUSH_TIMEOUT_IN_MS;
+    private SequenceNumberIndexDurability sequenceNumberIndexDurability = SequenceNumberIndexDurability.GROUP_COMMIT;
+    private int sequenceNumberIndexSyncRecordCount = DEFAULT_SEQUENCE_NUMBER_INDEX_SYNC_RECORD_COUNT;
 
     /**
      * Sets the local address to bind to when the Gateway is used to accept connections.
@@ -251,6 +318,84 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Sets the size of the framing buffer that each receiver end point starts with, enabling receiver buffer
+     * pooling.
+     * <p>
+     * When set to a size that is smaller than the {@link #receiverBufferSize(int)} each receiver end point starts
+     * with a framing buffer of this size. If a message doesn't fit into it then the end point borrows a buffer of
+     * {@link #receiverBufferSize(int)} bytes from a pool that is shared between all end points, and returns it once
+     * it has been idle for the {@link #receiverBufferIdleTimeoutInMs(long)}. This means that sessions which only
+     * exchange small messages, for example heartbeats, don't each hold a full size buffer.
+     * <p>
+     * Default: 0, which disables pooling so that each end point has its own buffer of
+     * {@link #receiverBufferSize(int)} bytes.
+     *
+     * @param receiverInitialBufferSize the initial receiver buffer size, or 0 to disable pooling.
+     * @return this
+     * @see EngineConfiguration#RECEIVER_INITIAL_BUFFER_SIZE_PROP
+     */
+    public EngineConfiguration receiverInitialBufferSize(final int receiverInitialBufferSize)
+    {
+        this.receiverInitialBufferSize = receiverInitialBufferSize;
+        return this;
+    }
+
+    /**
+     * Sets the time that a receiver end point can have no data left to frame before it returns its pooled buffer.
+     * Only used when {@link #receiverInitialBufferSize(int)} is set.
+     *
+     * @param receiverBufferIdleTimeoutInMs the idle timeout in milliseconds.
+     * @return this
+     * @see EngineConfiguration#RECEIVER_BUFFER_IDLE_TIMEOUT_PROP
+     */
+    public EngineConfiguration receiverBufferIdleTimeoutInMs(final long receiverBufferIdleTimeoutInMs)
+    {
+        this.receiverBufferIdleTimeoutInMs = receiverBufferIdleTimeoutInMs;
+        return this;
+    }
+
+    /**
+     * Sets the number of bytes that each TCP connection is allowed to read every time that the receiver end points
+     * are polled.
+     * <p>
+     * Reads are scheduled using deficit round robin: each poll of a connection credits it with this many bytes and
+     * a read can't exceed its credit, so a single busy connection can't read a full buffer's worth of data ahead
+     * of other connections. Unused credit is kept, up to twice the quantum, while a connection still has data
+     * waiting and is lost once its socket has been drained. The number of reads cut short by this quota is
+     * recorded in a per connection counter.
+     * <p>
+     * Default: 0, which disables read quotas.
+     *
+     * @param receiverReadQuantum the number of bytes credited to each connection per poll, or 0 to disable quotas.
+     * @return this
+     * @see EngineConfiguration#RECEIVER_READ_QUANTUM_PROP
+     */
+    public EngineConfiguration receiverReadQuantum(final int receiverReadQuantum)
+    {
+        this.receiverReadQuantum = receiverReadQuantum;
+        return this;
+    }
+
+    /**
+     * Sets whether receiver end points compact their framing buffer lazily.
+     * <p>
+     * By default any partially received message is copied back to the start of the framing buffer every time
+     * data is read from its TCP connection. When enabled the partial message is left where it is and is only
+     * copied once there is less free space after it in the buffer than before it. This stops large messages that
+     * arrive in many small TCP segments from being repeatedly copied.
+     * <p>
+     * Default: false.
+     *
+     * @param lazyReceiverBufferCompaction true to compact framing buffers lazily, false otherwise.
+     * @return this
+     */
+    public EngineConfiguration lazyReceiverBufferCompaction(final boolean lazyReceiverBufferCompaction)
+    {
+        this.lazyReceiverBufferCompaction = lazyReceiverBufferCompaction;
+        return this;
+    }
+
     /**
      * Sets the receiver socket buffer size.
      *
@@ -306,6 +451,136 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Sets whether replay queries binary search the replay index for the start of the requested range.
+     * <p>
+     * By default a replay query reads the index from its oldest record forwards until it finds the requested range.
+     * When enabled it binary searches the index on sequence index and sequence number first, so a resend request for
+     * recent messages only reads the records that it replays. This relies upon each session's sequence index and
+     * sequence number never going backwards within the index.
+     * <p>
+     * Default: false.
+     *
+     * @param replayIndexBinarySearch true to binary search the replay index, false to scan it.
+     * @return this
+     */
+    public EngineConfiguration replayIndexBinarySearch(final boolean replayIndexBinarySearch)
+    {
+        this.replayIndexBinarySearch = replayIndexBinarySearch;
+        return this;
+    }
+
+    /**
+     * Sets whether records that are evicted from a session's replay index are kept in a cold tier.
+     * <p>
+     * Each session's replay index is a ring of {@link #replayIndexFileSize(int)} bytes, so once a session has
+     * written more records than fit into it older messages can't be resent, even though the archive still holds them.
+     * When enabled records are appended, a block at a time, to a per session cold index file before the ring
+     * overwrites them. Replay queries search the cold index as well as the ring, so the history that can be resent is
+     * bounded by disk space rather than the size of the ring. Cold index files are only created for sessions that
+     * wrap their ring and aren't truncated. Like the ring, the cold index is scanned from its oldest record unless
+     * {@link #replayIndexBinarySearch(boolean)} is enabled.
+     * <p>
+     * Default: false.
+     *
+     * @param replayIndexColdTier true to keep evicted replay index records in a cold tier, false to discard them.
+     * @return this
+     */
+    public EngineConfiguration replayIndexColdTier(final boolean replayIndexColdTier)
+    {
+        this.replayIndexColdTier = replayIndexColdTier;
+        return this;
+    }
+
+    /**
+     * Sets the number of sessions whose replay indexes are allocated as slabs of a few large shared files.
+     * <p>
+     * By default each session's replay index is its own file, which is mapped by both the indexer and the replayer,
+     * so the number of files and mappings grows with the number of sessions. When this is set each stream's replay
+     * indexes are instead fixed size slabs of files of up to 1GB, along with a directory file that maps session ids
+     * to slabs. Each slab is {@link #replayIndexFileSize(int)} bytes and slabs aren't reclaimed, so this should be
+     * at least the number of sessions that the engine will ever index. Sessions beyond this count are given a file
+     * each, as if this option wasn't set. Slab files are created sparse when their first slab is allocated.
+     * Changing this option doesn't migrate existing replay index files.
+     * <p>
+     * Default: 0, which uses a file per session.
+     *
+     * @param replayIndexSlabCount the maximum number of sessions to allocate slabs to, or 0 for a file per session.
+     * @return this
+     * @see EngineConfiguration#REPLAY_INDEX_SLAB_COUNT_PROP
+     */
+    public EngineConfiguration replayIndexSlabCount(final int replayIndexSlabCount)
+    {
+        this.replayIndexSlabCount = replayIndexSlabCount;
+        return this;
+    }
+
+    /**
+     * Sets the interval between the entries of the time index.
+     * <p>
+     * The time index is a sparse index, per stream, from message timestamps to their positions in the archive. It's
+     * built by the indexer alongside the replay index, and an entry is written for the first message of each
+     * recording that's at least this interval after the recording's previous entry. The
+     * {@link uk.co.real_logic.artio.engine.logger.FixArchiveScanner} uses it to only replay the part of a recording
+     * that can hold messages in a queried time range, rather than the whole recording. A smaller interval makes
+     * those scans shorter and the index bigger.
+     * <p>
+     * Default: 0, which disables the time index.
+     *
+     * @param timeIndexInterval the interval between entries, in the precision of
+     *                          {@link uk.co.real_logic.artio.CommonConfiguration#clock()}, or 0 to disable the index.
+     * @return this
+     * @see EngineConfiguration#TIME_INDEX_INTERVAL_PROP
+     */
+    public EngineConfiguration timeIndexInterval(final long timeIndexInterval)
+    {
+        this.timeIndexInterval = timeIndexInterval;
+        return this;
+    }
+
+    /**
+     * Sets the maximum size that the session id file can grow to.
+     * <p>
+     * A session id record is written for every new session. When the file has no space left for a record it's
+     * remapped at double its size, up to this maximum, rather than the session being given an id that isn't
+     * persisted. Growing extends the file and maps it again, it doesn't copy its contents, so the file can be sized for
+     * the normal number of sessions rather than the worst case. The framer's "session id file" counters report how many
+     * bytes of the file are used and its current capacity.
+     * <p>
+     * Default: 0, which disables growth.
+     *
+     * @param sessionIdBufferMaxSize the maximum size in bytes, a multiple of {@link SectorFramer#SECTOR_SIZE}, or 0
+     *                               to disable growth.
+     * @return this
+     * @see EngineConfiguration#SESSION_ID_BUFFER_MAX_SIZE_PROP
+     */
+    public EngineConfiguration sessionIdBufferMaxSize(final int sessionIdBufferMaxSize)
+    {
+        this.sessionIdBufferMaxSize = sessionIdBufferMaxSize;
+        return this;
+    }
+
+    /**
+     * Sets the number of recently sent messages per session that the replayer keeps in memory.
+     * <p>
+     * The cache is filled from the outbound library stream. A resend request whose whole range is still in the cache
+     * is replayed from it, otherwise it is replayed from the archive. Messages that are fragmented over multiple Aeron
+     * fragments aren't cached and clear their session's cache. Each cached message is held in a buffer that grows to
+     * fit it, so the memory used is bounded by this size multiplied by the size of the largest message and the number
+     * of sessions.
+     * <p>
+     * Default: 0, which disables the cache.
+     *
+     * @param replayCacheSize the number of messages cached per session, or 0 to disable the cache.
+     * @return this
+     * @see EngineConfiguration#REPLAY_CACHE_SIZE_PROP
+     */
+    public EngineConfiguration replayCacheSize(final int replayCacheSize)
+    {
+        this.replayCacheSize = replayCacheSize;
+        return this;
+    }
+
     /**
      * Sets the set size of the logger's caches.
      * <p>
@@ -450,6 +725,24 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Sets the size of the per connection buffer that outbound messages are batched into.
+     * <p>
+     * When enabled, all the messages for a connection that are read from the libraries in a single
+     * duty cycle of the Framer are written to the TCP connection together, using a single
+     * system call rather than one per message. Messages that don't fit into the remaining space of the batch
+     * are written along with it using a gathering write. 0, the default, disables write batching.
+     *
+     * @param senderWriteBatchSize the size of the per connection buffer that outbound messages are batched into.
+     * @return this
+     * @see EngineConfiguration#SENDER_WRITE_BATCH_SIZE_PROP
+     */
+    public EngineConfiguration senderWriteBatchSize(final int senderWriteBatchSize)
+    {
+        this.senderWriteBatchSize = senderWriteBatchSize;
+        return this;
+    }
+
     /**
      * Set the timeout in milliseconds for TCP connections which don't send a logon message.
      *
@@ -629,11 +922,67 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Sets when the sent and received sequence number indexes are synced to disk, see
+     * {@link SequenceNumberIndexDurability} for the available policies.
+     * <p>
+     * The number of syncs and of records synced are published as counters, so the records per sync is their ratio.
+     * If message timing is enabled then the latency of each sync is also recorded as a histogram.
+     * <p>
+     * Default: {@link SequenceNumberIndexDurability#GROUP_COMMIT}, which syncs after the
+     * {@link #indexFileStateFlushTimeoutInMs(long)}.
+     *
+     * @param sequenceNumberIndexDurability the durability policy of the sequence number indexes.
+     * @return this
+     */
+    public EngineConfiguration sequenceNumberIndexDurability(
+        final SequenceNumberIndexDurability sequenceNumberIndexDurability)
+    {
+        this.sequenceNumberIndexDurability = sequenceNumberIndexDurability;
+        return this;
+    }
+
+    /**
+     * Sets the number of records that are indexed between syncs of a sequence number index when using
+     * {@link SequenceNumberIndexDurability#RECORD_COUNT}.
+     * <p>
+     * Default: 1, which syncs every record.
+     *
+     * @param sequenceNumberIndexSyncRecordCount the number of records indexed between syncs.
+     * @return this
+     * @see EngineConfiguration#DEFAULT_SEQUENCE_NUMBER_INDEX_SYNC_RECORD_COUNT
+     */
+    public EngineConfiguration sequenceNumberIndexSyncRecordCount(final int sequenceNumberIndexSyncRecordCount)
+    {
+        this.sequenceNumberIndexSyncRecordCount = sequenceNumberIndexSyncRecordCount;
+        return this;
+    }
+
     public int receiverBufferSize()
     {
         return receiverBufferSize;
     }
 
+    public int receiverInitialBufferSize()
+    {
+        return receiverInitialBufferSize;
+    }
+
+    public long receiverBufferIdleTimeoutInMs()
+    {
+        return receiverBufferIdleTimeoutInMs;
+    }
+
+    public int receiverReadQuantum()
+    {
+        return receiverReadQuantum;
+    }
+
+    public boolean lazyReceiverBufferCompaction()
+    {
+        return lazyReceiverBufferCompaction;
+    }
+
     public int receiverSocketBufferSize()
     {
         return receiverSocketBufferSize;
@@ -664,6 +1013,31 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return replayIndexFileSize;
     }
 
+    public boolean replayIndexBinarySearch()
+    {
+        return replayIndexBinarySearch;
+    }
+
+    public int replayCacheSize()
+    {
+        return replayCacheSize;
+    }
+
+    public int replayIndexSlabCount()
+    {
+        return replayIndexSlabCount;
+    }
+
+    public boolean replayIndexColdTier()
+    {
+        return replayIndexColdTier;
+    }
+
+    public long timeIndexInterval()
+    {
+        return timeIndexInterval;
+    }
+
     public int loggerCacheSetSize()
     {
         return loggerCacheSetSize;
@@ -749,6 +1123,11 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return sessionIdBuffer;
     }
 
+    public int sessionIdBufferMaxSize()
+    {
+        return sessionIdBufferMaxSize;
+    }
+
     public Set<String> gapfillOnReplayMessageTypes()
     {
         return gapfillOnReplayMessageTypes;
@@ -759,6 +1138,11 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return senderMaxBytesInBuffer;
     }
 
+    public int senderWriteBatchSize()
+    {
+        return senderWriteBatchSize;
+    }
+
     public int noLogonDisconnectTimeoutInMs()
     {
         return noLogonDisconnectTimeoutInMs;
@@ -799,6 +1183,16 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return indexFileStateFlushTimeoutInMs;
     }
 
+    public SequenceNumberIndexDurability sequenceNumberIndexDurability()
+    {
+        return sequenceNumberIndexDurability;
+    }
+
+    public int sequenceNumberIndexSyncRecordCount()
+    {
+        return sequenceNumberIndexSyncRecordCount;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -924,6 +1318,51 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
                 sessionBufferSize()));
         }
 
+        if (receiverInitialBufferSize() < 0 || receiverInitialBufferSize() > receiverBufferSize())
+        {
+            throw new IllegalArgumentException(String.format(
+                "receiverInitialBufferSize(%d) must be between 0 and the receiverBufferSize(%d)",
+                receiverInitialBufferSize(),
+                receiverBufferSize()));
+        }
+
+        if (replayCacheSize() < 0)
+        {
+            throw new IllegalArgumentException(
+                "replayCacheSize must not be negative, but was " + replayCacheSize());
+        }
+
+        if (sequenceNumberIndexSyncRecordCount() < 1)
+        {
+            throw new IllegalArgumentException(
+                "sequenceNumberIndexSyncRecordCount must be positive, but was " + sequenceNumberIndexSyncRecordCount());
+        }
+
+        if (replayIndexSlabCount() < 0)
+        {
+            throw new IllegalArgumentException(
+                "replayIndexSlabCount must not be negative, but was " + replayIndexSlabCount());
+        }
+
+        if (timeIndexInterval() < 0)
+        {
+            throw new IllegalArgumentException(
+                "timeIndexInterval must not be negative, but was " + timeIndexInterval());
+        }
+
+        if (sessionIdBufferMaxSize() < 0 || sessionIdBufferMaxSize() % SectorFramer.SECTOR_SIZE != 0)
+        {
+            throw new IllegalArgumentException(
+                "sessionIdBufferMaxSize must be a non-negative multiple of the sector size, but was " +
+                sessionIdBufferMaxSize());
+        }
+
+        if (receiverReadQuantum() < 0)
+        {
+            throw new IllegalArgumentException(
+                "receiverReadQuantum must not be negative, but was " + receiverReadQuantum());
+        }
+
         if (sentSequenceNumberIndex() == null)
         {
             sentSequenceNumberIndex = mapFile(DEFAULT_SEQUENCE_NUMBERS_SENT_FILE, sequenceNumberIndexSize);
@@ -30,6 +30,7 @@ import uk.co.real_logic.artio.dictionary.generation.Exceptions;
 import uk.co.real_logic.artio.engine.logger.*;
 import uk.co.real_logic.artio.protocol.GatewayPublication;
 import uk.co.real_logic.artio.protocol.Streams;
+import uk.co.real_logic.artio.timing.EngineTimers;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -57,10 +58,8 @@ public class EngineContext implements AutoCloseable
     private Streams inboundLibraryStreams;
     private Streams outboundLibraryStreams;
 
-    // Indexers are owned by the indexingAgent
-    private Indexer inboundIndexer;
-    private Indexer outboundIndexer;
-    private Agent indexingAgent;
+    // Indexers are owned by the indexingAgents
+    private final List<Agent> indexingAgents = new ArrayList<>();
 
     EngineContext(
         final EngineConfiguration configuration,
@@ -69,7 +68,8 @@ public class EngineContext implements AutoCloseable
         final FixCounters fixCounters,
         final Aeron aeron,
         final AeronArchive aeronArchive,
-        final RecordingCoordinator recordingCoordinator)
+        final RecordingCoordinator recordingCoordinator,
+        final EngineTimers timers)
     {
         this.configuration = configuration;
         this.errorHandler = errorHandler;
@@ -92,7 +92,14 @@ public class EngineContext implements AutoCloseable
                 configuration.outboundLibraryStream(),
                 recordingCoordinator.outboundRecordingIdLookup(),
                 configuration.indexFileStateFlushTimeoutInMs(),
-                epochClock);
+                epochClock,
+                configuration.sequenceNumberIndexDurability(),
+                configuration.sequenceNumberIndexSyncRecordCount(),
+                fixCounters.indexSyncs("sent sequence number index"),
+                fixCounters.indexSyncedRecords("sent sequence number index"),
+                timers.sentIndexSyncTimer(),
+                fixCounters.fileUsedBytes("sent sequence number index"),
+                fixCounters.fileCapacity("sent sequence number index"));
             receivedSequenceNumberIndex = new SequenceNumberIndexWriter(
                 configuration.receivedSequenceNumberBuffer(),
                 configuration.receivedSequenceNumberIndex(),
@@ -100,7 +107,14 @@ public class EngineContext implements AutoCloseable
                 configuration.inboundLibraryStream(),
                 recordingCoordinator.inboundRecordingIdLookup(),
                 configuration.indexFileStateFlushTimeoutInMs(),
-                epochClock);
+                epochClock,
+                configuration.sequenceNumberIndexDurability(),
+                configuration.sequenceNumberIndexSyncRecordCount(),
+                fixCounters.indexSyncs("received sequence number index"),
+                fixCounters.indexSyncedRecords("received sequence number index"),
+                timers.receivedIndexSyncTimer(),
+                fixCounters.fileUsedBytes("received sequence number index"),
+                fixCounters.fileCapacity("received sequence number index"));
 
             newStreams();
             newArchivingAgent();
@@ -156,7 +170,32 @@ public class EngineContext implements AutoCloseable
             LoggerUtil::map,
             ReplayIndexDescriptor.replayPositionBuffer(logFileDir, streamId),
             errorHandler,
-            recordingIdLookup);
+            recordingIdLookup,
+            configuration.replayIndexSlabCount(),
+            configuration.replayIndexColdTier(),
+            LoggerUtil::mapSparse,
+            fixCounters.fileUsedBytes("replay index slabs for stream " + streamId),
+            fixCounters.fileCapacity("replay index slabs for stream " + streamId));
+    }
+
+    // The time index is built alongside the replay index.
+    private List<Index> newReplayIndices(
+        final int cacheSetSize,
+        final int cacheNumSets,
+        final String logFileDir,
+        final int streamId,
+        final RecordingIdLookup recordingIdLookup)
+    {
+        final List<Index> indices = new ArrayList<>();
+        indices.add(newReplayIndex(cacheSetSize, cacheNumSets, logFileDir, streamId, recordingIdLookup));
+
+        final long timeIndexInterval = configuration.timeIndexInterval();
+        if (timeIndexInterval > 0)
+        {
+            indices.add(new TimeIndexWriter(logFileDir, streamId, timeIndexInterval, errorHandler, recordingIdLookup));
+        }
+
+        return indices;
     }
 
     private ReplayQuery newReplayQuery(final IdleStrategy idleStrategy, final int streamId)
@@ -175,12 +214,17 @@ public class EngineContext implements AutoCloseable
             idleStrategy,
             aeronArchive,
             errorHandler,
-            archiveReplayStream);
+            archiveReplayStream,
+            configuration.replayIndexBinarySearch(),
+            configuration.replayIndexFileSize(),
+            configuration.replayIndexSlabCount(),
+            configuration.replayIndexColdTier());
     }
 
     private Replayer newReplayer(
         final ExclusivePublication replayPublication)
     {
+        final int replayCacheSize = configuration.replayCacheSize();
         return new Replayer(
             newReplayQuery(configuration.archiverIdleStrategy(), configuration.outboundLibraryStream()),
             replayPublication,
@@ -193,7 +237,9 @@ public class EngineContext implements AutoCloseable
             new SystemEpochClock(),
             configuration.gapfillOnReplayMessageTypes(),
             configuration.replayHandler(),
-            senderSequenceNumbers);
+            senderSequenceNumbers,
+            replayCacheSize > 0 ? outboundLibraryStreams.subscription("replayCache") : null,
+            replayCacheSize);
     }
 
     private void newIndexers()
@@ -202,41 +248,82 @@ public class EngineContext implements AutoCloseable
         final int cacheNumSets = configuration.loggerCacheNumSets();
         final String logFileDir = configuration.logFileDir();
 
-        final ReplayIndex inboundReplayIndex = newReplayIndex(
+        final List<Index> inboundReplayIndices = newReplayIndices(
             cacheSetSize,
             cacheNumSets,
             logFileDir,
             configuration.inboundLibraryStream(),
             recordingCoordinator.inboundRecordingIdLookup());
 
-        inboundIndexer = new Indexer(
-            asList(inboundReplayIndex, receivedSequenceNumberIndex),
-            inboundLibraryStreams.subscription("inboundIndexer"),
-            configuration.agentNamePrefix(),
-            inboundCompletionPosition,
-            aeronArchive,
-            errorHandler,
-            configuration.archiveReplayStream(),
-            configuration.gracefulShutdown());
+        final List<Index> inboundIndices = new ArrayList<>(inboundReplayIndices);
+        inboundIndices.add(receivedSequenceNumberIndex);
 
-        final List<Index> outboundIndices = new ArrayList<>();
-        outboundIndices.add(newReplayIndex(
+        final List<Index> outboundReplayIndices = newReplayIndices(
             cacheSetSize,
             cacheNumSets,
             logFileDir,
             configuration.outboundLibraryStream(),
-            recordingCoordinator.outboundRecordingIdLookup()));
+            recordingCoordinator.outboundRecordingIdLookup());
+        final PositionSender positionSender = new PositionSender(inboundPublication());
+        final List<Index> outboundIndices = new ArrayList<>(outboundReplayIndices);
         outboundIndices.add(sentSequenceNumberIndex);
-        outboundIndices.add(new PositionSender(inboundPublication()));
+        outboundIndices.add(positionSender);
 
-        outboundIndexer = new Indexer(
-            outboundIndices,
-            outboundLibraryStreams.subscription("outboundIndexer"),
-            configuration.agentNamePrefix(),
-            outboundLibraryCompletionPosition,
-            aeronArchive,
-            errorHandler,
-            configuration.archiveReplayStream(), configuration.gracefulShutdown());
+        // Catch up every index together so that restart time is bounded by the slowest index rather than their sum
+        final List<Index> allIndices = new ArrayList<>(inboundIndices);
+        allIndices.addAll(outboundIndices);
+        new IndexCatchUp(aeronArchive, errorHandler, configuration.archiveReplayStream()).catchUp(allIndices);
+
+        if (configuration.scheduler().separateIndexingAgents())
+        {
+            newIndexer("inboundReplay", inboundLibraryStreams, inboundCompletionPosition, inboundReplayIndices);
+            newIndexer(
+                "inboundSequenceNumber",
+                inboundLibraryStreams,
+                inboundCompletionPosition,
+                receivedSequenceNumberIndex);
+            newIndexer(
+                "outboundReplay",
+                outboundLibraryStreams,
+                outboundLibraryCompletionPosition,
+                outboundReplayIndices);
+            // Sent positions are only reported to libraries once their messages' sequence numbers are indexed.
+            newIndexer(
+                "outboundSequenceNumber",
+                outboundLibraryStreams,
+                outboundLibraryCompletionPosition,
+                sentSequenceNumberIndex,
+                positionSender);
+        }
+        else
+        {
+            newIndexer("inbound", inboundLibraryStreams, inboundCompletionPosition, inboundIndices);
+            newIndexer("outbound", outboundLibraryStreams, outboundLibraryCompletionPosition, outboundIndices);
+        }
+    }
+
+    private void newIndexer(
+        final String name,
+        final Streams streams,
+        final CompletionPosition completionPosition,
+        final Index... indices)
+    {
+        newIndexer(name, streams, completionPosition, asList(indices));
+    }
+
+    private void newIndexer(
+        final String name,
+        final Streams streams,
+        final CompletionPosition completionPosition,
+        final List<Index> indices)
+    {
+        final String agentNamePrefix = configuration.agentNamePrefix();
+        indexingAgents.add(new Indexer(
+            indices,
+            streams.subscription(name + "Indexer"),
+            configuration.scheduler().separateIndexingAgents() ? agentNamePrefix + name : agentNamePrefix,
+            completionPosition,
+            configuration.gracefulShutdown()));
     }
 
     private void newArchivingAgent()
@@ -247,12 +334,17 @@ public class EngineContext implements AutoCloseable
 
             final Replayer replayer = newReplayer(replayPublication);
 
-            final List<Agent> agents = new ArrayList<>();
-            agents.add(inboundIndexer);
-            agents.add(outboundIndexer);
-            agents.add(replayer);
-
-            indexingAgent = new CompositeAgent(agents);
+            if (configuration.scheduler().separateIndexingAgents())
+            {
+                indexingAgents.add(replayer);
+            }
+            else
+            {
+                final List<Agent> agents = new ArrayList<>(indexingAgents);
+                agents.add(replayer);
+                indexingAgents.clear();
+                indexingAgents.add(new CompositeAgent(agents));
+            }
         }
         else
         {
@@ -263,11 +355,11 @@ public class EngineContext implements AutoCloseable
                 clock,
                 configuration.outboundMaxClaimAttempts());
 
-            indexingAgent = new GapFiller(
+            indexingAgents.add(new GapFiller(
                 inboundLibraryStreams.subscription("replayer"),
                 replayGatewayPublication,
                 configuration.agentNamePrefix(),
-                senderSequenceNumbers);
+                senderSequenceNumbers));
         }
     }
 
@@ -322,9 +414,9 @@ public class EngineContext implements AutoCloseable
         outboundClusterCompletionPosition.completeDuringStartup();
     }
 
-    Agent indexingAgent()
+    List<Agent> indexingAgents()
     {
-        return indexingAgent;
+        return indexingAgents;
     }
 
     public SenderSequenceNumbers senderSequenceNumbers()
@@ -19,6 +19,9 @@ import io.aeron.Aeron;
 import org.agrona.ErrorHandler;
 import org.agrona.concurrent.Agent;
 import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.CompositeAgent;
+
+import java.util.List;
 
 /**
  * Interface for determining how an Engine's Agents are allocated to threads.
@@ -45,6 +48,51 @@ public interface EngineScheduler extends AutoCloseable
         Agent conductorAgent,
         RecordingCoordinator recordingCoordinator);
 
+    /**
+     * Invoked by the FIX Engine to start the threads when its indexing work is split between several agents, see
+     * {@link #separateIndexingAgents()}. Should only return once they are started.
+     *
+     * By default the indexing agents are composed into a single agent.
+     *
+     * @param configuration the engine's configuration object.
+     * @param errorHandler the ErrorHandler used by the engine.
+     * @param framer the framer agent to schedule.
+     * @param indexingAgents the archiver agents to schedule.
+     * @param monitoringAgent the monitoring agent to schedule.
+     * @param conductorAgent if aeron has useConductorInvoker enable it
+     * @param recordingCoordinator must be shut down after the Framer but before the conductorAgent.
+     */
+    default void launch(
+        EngineConfiguration configuration,
+        ErrorHandler errorHandler,
+        Agent framer,
+        List<Agent> indexingAgents,
+        Agent monitoringAgent,
+        Agent conductorAgent,
+        RecordingCoordinator recordingCoordinator)
+    {
+        launch(
+            configuration,
+            errorHandler,
+            framer,
+            indexingAgents.size() == 1 ? indexingAgents.get(0) : new CompositeAgent(indexingAgents),
+            monitoringAgent,
+            conductorAgent,
+            recordingCoordinator);
+    }
+
+    /**
+     * Determines whether each index is driven by its own agent, polling its own subscription, or whether all the
+     * indexes of a stream are driven by one agent. Separate agents only help if they're scheduled onto their own
+     * threads, as each one polls the stream independently.
+     *
+     * @return true if each index should be driven by its own agent, false otherwise.
+     */
+    default boolean separateIndexingAgents()
+    {
+        return false;
+    }
+
     /**
      * Invoked by the FIX Engine to stop the threads. Should only return once they are completed stopped.
      */
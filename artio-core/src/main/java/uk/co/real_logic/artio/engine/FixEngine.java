@@ -221,7 +221,8 @@ public final class FixEngine extends GatewayProcess
                 fixCounters,
                 aeron,
                 aeronArchive,
-                recordingCoordinator);
+                recordingCoordinator,
+                timers);
             initFramer(configuration, fixCounters, replayPublication.sessionId());
             initMonitoringAgent(timers.all(), configuration);
             recordingCoordinator.awaitReady();
@@ -299,7 +300,7 @@ public final class FixEngine extends GatewayProcess
             configuration,
             errorHandler,
             framerContext.framer(),
-            engineContext.indexingAgent(),
+            engineContext.indexingAgents(),
             monitoringAgent,
             conductorAgent(),
             recordingCoordinator);
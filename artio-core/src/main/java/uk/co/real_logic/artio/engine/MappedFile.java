@@ -25,6 +25,7 @@ import uk.co.real_logic.artio.CommonConfiguration;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 
@@ -115,6 +116,34 @@ public class MappedFile implements AutoCloseable
         this.buffer = remappedFile.buffer;
     }
 
+    /**
+     * Extends the file and maps it again at the new size. The buffer keeps its identity, so references to it stay
+     * valid, but it must not be accessed by another thread while it's being remapped.
+     *
+     * @param newSize the new size of the file in bytes, which must be bigger than its current size.
+     */
+    public void growTo(final int newSize)
+    {
+        final ByteBuffer oldByteBuffer = buffer.byteBuffer();
+        if (newSize <= buffer.capacity())
+        {
+            throw new IllegalArgumentException(
+                "Cannot grow " + file + " to " + newSize + " as it's already " + buffer.capacity() + " bytes");
+        }
+
+        try
+        {
+            // Mapping past the end of the file extends it without writing its new region.
+            final MappedByteBuffer mappedBuffer = fileChannel.map(READ_WRITE, 0, newSize);
+            buffer.wrap(mappedBuffer);
+            IoUtil.unmap(oldByteBuffer);
+        }
+        catch (final IOException ex)
+        {
+            LangUtil.rethrowUnchecked(ex);
+        }
+    }
+
     public void close()
     {
         IoUtil.unmap(buffer.byteBuffer());
@@ -116,6 +116,7 @@ class EndOfDayOperation implements Continuation
             if (session != null)
             {
                 final long position = session.logoutAndDisconnect();
+                gatewaySession.pollOnNextDutyCycle();
                 if (position < 0)
                 {
                     return position;
@@ -30,6 +30,7 @@ class EndPointFactory
     private final ErrorHandler errorHandler;
     private final GatewaySessions gatewaySessions;
     private final SenderSequenceNumbers senderSequenceNumbers;
+    private final ReceiverBufferPool receiverBufferPool;
 
     private SlowPeeker replaySlowPeeker;
 
@@ -49,6 +50,19 @@ class EndPointFactory
         this.errorHandler = errorHandler;
         this.gatewaySessions = gatewaySessions;
         this.senderSequenceNumbers = senderSequenceNumbers;
+
+        if (configuration.receiverInitialBufferSize() > 0)
+        {
+            receiverBufferPool = new ReceiverBufferPool(
+                configuration.receiverBufferSize(),
+                configuration.receiverBufferIdleTimeoutInMs(),
+                fixCounters.receiverBuffersInUse(),
+                fixCounters.receiverBuffersAllocated());
+        }
+        else
+        {
+            receiverBufferPool = null;
+        }
     }
 
     ReceiverEndPoint receiverEndPoint(
@@ -59,19 +73,28 @@ class EndPointFactory
         final int libraryId,
         final Framer framer)
     {
+        final String remoteAddress = channel.remoteAddress();
+        final int bufferSize = receiverBufferPool != null ?
+            configuration.receiverInitialBufferSize() : configuration.receiverBufferSize();
+        final int readQuantum = configuration.receiverReadQuantum();
+
         return new ReceiverEndPoint(
             channel,
-            configuration.receiverBufferSize(),
+            bufferSize,
             inboundLibraryPublication,
             connectionId,
             sessionId,
             sequenceIndex,
             sessionContexts,
-            fixCounters.messagesRead(connectionId, channel.remoteAddress()),
+            fixCounters.messagesRead(connectionId, remoteAddress),
             framer,
             errorHandler,
             libraryId,
-            gatewaySessions
+            gatewaySessions,
+            configuration.lazyReceiverBufferCompaction(),
+            receiverBufferPool,
+            readQuantum,
+            readQuantum > 0 ? fixCounters.quotaLimitedReads(connectionId, remoteAddress) : null
         );
     }
 
@@ -96,7 +119,13 @@ class EndPointFactory
             configuration.senderMaxBytesInBuffer(),
             configuration.slowConsumerTimeoutInMs(),
             System.currentTimeMillis(),
-            senderSequenceNumbers.onNewSender(connectionId));
+            senderSequenceNumbers.onNewSender(connectionId),
+            configuration.senderWriteBatchSize());
+    }
+
+    int releaseIdleReceiverBuffers(final long timeInMs)
+    {
+        return receiverBufferPool != null ? receiverBufferPool.releaseIdleBuffers(timeInMs) : 0;
     }
 
     void replaySlowPeeker(final SlowPeeker replaySlowPeeker)
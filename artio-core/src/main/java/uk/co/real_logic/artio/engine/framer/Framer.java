@@ -202,7 +202,7 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         this.agentNamePrefix = agentNamePrefix;
         this.inboundCompletionPosition = inboundCompletionPosition;
         this.outboundLibraryCompletionPosition = outboundLibraryCompletionPosition;
-        this.senderEndPoints = new SenderEndPoints(errorHandler);
+        this.senderEndPoints = new SenderEndPoints(errorHandler, clock.time());
         this.conductorAgentInvoker = conductorAgentInvoker;
         this.recordingCoordinator = recordingCoordinator;
         this.senderEndPointAssembler = new ControlledFragmentAssembler(senderEndPoints, 0, true);
@@ -323,6 +323,7 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
             pollLibraries(timeInMs) +
             gatewaySessions.pollSessions(timeInMs) +
             senderEndPoints.checkTimeouts(timeInMs) +
+            endPointFactory.releaseIdleReceiverBuffers(timeInMs) +
             adminCommands.drain(onAdminCommand) +
             checkDutyCycle();
     }
@@ -366,6 +367,8 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
     private int sendOutboundMessages()
     {
         int messagesRead = librarySubscription.controlledPoll(librarySubscriber, outboundLibraryFragmentLimit);
+        // Batched writes need to be flushed before the slow peeker looks at the stream.
+        messagesRead += senderEndPoints.flushBatches();
         messagesRead += librarySlowPeeker.peek(senderEndPointAssembler);
 
         if (nonLoggingPositionSender != null)
@@ -1038,7 +1041,13 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
 
     public Action onRequestDisconnect(final int libraryId, final long connectionId, final DisconnectReason reason)
     {
-        return onDisconnect(libraryId, connectionId, reason);
+        // Messages that the library sent before requesting the disconnect, eg: a logout, must still be written out.
+        if (senderEndPoints.flushBatch(connectionId))
+        {
+            return onDisconnect(libraryId, connectionId, reason);
+        }
+
+        return CONTINUE;
     }
 
     public Action onDisconnect(final int libraryId, final long connectionId, final DisconnectReason reason)
@@ -1755,6 +1764,8 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
 
     void slowStatus(final int libraryId, final long connectionId, final boolean hasBecomeSlow)
     {
+        senderEndPoints.onSlowStatus(connectionId, hasBecomeSlow);
+
         if (hasBecomeSlow)
         {
             sendSlowStatus(libraryId, connectionId, resendNotSlowStatus, resendSlowStatus, SlowStatus.SLOW);
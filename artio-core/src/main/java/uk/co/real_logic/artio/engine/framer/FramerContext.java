@@ -68,7 +68,13 @@ public class FramerContext
         final RecordingCoordinator recordingCoordinator)
     {
         final SessionIdStrategy sessionIdStrategy = configuration.sessionIdStrategy();
-        this.sessionContexts = new SessionContexts(configuration.sessionIdBuffer(), sessionIdStrategy, errorHandler);
+        this.sessionContexts = new SessionContexts(
+            configuration.sessionIdBuffer(),
+            sessionIdStrategy,
+            errorHandler,
+            configuration.sessionIdBufferMaxSize(),
+            fixCounters.fileUsedBytes("session id file"),
+            fixCounters.fileCapacity("session id file"));
         final IdleStrategy idleStrategy = configuration.framerIdleStrategy();
         final Streams outboundLibraryStreams = engineContext.outboundLibraryStreams();
 
@@ -16,6 +16,7 @@
 package uk.co.real_logic.artio.engine.framer;
 
 import uk.co.real_logic.artio.DebugLogger;
+import uk.co.real_logic.artio.TimeoutWheel;
 import uk.co.real_logic.artio.engine.SessionInfo;
 import uk.co.real_logic.artio.messages.ConnectionType;
 import uk.co.real_logic.artio.messages.SlowStatus;
@@ -57,6 +58,11 @@ class GatewaySession implements SessionInfo
     private SessionLogonListener logonListener = this::onSessionLogon;
     private boolean initialResetSeqNum;
 
+    // Set whilst managed by the engine, GatewaySessions schedules when the session is next polled.
+    private GatewaySessions gatewaySessions;
+    private long pollTimerId = TimeoutWheel.NO_TIMER;
+    private boolean pollRequired;
+
     GatewaySession(
         final long connectionId,
         final SessionContext context,
@@ -109,8 +115,10 @@ class GatewaySession implements SessionInfo
     void manage(
         final SessionParser sessionParser,
         final InternalSession session,
-        final BlockablePosition blockablePosition)
+        final BlockablePosition blockablePosition,
+        final GatewaySessions gatewaySessions)
     {
+        this.gatewaySessions = gatewaySessions;
         this.sessionParser = sessionParser;
         this.session = session;
         this.session.logonListener(logonListener);
@@ -125,6 +133,7 @@ class GatewaySession implements SessionInfo
     {
         setManagementTo(libraryId, blockablePosition);
 
+        gatewaySessions = null;
         sessionParser = null;
         session.logonListener(null);
         context.updateAndSaveFrom(session);
@@ -149,6 +158,33 @@ class GatewaySession implements SessionInfo
         return session.poll(time) + checkNoLogonDisconnect(time);
     }
 
+    // Only valid when the last poll() had no events to process.
+    long nextTimeoutInMs()
+    {
+        final long sessionTimeoutInMs = session.nextTimeoutInMs();
+        return disconnectTimeout == NO_TIMEOUT ? sessionTimeoutInMs : Math.min(sessionTimeoutInMs, disconnectTimeout);
+    }
+
+    long pollTimerId()
+    {
+        return pollTimerId;
+    }
+
+    void pollTimerId(final long pollTimerId)
+    {
+        this.pollTimerId = pollTimerId;
+    }
+
+    boolean pollRequired()
+    {
+        return pollRequired;
+    }
+
+    void pollRequired(final boolean pollRequired)
+    {
+        this.pollRequired = pollRequired;
+    }
+
     private int checkNoLogonDisconnect(final long time)
     {
         if (disconnectTimeout == NO_TIMEOUT)
@@ -199,6 +235,16 @@ class GatewaySession implements SessionInfo
             DebugLogger.log(FIX_MESSAGE, "Gateway Received %s %n", buffer, offset, length);
 
             sessionParser.onMessage(buffer, offset, length, messageType, sessionId);
+            pollOnNextDutyCycle();
+        }
+    }
+
+    // Called when the session's state or timeouts may have changed outside of poll()
+    void pollOnNextDutyCycle()
+    {
+        if (gatewaySessions != null)
+        {
+            gatewaySessions.pollOnNextDutyCycle(this);
         }
     }
 
@@ -22,6 +22,7 @@ import org.agrona.concurrent.status.AtomicCounter;
 import uk.co.real_logic.artio.DebugLogger;
 import uk.co.real_logic.artio.FixCounters;
 import uk.co.real_logic.artio.FixGatewayException;
+import uk.co.real_logic.artio.TimeoutWheel;
 import uk.co.real_logic.artio.decoder.LogonDecoder;
 import uk.co.real_logic.artio.engine.FixEngine;
 import uk.co.real_logic.artio.engine.SessionInfo;
@@ -61,6 +62,11 @@ class GatewaySessions
     private final SessionPersistenceStrategy sessionPersistenceStrategy;
     private final SequenceNumberIndexReader sentSequenceNumberIndex;
     private final SequenceNumberIndexReader receivedSequenceNumberIndex;
+    private final TimeoutWheel<GatewaySession> pollTimeouts;
+
+    // Sessions that are polled on the next duty cycle, rather than when their next timeout is due.
+    private List<GatewaySession> sessionsToPoll = new ArrayList<>();
+    private List<GatewaySession> sessionsBeingPolled = new ArrayList<>();
 
     private ErrorHandler errorHandler;
 
@@ -98,6 +104,8 @@ class GatewaySessions
         this.sessionPersistenceStrategy = sessionPersistenceStrategy;
         this.sentSequenceNumberIndex = sentSequenceNumberIndex;
         this.receivedSequenceNumberIndex = receivedSequenceNumberIndex;
+
+        pollTimeouts = new TimeoutWheel<>(clock.time());
     }
 
     static GatewaySession removeSessionByConnectionId(final long connectionId, final List<GatewaySession> sessions)
@@ -170,7 +178,8 @@ class GatewaySessions
             errorHandler);
 
         sessions.add(gatewaySession);
-        gatewaySession.manage(sessionParser, session, engineBlockablePosition);
+        gatewaySession.manage(sessionParser, session, engineBlockablePosition, this);
+        pollOnNextDutyCycle(gatewaySession);
 
         final CompositeKey sessionKey = gatewaySession.sessionKey();
         DebugLogger.log(FIX_CONNECTION, "Gateway Acquired Session %d%n", connectionId);
@@ -189,7 +198,9 @@ class GatewaySessions
             return null;
         }
 
-        return sessions.remove(index);
+        final GatewaySession session = sessions.remove(index);
+        stopPolling(session);
+        return session;
     }
 
     GatewaySession sessionById(final long sessionId)
@@ -224,31 +235,85 @@ class GatewaySessions
         final GatewaySession session = removeSessionByConnectionId(connectionId, sessions);
         if (session != null)
         {
+            stopPolling(session);
             session.close();
         }
     }
 
+    // Sessions are polled on every duty cycle whilst they have events to process, otherwise only once their next
+    // timeout is due or pollOnNextDutyCycle() has been called because something has changed their state.
     int pollSessions(final long time)
     {
-        final List<GatewaySession> sessions = this.sessions;
+        final List<GatewaySession> expiredSessions = pollTimeouts.poll(time);
+        for (int i = 0, size = expiredSessions.size(); i < size; i++)
+        {
+            final GatewaySession session = expiredSessions.get(i);
+            session.pollTimerId(TimeoutWheel.NO_TIMER);
+            pollOnNextDutyCycle(session);
+        }
+
+        // Sessions that need polling again whilst this loop runs are added to the other list.
+        final List<GatewaySession> sessionsBeingPolled = this.sessionsToPoll;
+        this.sessionsToPoll = this.sessionsBeingPolled;
+        this.sessionsBeingPolled = sessionsBeingPolled;
 
         int eventsProcessed = 0;
-        for (int i = 0, size = sessions.size(); i < size; )
+        for (int i = 0, size = sessionsBeingPolled.size(); i < size; i++)
         {
-            final GatewaySession session = sessions.get(i);
-            eventsProcessed += session.poll(time);
-            if (session.hasDisconnected())
+            final GatewaySession session = sessionsBeingPolled.get(i);
+            // Not required if released since being added
+            if (!session.pollRequired())
             {
-                size--;
+                continue;
             }
-            else
+
+            session.pollRequired(false);
+            final int sessionEvents = session.poll(time);
+            eventsProcessed += sessionEvents;
+
+            if (!session.hasDisconnected())
             {
-                i++;
+                if (sessionEvents > 0)
+                {
+                    pollOnNextDutyCycle(session);
+                }
+                else if (session.pollTimerId() == TimeoutWheel.NO_TIMER && !session.pollRequired())
+                {
+                    session.pollTimerId(pollTimeouts.schedule(session.nextTimeoutInMs(), session));
+                }
             }
         }
+        sessionsBeingPolled.clear();
+
         return eventsProcessed;
     }
 
+    void pollOnNextDutyCycle(final GatewaySession session)
+    {
+        if (!session.pollRequired())
+        {
+            cancelPollTimer(session);
+            session.pollRequired(true);
+            sessionsToPoll.add(session);
+        }
+    }
+
+    private void stopPolling(final GatewaySession session)
+    {
+        cancelPollTimer(session);
+        session.pollRequired(false);
+    }
+
+    private void cancelPollTimer(final GatewaySession session)
+    {
+        final long pollTimerId = session.pollTimerId();
+        if (pollTimerId != TimeoutWheel.NO_TIMER)
+        {
+            pollTimeouts.cancel(pollTimerId);
+            session.pollTimerId(TimeoutWheel.NO_TIMER);
+        }
+    }
+
     List<GatewaySession> sessions()
     {
         return sessions;
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2015-2019 Real Logic Ltd, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.concurrent.status.AtomicCounter;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+
+import static org.agrona.collections.ArrayListUtil.fastUnorderedRemove;
+
+/**
+ * Pool of full size framing buffers that receiver end points borrow when a message doesn't fit into their initial
+ * buffer. Buffers are returned once the end point that borrowed them has had no data to frame for the idle timeout.
+ *
+ * Only accessed from the Framer thread.
+ */
+class ReceiverBufferPool
+{
+    private final ArrayDeque<ByteBuffer> freeBuffers = new ArrayDeque<>();
+    private final ArrayList<ReceiverEndPoint> borrowers = new ArrayList<>();
+    private final int bufferSize;
+    private final long idleTimeoutInMs;
+    private final AtomicCounter buffersInUse;
+    private final AtomicCounter buffersAllocated;
+
+    private long timeInMs;
+
+    ReceiverBufferPool(
+        final int bufferSize,
+        final long idleTimeoutInMs,
+        final AtomicCounter buffersInUse,
+        final AtomicCounter buffersAllocated)
+    {
+        this.bufferSize = bufferSize;
+        this.idleTimeoutInMs = idleTimeoutInMs;
+        this.buffersInUse = buffersInUse;
+        this.buffersAllocated = buffersAllocated;
+    }
+
+    ByteBuffer acquire(final ReceiverEndPoint endPoint)
+    {
+        ByteBuffer byteBuffer = freeBuffers.pollFirst();
+        if (byteBuffer == null)
+        {
+            byteBuffer = ByteBuffer.allocateDirect(bufferSize);
+            buffersAllocated.increment();
+        }
+        else
+        {
+            byteBuffer.clear();
+        }
+
+        borrowers.add(endPoint);
+        buffersInUse.increment();
+
+        return byteBuffer;
+    }
+
+    void release(final ReceiverEndPoint endPoint, final ByteBuffer byteBuffer)
+    {
+        final ArrayList<ReceiverEndPoint> borrowers = this.borrowers;
+        final int index = borrowers.indexOf(endPoint);
+        if (index != -1)
+        {
+            fastUnorderedRemove(borrowers, index, borrowers.size() - 1);
+            freeBuffers.offerFirst(byteBuffer);
+            buffersInUse.decrement();
+        }
+    }
+
+    int releaseIdleBuffers(final long timeInMs)
+    {
+        this.timeInMs = timeInMs;
+
+        final ArrayList<ReceiverEndPoint> borrowers = this.borrowers;
+        final long idleSinceInMs = timeInMs - idleTimeoutInMs;
+        int released = 0;
+        // Iterates backwards as releasing a buffer removes its end point from borrowers
+        for (int i = borrowers.size() - 1; i >= 0; i--)
+        {
+            if (borrowers.get(i).releaseIdleBuffer(idleSinceInMs))
+            {
+                released++;
+            }
+        }
+
+        return released;
+    }
+
+    long timeInMs()
+    {
+        return timeInMs;
+    }
+
+    int buffersInUse()
+    {
+        return borrowers.size();
+    }
+}
@@ -83,13 +83,27 @@ class ReceiverEndPoint
     private final Framer framer;
     private final ErrorHandler errorHandler;
     private final MutableAsciiBuffer buffer;
-    private final ByteBuffer byteBuffer;
+    private final ByteBuffer initialByteBuffer;
+    private final MutableAsciiBuffer initialBuffer;
+    private final ReceiverBufferPool bufferPool;
     private final GatewaySessions gatewaySessions;
+    private final boolean lazyBufferCompaction;
+    private final int readQuantum;
+    private final int maxReadQuota;
+    private final AtomicCounter quotaLimitedReads;
+
+    // Either the initialByteBuffer or, when pooling is enabled and a message hasn't fitted into it, a pooled buffer.
+    private ByteBuffer byteBuffer;
+    private long lastReadTimeInMs;
+    private int readQuota = 0;
 
     private int libraryId;
     private GatewaySession gatewaySession;
     private long sessionId;
     private int sequenceIndex;
+    // Data that is yet to be framed lives between frameStart and usedBufferData. frameStart is always 0 unless
+    // lazyBufferCompaction is enabled.
+    private int frameStart = 0;
     private int usedBufferData = 0;
     private boolean hasDisconnected = false;
     private SelectionKey selectionKey;
@@ -112,7 +126,11 @@ class ReceiverEndPoint
         final Framer framer,
         final ErrorHandler errorHandler,
         final int libraryId,
-        final GatewaySessions gatewaySessions)
+        final GatewaySessions gatewaySessions,
+        final boolean lazyBufferCompaction,
+        final ReceiverBufferPool bufferPool,
+        final int readQuantum,
+        final AtomicCounter quotaLimitedReads)
     {
         Objects.requireNonNull(publication, "publication");
         Objects.requireNonNull(sessionContexts, "sessionContexts");
@@ -129,9 +147,16 @@ class ReceiverEndPoint
         this.errorHandler = errorHandler;
         this.libraryId = libraryId;
         this.gatewaySessions = gatewaySessions;
+        this.lazyBufferCompaction = lazyBufferCompaction;
+        this.bufferPool = bufferPool;
+        this.readQuantum = readQuantum;
+        this.maxReadQuota = 2 * readQuantum;
+        this.quotaLimitedReads = quotaLimitedReads;
 
-        byteBuffer = ByteBuffer.allocateDirect(bufferSize);
-        buffer = new MutableAsciiBuffer(byteBuffer);
+        initialByteBuffer = ByteBuffer.allocateDirect(bufferSize);
+        initialBuffer = new MutableAsciiBuffer(initialByteBuffer);
+        byteBuffer = initialByteBuffer;
+        buffer = new MutableAsciiBuffer(initialByteBuffer);
     }
 
     public long connectionId()
@@ -243,12 +268,22 @@ class ReceiverEndPoint
 
     private int readData() throws IOException
     {
-        final int dataRead = channel.read(byteBuffer);
+        if (bufferPool != null)
+        {
+            promoteBufferIfFull();
+        }
+
+        final int dataRead = readQuantum > 0 ? readWithinQuota() : channel.read(byteBuffer);
         if (dataRead != SOCKET_DISCONNECTED)
         {
             if (dataRead > 0)
             {
-                DebugLogger.log(FIX_MESSAGE_TCP, "Read     %s%n", buffer, 0, dataRead);
+                DebugLogger.log(FIX_MESSAGE_TCP, "Read     %s%n", buffer, usedBufferData, dataRead);
+
+                if (bufferPool != null)
+                {
+                    lastReadTimeInMs = bufferPool.timeInMs();
+                }
             }
             usedBufferData += dataRead;
         }
@@ -265,7 +300,7 @@ class ReceiverEndPoint
     // false - needs to be retried, aka back-pressured
     boolean frameMessages()
     {
-        int offset = 0;
+        int offset = frameStart;
         while (true)
         {
             if (usedBufferData < offset + StandardFixConstants.MIN_MESSAGE_SIZE) // Need more data
@@ -374,12 +409,14 @@ class ReceiverEndPoint
         }
 
         final int endOfScanPoint = checksumTagScanPoint + CHECKSUM_TAG_SIZE;
-        final int endOfMessage = buffer.scan(endOfScanPoint, usedBufferData, SEPARATOR) + 1;
-        if (endOfMessage > usedBufferData)
+        final int endOfChecksum = buffer.scan(endOfScanPoint, usedBufferData - 1, SEPARATOR);
+        if (endOfChecksum == UNKNOWN_INDEX)
         {
             return BREAK;
         }
 
+        final int endOfMessage = endOfChecksum + 1;
+
         if (saveInvalidMessage(offset, endOfMessage))
         {
             DebugLogger.log(FIX_MESSAGE, "Invalidated: %s%n", buffer, offset, endOfMessage - offset);
@@ -559,14 +596,118 @@ class ReceiverEndPoint
         }
     }
 
+    // Called when all the data before offset has been framed.
     private void moveRemainingDataToBufferStart(final int offset)
     {
-        usedBufferData -= offset;
-        buffer.putBytes(0, buffer, offset, usedBufferData);
+        if (lazyBufferCompaction)
+        {
+            compactLazily(offset);
+        }
+        else
+        {
+            usedBufferData -= offset;
+            buffer.putBytes(0, buffer, offset, usedBufferData);
+        }
+
         // position set to ensure that back pressure is applied to TCP when read(byteBuffer) called.
         ByteBufferUtil.position(byteBuffer, usedBufferData);
     }
 
+    // Leaves partially received messages where they are and only copies them back to the start of the buffer
+    // once there's less free space after the data than before it, so large messages that arrive over many reads
+    // are copied at most once rather than on every read.
+    private void compactLazily(final int offset)
+    {
+        final int usedBufferData = this.usedBufferData;
+        if (offset == usedBufferData)
+        {
+            frameStart = 0;
+            this.usedBufferData = 0;
+        }
+        else if (byteBuffer.capacity() - usedBufferData < offset)
+        {
+            final int remainingData = usedBufferData - offset;
+            buffer.putBytes(0, buffer, offset, remainingData);
+            frameStart = 0;
+            this.usedBufferData = remainingData;
+        }
+        else
+        {
+            frameStart = offset;
+        }
+    }
+
+    // Deficit round robin: each poll credits the connection with the read quantum and a connection that has
+    // drained its socket loses any remaining credit.
+    private int readWithinQuota() throws IOException
+    {
+        final ByteBuffer byteBuffer = this.byteBuffer;
+        final int readQuota = Math.min(this.readQuota + readQuantum, maxReadQuota);
+        final int remaining = byteBuffer.remaining();
+        final int readLimit = Math.min(readQuota, remaining);
+
+        final int dataRead;
+        ByteBufferUtil.limit(byteBuffer, byteBuffer.position() + readLimit);
+        try
+        {
+            dataRead = channel.read(byteBuffer);
+        }
+        finally
+        {
+            ByteBufferUtil.limit(byteBuffer, byteBuffer.capacity());
+        }
+
+        if (dataRead < readLimit)
+        {
+            this.readQuota = 0;
+        }
+        else
+        {
+            this.readQuota = readQuota - dataRead;
+            if (readLimit < remaining)
+            {
+                quotaLimitedReads.increment();
+            }
+        }
+
+        return dataRead;
+    }
+
+    // A message that doesn't fit into the initial buffer has been partially received, so swap to a full size one.
+    private void promoteBufferIfFull()
+    {
+        if (byteBuffer == initialByteBuffer && usedBufferData == initialByteBuffer.capacity())
+        {
+            final ByteBuffer pooledByteBuffer = bufferPool.acquire(this);
+            final int remainingData = usedBufferData - frameStart;
+            buffer.wrap(pooledByteBuffer);
+            buffer.putBytes(0, initialBuffer, frameStart, remainingData);
+
+            byteBuffer = pooledByteBuffer;
+            frameStart = 0;
+            usedBufferData = remainingData;
+            ByteBufferUtil.position(pooledByteBuffer, remainingData);
+            lastReadTimeInMs = bufferPool.timeInMs();
+        }
+    }
+
+    // Returns the pooled buffer if there has been no data to frame since idleSinceInMs.
+    boolean releaseIdleBuffer(final long idleSinceInMs)
+    {
+        if (usedBufferData == 0 && lastReadTimeInMs <= idleSinceInMs && byteBuffer != initialByteBuffer)
+        {
+            bufferPool.release(this, byteBuffer);
+
+            byteBuffer = initialByteBuffer;
+            buffer.wrap(initialByteBuffer);
+            frameStart = 0;
+            ByteBufferUtil.position(initialByteBuffer, 0);
+            return true;
+        }
+
+        return false;
+    }
+
     // returns true if back-pressured
     private boolean invalidateMessage(final int offset)
     {
@@ -574,12 +715,12 @@ class ReceiverEndPoint
         return saveInvalidMessage(offset);
     }
 
-    private boolean saveInvalidMessage(final int offset, final int startOfChecksumTag)
+    private boolean saveInvalidMessage(final int offset, final int endOfMessage)
     {
         final long position = publication.saveMessage(
             buffer,
             offset,
-            startOfChecksumTag,
+            endOfMessage - offset,
             libraryId,
             UNKNOWN_MESSAGE_TYPE,
             sessionId,
@@ -597,7 +738,7 @@ class ReceiverEndPoint
         final long position = publication.saveMessage(
             buffer,
             offset,
-            usedBufferData,
+            usedBufferData - offset,
             libraryId,
             INVALID_MESSAGE_TYPE,
             sessionId,
@@ -654,6 +795,17 @@ class ReceiverEndPoint
         {
             channel.close();
             messagesRead.close();
+            if (quotaLimitedReads != null)
+            {
+                quotaLimitedReads.close();
+            }
+
+            if (byteBuffer != initialByteBuffer)
+            {
+                bufferPool.release(this, byteBuffer);
+                byteBuffer = initialByteBuffer;
+                buffer.wrap(initialByteBuffer);
+            }
         }
         catch (final Exception ex)
         {
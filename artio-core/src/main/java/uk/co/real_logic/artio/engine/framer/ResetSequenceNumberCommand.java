@@ -42,6 +42,7 @@ class ResetSequenceNumberCommand implements Reply<Void>, AdminCommand
     private final GatewayPublication inboundPublication;
     private final GatewayPublication outboundPublication;
     private Session session;
+    private GatewaySession gatewaySession;
     private LongToIntFunction libraryLookup;
     private long waitSequence = 1;
 
@@ -139,7 +140,7 @@ class ResetSequenceNumberCommand implements Reply<Void>, AdminCommand
                     return true;
                 }
 
-                final GatewaySession gatewaySession = gatewaySessions.sessionById(sessionId);
+                gatewaySession = gatewaySessions.sessionById(sessionId);
                 // Engine Managed
                 if (gatewaySession != null)
                 {
@@ -164,6 +165,7 @@ class ResetSequenceNumberCommand implements Reply<Void>, AdminCommand
             case RESET_ENGINE_SESSION:
             {
                 final long position = session.resetSequenceNumbers();
+                gatewaySession.pollOnNextDutyCycle();
                 if (!Pressure.isBackPressured(position))
                 {
                     waitSequence = 1;
@@ -19,8 +19,12 @@ import io.aeron.logbuffer.ControlledFragmentHandler.Action;
 import io.aeron.protocol.DataHeaderFlyweight;
 import org.agrona.DirectBuffer;
 import org.agrona.ErrorHandler;
+import org.agrona.collections.IntArrayList;
+import org.agrona.collections.LongArrayList;
+import org.agrona.concurrent.UnsafeBuffer;
 import org.agrona.concurrent.status.AtomicCounter;
 import uk.co.real_logic.artio.DebugLogger;
+import uk.co.real_logic.artio.TimeoutWheel;
 import uk.co.real_logic.artio.engine.ByteBufferUtil;
 import uk.co.real_logic.artio.engine.SenderSequenceNumber;
 import uk.co.real_logic.artio.engine.logger.ArchiveDescriptor;
@@ -50,9 +54,19 @@ class SenderEndPoint
     private final StreamTracker replayTracker;
     private final SenderSequenceNumber senderSequenceNumber;
 
+    // Only used when write batching is enabled, null otherwise
+    private final ByteBuffer batchByteBuffer;
+    private final UnsafeBuffer batchBuffer;
+    private final ByteBuffer[] gatherBuffers;
+    private final LongArrayList batchPositions;
+    private final IntArrayList batchLengths;
+
+    private int batchLength;
+    private int batchSequenceNumber;
     private int libraryId;
     private long sessionId;
     private long sendingTimeoutTimeInMs;
+    private long slowConsumerTimerId = TimeoutWheel.NO_TIMER;
     private boolean replayPaused;
 
     SenderEndPoint(
@@ -68,7 +82,8 @@ class SenderEndPoint
         final int maxBytesInBuffer,
         final long slowConsumerTimeoutInMs,
         final long timeInMs,
-        final SenderSequenceNumber senderSequenceNumber)
+        final SenderSequenceNumber senderSequenceNumber,
+        final int writeBatchSize)
     {
         this.connectionId = connectionId;
         this.libraryId = libraryId;
@@ -84,9 +99,27 @@ class SenderEndPoint
         outboundTracker = new StreamTracker(outboundBlockablePosition);
         replayTracker = new StreamTracker(replayBlockablePosition);
         sendingTimeoutTimeInMs = timeInMs + slowConsumerTimeoutInMs;
+
+        if (writeBatchSize > 0)
+        {
+            batchByteBuffer = ByteBuffer.allocateDirect(writeBatchSize);
+            batchBuffer = new UnsafeBuffer(batchByteBuffer);
+            gatherBuffers = new ByteBuffer[2];
+            batchPositions = new LongArrayList();
+            batchLengths = new IntArrayList();
+        }
+        else
+        {
+            batchByteBuffer = null;
+            batchBuffer = null;
+            gatherBuffers = null;
+            batchPositions = null;
+            batchLengths = null;
+        }
     }
 
-    void onOutboundMessage(
+    // Returns true if this message has started a new write batch that needs to be flushed.
+    boolean onOutboundMessage(
         final int libraryId,
         final DirectBuffer directBuffer,
         final int offset,
@@ -98,19 +131,28 @@ class SenderEndPoint
         if (isWrongLibraryId(libraryId))
         {
             invalidLibraryAttempts.increment();
-            return;
+            return false;
         }
 
         if (replayPaused)
         {
             dropFurtherBehind(bodyLength);
 
-            return;
+            return false;
         }
 
-        attemptFramedMessage(directBuffer, offset, bodyLength, timeInMs, position, outboundTracker);
+        if (batchBuffer != null && !isSlowConsumer())
+        {
+            // Replays and gap fills only see this sequence number once the batch has been written
+            batchSequenceNumber = sequenceNumber;
+
+            return batchMessage(directBuffer, offset, bodyLength, timeInMs, position);
+        }
 
+        attemptFramedMessage(directBuffer, offset, bodyLength, timeInMs, position, outboundTracker);
         senderSequenceNumber.onNewMessage(sequenceNumber);
+
+        return false;
     }
 
     Action onReplayMessage(
@@ -156,6 +198,12 @@ class SenderEndPoint
         final long position,
         final StreamTracker tracker)
     {
+        // Replayed messages must not overtake outbound messages that have already been batched
+        if (batchLength > 0)
+        {
+            flushBatch(timeInMs);
+        }
+
         if (isSlowConsumer())
         {
             dropFurtherBehind(bodyLength);
@@ -182,6 +230,115 @@ class SenderEndPoint
         }
     }
 
+    private boolean batchMessage(
+        final DirectBuffer directBuffer,
+        final int offset,
+        final int bodyLength,
+        final long timeInMs,
+        final long position)
+    {
+        final int batchLength = this.batchLength;
+        if (batchLength + bodyLength <= batchBuffer.capacity())
+        {
+            batchBuffer.putBytes(batchLength, directBuffer, offset, bodyLength);
+            this.batchLength = batchLength + bodyLength;
+            batchPositions.addLong(position);
+            batchLengths.addInt(bodyLength);
+
+            return batchLength == 0;
+        }
+
+        // The message doesn't fit into the batch, so write out the batch and the message in a single
+        // gathering write rather than copying the message.
+        final ByteBuffer buffer = directBuffer.byteBuffer();
+        ByteBufferUtil.limit(buffer, offset + bodyLength);
+        ByteBufferUtil.position(buffer, offset);
+        batchPositions.addLong(position);
+        batchLengths.addInt(bodyLength);
+        writeBatch(buffer, bodyLength, timeInMs);
+
+        return false;
+    }
+
+    void flushBatch(final long timeInMs)
+    {
+        if (batchLength > 0)
+        {
+            writeBatch(null, 0, timeInMs);
+        }
+    }
+
+    private void writeBatch(final ByteBuffer unbatchedMessage, final int unbatchedLength, final long timeInMs)
+    {
+        final ByteBuffer batchByteBuffer = this.batchByteBuffer;
+        final int totalLength = batchLength + unbatchedLength;
+        ByteBufferUtil.limit(batchByteBuffer, batchLength);
+        ByteBufferUtil.position(batchByteBuffer, 0);
+
+        try
+        {
+            final long written;
+            if (unbatchedMessage == null)
+            {
+                written = channel.write(batchByteBuffer);
+            }
+            else
+            {
+                final ByteBuffer[] gatherBuffers = this.gatherBuffers;
+                gatherBuffers[0] = batchByteBuffer;
+                gatherBuffers[1] = unbatchedMessage;
+                written = channel.write(gatherBuffers);
+                gatherBuffers[1] = null;
+            }
+
+            DebugLogger.log(FIX_MESSAGE_TCP, "Written  %s%n", batchByteBuffer, (int)written);
+            updateSendingTimeoutTimeInMs(timeInMs, (int)written);
+
+            if (written == totalLength)
+            {
+                outboundTracker.sentPosition = batchPositions.getLong(batchPositions.size() - 1);
+            }
+            else
+            {
+                becomeBatchSlowConsumer((int)written, totalLength);
+            }
+        }
+        catch (final IOException ex)
+        {
+            onError(ex);
+        }
+
+        senderSequenceNumber.onNewMessage(batchSequenceNumber);
+        clearBatch();
+    }
+
+    private void becomeBatchSlowConsumer(final int written, final int totalLength)
+    {
+        // Find the message that the partial write stopped in, all messages after it are sent from the slow stream
+        int remainingWritten = written;
+        int index = 0;
+        int messageLength;
+        while ((messageLength = batchLengths.getInt(index)) <= remainingWritten)
+        {
+            remainingWritten -= messageLength;
+            index++;
+        }
+
+        final int remainingBytes = messageLength - remainingWritten;
+        final long position = batchPositions.getLong(index);
+        bytesInBuffer.setOrdered(totalLength - written);
+        sendSlowStatus(true);
+        outboundTracker.sentPosition = position - remainingBytes;
+        outboundTracker.partiallySentMessage = true;
+    }
+
+    private void clearBatch()
+    {
+        batchLength = 0;
+        batchPositions.clear();
+        batchLengths.clear();
+    }
+
     private void dropFurtherBehind(final int bodyLength)
     {
         final long bytesInBuffer = bytesInBufferWeak() + bodyLength;
@@ -269,6 +426,13 @@ class SenderEndPoint
 
     public void close()
     {
+        // Library requested disconnects flush the batch before closing, so anything left here is discarded
+        // because the connection has failed.
+        if (batchBuffer != null)
+        {
+            clearBatch();
+        }
+
         bytesInBuffer.close();
         invalidLibraryAttempts.close();
     }
@@ -411,7 +575,7 @@ class SenderEndPoint
     }
 
     // Only access on Framer thread
-    private boolean isSlowConsumer()
+    boolean isSlowConsumer()
     {
         return bytesInBufferWeak() > 0;
     }
@@ -436,6 +600,21 @@ class SenderEndPoint
         return sessionId;
     }
 
+    long sendingTimeoutTimeInMs()
+    {
+        return sendingTimeoutTimeInMs;
+    }
+
+    long slowConsumerTimerId()
+    {
+        return slowConsumerTimerId;
+    }
+
+    void slowConsumerTimerId(final long slowConsumerTimerId)
+    {
+        this.slowConsumerTimerId = slowConsumerTimerId;
+    }
+
     boolean checkTimeouts(final long timeInMs)
     {
         if (isSlowConsumer() && timeInMs > sendingTimeoutTimeInMs)
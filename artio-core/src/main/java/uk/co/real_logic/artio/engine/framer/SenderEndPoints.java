@@ -20,10 +20,13 @@ import io.aeron.logbuffer.Header;
 import org.agrona.DirectBuffer;
 import org.agrona.ErrorHandler;
 import org.agrona.collections.Long2ObjectHashMap;
+import uk.co.real_logic.artio.TimeoutWheel;
 import uk.co.real_logic.artio.engine.FixEngine;
 import uk.co.real_logic.artio.messages.FixMessageDecoder;
 import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.LongToIntFunction;
 
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
@@ -35,8 +38,10 @@ class SenderEndPoints implements AutoCloseable, ControlledFragmentHandler
     private final MessageHeaderDecoder messageHeader = new MessageHeaderDecoder();
     private final FixMessageDecoder fixMessage = new FixMessageDecoder();
     private final Long2ObjectHashMap<SenderEndPoint> connectionIdToSenderEndpoint = new Long2ObjectHashMap<>();
+    private final List<SenderEndPoint> endPointsWithBatches = new ArrayList<>();
     private final ErrorHandler errorHandler;
     private final LongToIntFunction libraryLookup = this::libraryLookup;
+    private final TimeoutWheel<SenderEndPoint> slowConsumerTimeouts;
 
     private int libraryLookup(final long sessionId)
     {
@@ -53,9 +58,10 @@ class SenderEndPoints implements AutoCloseable, ControlledFragmentHandler
 
     private long timeInMs;
 
-    SenderEndPoints(final ErrorHandler errorHandler)
+    SenderEndPoints(final ErrorHandler errorHandler, final long timeInMs)
     {
         this.errorHandler = errorHandler;
+        slowConsumerTimeouts = new TimeoutWheel<>(timeInMs);
     }
 
     public void add(final SenderEndPoint senderEndPoint)
@@ -68,6 +74,7 @@ class SenderEndPoints implements AutoCloseable, ControlledFragmentHandler
         final SenderEndPoint senderEndPoint = connectionIdToSenderEndpoint.remove(connectionId);
         if (senderEndPoint != null)
         {
+            cancelSlowConsumerTimeout(senderEndPoint);
             senderEndPoint.close();
         }
     }
@@ -84,10 +91,47 @@ class SenderEndPoints implements AutoCloseable, ControlledFragmentHandler
         final SenderEndPoint endPoint = connectionIdToSenderEndpoint.get(connectionId);
         if (endPoint != null)
         {
-            endPoint.onOutboundMessage(libraryId, buffer, offset, length, sequenceNumber, position, timeInMs);
+            if (endPoint.onOutboundMessage(libraryId, buffer, offset, length, sequenceNumber, position, timeInMs))
+            {
+                endPointsWithBatches.add(endPoint);
+            }
         }
     }
 
+    int flushBatches()
+    {
+        final List<SenderEndPoint> endPointsWithBatches = this.endPointsWithBatches;
+        final int size = endPointsWithBatches.size();
+        if (size == 0)
+        {
+            return 0;
+        }
+
+        final long timeInMs = this.timeInMs;
+        for (int i = 0; i < size; i++)
+        {
+            // A disconnected end point has already flushed or discarded its batch, so this is a no-op for it.
+            endPointsWithBatches.get(i).flushBatch(timeInMs);
+        }
+        endPointsWithBatches.clear();
+
+        return size;
+    }
+
+    // Returns false if flushing the batch failed and the end point has been disconnected as a result.
+    boolean flushBatch(final long connectionId)
+    {
+        final SenderEndPoint endPoint = connectionIdToSenderEndpoint.get(connectionId);
+        if (endPoint != null)
+        {
+            endPoint.flushBatch(timeInMs);
+
+            return connectionIdToSenderEndpoint.containsKey(connectionId);
+        }
+
+        return true;
+    }
+
     Action onReplayMessage(
         final long connectionId, final DirectBuffer buffer, final int offset, final int length, final long position)
     {
@@ -185,20 +229,64 @@ class SenderEndPoints implements AutoCloseable, ControlledFragmentHandler
         this.timeInMs = timeInMs;
     }
 
+    // Only slow consumers have a timeout scheduled, it's rescheduled on expiry if they've written since then.
     int checkTimeouts(final long timeInMs)
     {
         int count = 0;
-        for (final SenderEndPoint senderEndPoint : connectionIdToSenderEndpoint.values())
+        final List<SenderEndPoint> expiredEndPoints = slowConsumerTimeouts.poll(timeInMs);
+        for (int i = 0, size = expiredEndPoints.size(); i < size; i++)
         {
+            final SenderEndPoint senderEndPoint = expiredEndPoints.get(i);
+            senderEndPoint.slowConsumerTimerId(TimeoutWheel.NO_TIMER);
             if (senderEndPoint.checkTimeouts(timeInMs))
             {
                 count++;
             }
+            else if (senderEndPoint.isSlowConsumer())
+            {
+                scheduleSlowConsumerTimeout(senderEndPoint);
+            }
         }
 
         return count;
     }
 
+    void onSlowStatus(final long connectionId, final boolean hasBecomeSlow)
+    {
+        final SenderEndPoint senderEndPoint = connectionIdToSenderEndpoint.get(connectionId);
+        if (senderEndPoint != null)
+        {
+            if (hasBecomeSlow)
+            {
+                if (senderEndPoint.slowConsumerTimerId() == TimeoutWheel.NO_TIMER)
+                {
+                    scheduleSlowConsumerTimeout(senderEndPoint);
+                }
+            }
+            else
+            {
+                cancelSlowConsumerTimeout(senderEndPoint);
+            }
+        }
+    }
+
+    private void scheduleSlowConsumerTimeout(final SenderEndPoint senderEndPoint)
+    {
+        // checkTimeouts() only disconnects once the time is after the sending timeout
+        final long deadlineInMs = senderEndPoint.sendingTimeoutTimeInMs() + 1;
+        senderEndPoint.slowConsumerTimerId(slowConsumerTimeouts.schedule(deadlineInMs, senderEndPoint));
+    }
+
+    private void cancelSlowConsumerTimeout(final SenderEndPoint senderEndPoint)
+    {
+        final long slowConsumerTimerId = senderEndPoint.slowConsumerTimerId();
+        if (slowConsumerTimerId != TimeoutWheel.NO_TIMER)
+        {
+            slowConsumerTimeouts.cancel(slowConsumerTimerId);
+            senderEndPoint.slowConsumerTimerId(TimeoutWheel.NO_TIMER);
+        }
+    }
+
     public LongToIntFunction libraryLookup()
     {
         return libraryLookup;
@@ -17,9 +17,11 @@ package uk.co.real_logic.artio.engine.framer;
 
 import org.agrona.DirectBuffer;
 import org.agrona.ErrorHandler;
+import org.agrona.collections.Long2ObjectHashMap;
 import org.agrona.collections.LongHashSet;
 import org.agrona.concurrent.AtomicBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
 import uk.co.real_logic.artio.decoder.HeaderDecoder;
 import uk.co.real_logic.artio.decoder.LogonDecoder;
 import uk.co.real_logic.artio.engine.ByteBufferUtil;
@@ -53,6 +55,12 @@ import static uk.co.real_logic.artio.storage.messages.SessionIdEncoder.BLOCK_LEN
  * The session ids table is saved into a file. Records are written out using the {@link SessionIdEncoder}
  * and aren't allowed to span sectors. Each sector has a CRC32 checksum and each checksum is updated after writing
  * each session id record.
+ * <p>
+ * Session ids are looked up through an off heap {@link SessionKeyTable} keyed by the bytes that the
+ * {@link SessionIdStrategy} saves for each composite key. A {@link SessionContext} is only created for a session
+ * loaded from the file when it is first used, so historical sessions don't add objects to the heap.
+ * <p>
+ * When the file has no space left for a record it's grown to double its size, up to a maximum size.
  */
 public class SessionContexts
 {
@@ -67,6 +75,7 @@ public class SessionContexts
     static final long LOWEST_VALID_SESSION_ID = 1L;
 
     private static final int HEADER_SIZE = MessageHeaderDecoder.ENCODED_LENGTH;
+    private static final int INITIAL_TABLE_CAPACITY = 1024;
 
     private static final int ENCODING_BUFFER_SIZE = SECTOR_SIZE - CHECKSUM_SIZE;
     private final UnsafeBuffer compositeKeyBuffer = new UnsafeBuffer(new byte[ENCODING_BUFFER_SIZE]);
@@ -79,25 +88,44 @@ public class SessionContexts
     private final int actingBlockLength = sessionIdEncoder.sbeBlockLength();
     private final int actingVersion = sessionIdEncoder.sbeSchemaVersion();
 
-    private final Function<CompositeKey, SessionContext> onNewLogonFunc = this::onNewLogon;
+    private final SessionIdDecoder sessionIdDecoder = new SessionIdDecoder();
+    private final Function<CompositeKey, SessionContext> onOversizedKeyFunc = this::onOversizedKey;
     private final LongHashSet currentlyAuthenticatedSessionIds = new LongHashSet();
     private final LongHashSet recordedSessions = new LongHashSet();
-    private final Map<CompositeKey, SessionContext> compositeToContext = new HashMap<>();
+    private final SessionKeyTable compositeKeyToSession = new SessionKeyTable(INITIAL_TABLE_CAPACITY);
+    private final Long2ObjectHashMap<SessionContext> sessionIdToContext = new Long2ObjectHashMap<>();
+    // Keys that are too big to be saved can't be looked up by their bytes
+    private final Map<CompositeKey, SessionContext> oversizedKeyToContext = new HashMap<>();
 
     private final CRC32 crc32 = new CRC32();
-    private final SectorFramer sectorFramer;
-    private final ByteBuffer byteBuffer;
+    private SectorFramer sectorFramer;
+    private ByteBuffer byteBuffer;
 
     private final AtomicBuffer buffer;
     private final SessionIdStrategy idStrategy;
     private final ErrorHandler errorHandler;
     private final MappedFile mappedFile;
+    private final int maxFileSize;
+    // The counters are null if they aren't recorded
+    private final AtomicCounter fileUsedBytes;
+    private final AtomicCounter fileCapacity;
 
     private int filePosition;
     private long counter = LOWEST_VALID_SESSION_ID;
 
     public SessionContexts(
         final MappedFile mappedFile, final SessionIdStrategy idStrategy, final ErrorHandler errorHandler)
+    {
+        this(mappedFile, idStrategy, errorHandler, 0, null, null);
+    }
+
+    public SessionContexts(
+        final MappedFile mappedFile,
+        final SessionIdStrategy idStrategy,
+        final ErrorHandler errorHandler,
+        final int maxFileSize,
+        final AtomicCounter fileUsedBytes,
+        final AtomicCounter fileCapacity)
     {
         this.mappedFile = mappedFile;
         this.buffer = mappedFile.buffer();
@@ -105,7 +133,11 @@ public class SessionContexts
         sectorFramer = new SectorFramer(buffer.capacity());
         this.idStrategy = idStrategy;
         this.errorHandler = errorHandler;
+        this.maxFileSize = maxFileSize;
+        this.fileUsedBytes = fileUsedBytes;
+        this.fileCapacity = fileCapacity;
         loadBuffer();
+        updateFileCounters();
     }
 
     private void loadBuffer()
@@ -113,7 +145,7 @@ public class SessionContexts
         checkByteBuffer();
         initialiseBuffer();
 
-        final SessionIdDecoder sessionIdDecoder = new SessionIdDecoder();
+        final SessionIdDecoder sessionIdDecoder = this.sessionIdDecoder;
 
         int sectorEnd = 0;
         filePosition = HEADER_SIZE;
@@ -140,18 +172,14 @@ public class SessionContexts
                     filePosition = nextSectorPeekPosition;
                 }
             }
-            final int sequenceIndex = sessionIdDecoder.sequenceIndex();
-            final long logonTime = sessionIdDecoder.logonTime();
             final int compositeKeyLength = sessionIdDecoder.compositeKeyLength();
-            final CompositeKey compositeKey = idStrategy.load(
-                buffer, filePosition + BLOCK_LENGTH, compositeKeyLength);
-            if (compositeKey == null)
+            final int keyOffset = filePosition + BLOCK_LENGTH;
+            if (compositeKeyLength <= 0 || keyOffset + compositeKeyLength > buffer.capacity())
             {
                 return;
             }
 
-            compositeToContext.put(compositeKey,
-                new SessionContext(sessionId, sequenceIndex, logonTime, this, filePosition));
+            compositeKeyToSession.put(buffer, keyOffset, compositeKeyLength, sessionId, filePosition);
             recordedSessions.add(sessionId);
             counter = Math.max(counter, sessionId + 1);
 
@@ -225,70 +253,146 @@ public class SessionContexts
 
     public SessionContext newSessionContext(final CompositeKey compositeKey)
     {
-        return compositeToContext.computeIfAbsent(compositeKey, onNewLogonFunc);
+        final int compositeKeyLength = idStrategy.save(compositeKey, compositeKeyBuffer, 0);
+        if (compositeKeyLength == INSUFFICIENT_SPACE)
+        {
+            return oversizedKeyToContext.computeIfAbsent(compositeKey, onOversizedKeyFunc);
+        }
+
+        final int slot = compositeKeyToSession.find(compositeKeyBuffer, 0, compositeKeyLength);
+        if (slot != SessionKeyTable.MISSING)
+        {
+            return sessionContext(slot);
+        }
+
+        final long sessionId = counter++;
+        return assignSessionId(
+            compositeKey, compositeKeyLength, sessionId, SessionContext.UNKNOWN_SEQUENCE_INDEX);
     }
 
-    private SessionContext onNewLogon(final CompositeKey compositeKey)
+    private SessionContext onOversizedKey(final CompositeKey compositeKey)
     {
-        final long sessionId = counter++;
-        return assignSessionId(compositeKey, sessionId, SessionContext.UNKNOWN_SEQUENCE_INDEX);
+        return onOversizedKey(compositeKey, counter++, SessionContext.UNKNOWN_SEQUENCE_INDEX);
+    }
+
+    private SessionContext onOversizedKey(
+        final CompositeKey compositeKey, final long sessionId, final int sequenceIndex)
+    {
+        errorHandler.onError(new IllegalStateException(String.format(
+            "Unable to save record session id %d for %s, because the buffer is too small",
+            sessionId,
+            compositeKey)));
+        final SessionContext sessionContext =
+            new SessionContext(sessionId, sequenceIndex, Session.NO_LOGON_TIME, this, OUT_OF_SPACE);
+        sessionIdToContext.put(sessionId, sessionContext);
+        return sessionContext;
+    }
+
+    // Contexts of sessions loaded from the file are created from their record when first used.
+    private SessionContext sessionContext(final int slot)
+    {
+        final long sessionId = compositeKeyToSession.sessionId(slot);
+        SessionContext sessionContext = sessionIdToContext.get(sessionId);
+        if (sessionContext == null)
+        {
+            final int recordPosition = compositeKeyToSession.filePosition(slot);
+            wrap(sessionIdDecoder, recordPosition);
+            sessionContext = new SessionContext(
+                sessionId, sessionIdDecoder.sequenceIndex(), sessionIdDecoder.logonTime(), this, recordPosition);
+            sessionIdToContext.put(sessionId, sessionContext);
+        }
+
+        return sessionContext;
     }
 
+    // The composite key must have already been saved into the compositeKeyBuffer
     private SessionContext assignSessionId(
         final CompositeKey compositeKey,
+        final int compositeKeyLength,
         final long sessionId,
         final int sequenceIndex)
     {
         int keyPosition = OUT_OF_SPACE;
-        final int compositeKeyLength = idStrategy.save(compositeKey, compositeKeyBuffer, 0);
-        if (compositeKeyLength == INSUFFICIENT_SPACE)
+        if (filePosition != OUT_OF_SPACE)
         {
-            errorHandler.onError(new IllegalStateException(String.format(
-                "Unable to save record session id %d for %s, because the buffer is too small",
-                sessionId,
-                compositeKey)));
-            return new SessionContext(sessionId, sequenceIndex, Session.NO_LOGON_TIME, this, OUT_OF_SPACE);
-        }
-        else
-        {
-            if (filePosition != OUT_OF_SPACE)
+            final int recordLength = BLOCK_LENGTH + compositeKeyLength;
+            int claimedPosition = sectorFramer.claim(filePosition, recordLength);
+            if (claimedPosition == OUT_OF_SPACE && growFile())
             {
-                filePosition = sectorFramer.claim(filePosition, BLOCK_LENGTH + compositeKeyLength);
-                keyPosition = filePosition;
-                if (filePosition == OUT_OF_SPACE)
-                {
-                    errorHandler.onError(new IllegalStateException(
-                        "Run out of space when storing: " + compositeKey));
-                }
-                else
-                {
-                    sessionIdEncoder
-                        .wrap(buffer, filePosition)
-                        .sessionId(sessionId)
-                        .sequenceIndex(sequenceIndex)
-                        .logonTime(Session.NO_LOGON_TIME)
-                        .compositeKeyLength(compositeKeyLength);
-                    filePosition += BLOCK_LENGTH;
-
-                    buffer.putBytes(filePosition, compositeKeyBuffer, 0, compositeKeyLength);
-                    filePosition += compositeKeyLength;
-
-                    updateChecksum(sectorFramer.sectorStart(), sectorFramer.checksumOffset());
-                    mappedFile.force();
-                }
+                claimedPosition = sectorFramer.claim(filePosition, recordLength);
             }
+            filePosition = claimedPosition;
+            keyPosition = filePosition;
+            if (filePosition == OUT_OF_SPACE)
+            {
+                errorHandler.onError(new IllegalStateException(
+                    "Run out of space when storing: " + compositeKey));
+            }
+            else
+            {
+                sessionIdEncoder
+                    .wrap(buffer, filePosition)
+                    .sessionId(sessionId)
+                    .sequenceIndex(sequenceIndex)
+                    .logonTime(Session.NO_LOGON_TIME)
+                    .compositeKeyLength(compositeKeyLength);
+                filePosition += BLOCK_LENGTH;
+
+                buffer.putBytes(filePosition, compositeKeyBuffer, 0, compositeKeyLength);
+                filePosition += compositeKeyLength;
+
+                updateChecksum(sectorFramer.sectorStart(), sectorFramer.checksumOffset());
+                mappedFile.force();
+                updateFileCounters();
+            }
+        }
 
-            return new SessionContext(sessionId, sequenceIndex, Session.NO_LOGON_TIME, this, keyPosition);
+        compositeKeyToSession.put(compositeKeyBuffer, 0, compositeKeyLength, sessionId, keyPosition);
+        final SessionContext sessionContext =
+            new SessionContext(sessionId, sequenceIndex, Session.NO_LOGON_TIME, this, keyPosition);
+        sessionIdToContext.put(sessionId, sessionContext);
+        return sessionContext;
+    }
+
+    private boolean growFile()
+    {
+        final int capacity = buffer.capacity();
+        final int newCapacity = (int)Math.min(2L * capacity, maxFileSize);
+        if (newCapacity <= capacity)
+        {
+            return false;
+        }
+
+        mappedFile.growTo(newCapacity);
+        byteBuffer = buffer.byteBuffer();
+        sectorFramer = new SectorFramer(newCapacity);
+        return true;
+    }
+
+    private void updateFileCounters()
+    {
+        if (fileUsedBytes != null)
+        {
+            fileUsedBytes.setOrdered(filePosition == OUT_OF_SPACE ? buffer.capacity() : filePosition);
+            fileCapacity.setOrdered(buffer.capacity());
         }
     }
 
     void sequenceReset(final long sessionId)
     {
-        compositeToContext
-            .values()
-            .stream()
-            .filter(context -> context.sessionId() == sessionId)
-            .forEach(SessionContext::onSequenceReset);
+        SessionContext sessionContext = sessionIdToContext.get(sessionId);
+        if (sessionContext == null)
+        {
+            final int slot = compositeKeyToSession.findBySessionId(sessionId);
+            if (slot == SessionKeyTable.MISSING)
+            {
+                return;
+            }
+
+            sessionContext = sessionContext(slot);
+        }
+
+        sessionContext.onSequenceReset();
     }
 
     // TODO: optimisation, more efficient checksumming, only checksum new data
@@ -319,7 +423,9 @@ public class SessionContexts
 
         counter = LOWEST_VALID_SESSION_ID;
         currentlyAuthenticatedSessionIds.clear();
-        compositeToContext.clear();
+        compositeKeyToSession.clear();
+        sessionIdToContext.clear();
+        oversizedKeyToContext.clear();
 
         if (backupLocation != null)
         {
@@ -328,6 +434,7 @@ public class SessionContexts
 
         buffer.setMemory(0, buffer.capacity(), (byte)0);
         initialiseBuffer();
+        updateFileCounters();
     }
 
     void onSentFollowerMessage(
@@ -359,8 +466,15 @@ public class SessionContexts
             header.targetSubIDAsString(),
             header.targetLocationIDAsString());
 
-        final SessionContext sessionContext = assignSessionId(compositeKey, sessionId, sequenceIndex);
-        compositeToContext.put(compositeKey, sessionContext);
+        final int compositeKeyLength = idStrategy.save(compositeKey, compositeKeyBuffer, 0);
+        if (compositeKeyLength == INSUFFICIENT_SPACE)
+        {
+            oversizedKeyToContext.put(compositeKey, onOversizedKey(compositeKey, sessionId, sequenceIndex));
+        }
+        else
+        {
+            assignSessionId(compositeKey, compositeKeyLength, sessionId, sequenceIndex);
+        }
     }
 
     void updateSavedData(final int filePosition, final int sequenceIndex, final long logonTime)
@@ -379,12 +493,19 @@ public class SessionContexts
 
     long lookupSessionId(final CompositeKey compositeKey)
     {
-        final SessionContext sessionContext = compositeToContext.get(compositeKey);
-        if (sessionContext == null)
+        final int compositeKeyLength = idStrategy.save(compositeKey, compositeKeyBuffer, 0);
+        if (compositeKeyLength == INSUFFICIENT_SPACE)
+        {
+            final SessionContext sessionContext = oversizedKeyToContext.get(compositeKey);
+            return sessionContext == null ? Session.UNKNOWN : sessionContext.sessionId();
+        }
+
+        final int slot = compositeKeyToSession.find(compositeKeyBuffer, 0, compositeKeyLength);
+        if (slot == SessionKeyTable.MISSING)
         {
             return Session.UNKNOWN;
         }
-        return sessionContext.sessionId();
+        return compositeKeyToSession.sessionId(slot);
     }
 
     boolean isAuthenticated(final long sessionId)
@@ -394,6 +515,7 @@ public class SessionContexts
 
     boolean isKnownSessionId(final long sessionId)
     {
-        return compositeToContext.values().stream().anyMatch(context -> context.sessionId() == sessionId);
+        return sessionIdToContext.containsKey(sessionId) ||
+            compositeKeyToSession.findBySessionId(sessionId) != SessionKeyTable.MISSING;
     }
 }
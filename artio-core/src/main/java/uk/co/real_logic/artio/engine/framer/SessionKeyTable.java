@@ -0,0 +1,253 @@
+/*
+ * Copyright 2015-2019 Real Logic Ltd, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.BitUtil;
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableDirectByteBuffer;
+import org.agrona.collections.Hashing;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+
+/**
+ * Off heap open addressing table from the encoded bytes of a {@link uk.co.real_logic.artio.session.CompositeKey} to
+ * its session id and the position of its record within the session id file.
+ *
+ * Both the slots and the key bytes are stored in direct buffers, so neither lookups nor inserts allocate once the table
+ * has grown to fit its sessions. Collisions are resolved by linear probing and the table doubles in size when it's
+ * more than two thirds full.
+ */
+final class SessionKeyTable
+{
+    static final int MISSING = -1;
+
+    private static final int MIN_CAPACITY = 16;
+    private static final int INITIAL_KEYS_CAPACITY = 64 * 1024;
+
+    // Slot layout, a zero session id marks an empty slot as session ids start at LOWEST_VALID_SESSION_ID.
+    private static final int SESSION_ID_OFFSET = 0;
+    private static final int FILE_POSITION_OFFSET = SESSION_ID_OFFSET + SIZE_OF_LONG;
+    private static final int HASH_OFFSET = FILE_POSITION_OFFSET + BitUtil.SIZE_OF_INT;
+    private static final int KEY_OFFSET_OFFSET = HASH_OFFSET + BitUtil.SIZE_OF_INT;
+    private static final int KEY_LENGTH_OFFSET = KEY_OFFSET_OFFSET + BitUtil.SIZE_OF_INT;
+    private static final int SLOT_LENGTH = KEY_LENGTH_OFFSET + BitUtil.SIZE_OF_INT;
+    private static final long EMPTY = 0;
+
+    private final ExpandableDirectByteBuffer keys = new ExpandableDirectByteBuffer(INITIAL_KEYS_CAPACITY);
+
+    private UnsafeBuffer slots;
+    private int capacity;
+    private int mask;
+    private int resizeThreshold;
+    private int size;
+    private int keysLength;
+
+    SessionKeyTable(final int initialCapacity)
+    {
+        allocate(BitUtil.findNextPositivePowerOfTwo(Math.max(MIN_CAPACITY, initialCapacity)));
+    }
+
+    int find(final DirectBuffer key, final int offset, final int length)
+    {
+        final int hash = hash(key, offset, length);
+        final UnsafeBuffer slots = this.slots;
+        int slot = Hashing.hash(hash, mask);
+        while (true)
+        {
+            final int slotOffset = slot * SLOT_LENGTH;
+            if (slots.getLong(slotOffset + SESSION_ID_OFFSET) == EMPTY)
+            {
+                return MISSING;
+            }
+
+            if (slots.getInt(slotOffset + HASH_OFFSET) == hash && keyEquals(slotOffset, key, offset, length))
+            {
+                return slot;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    int findBySessionId(final long sessionId)
+    {
+        for (int slot = 0; slot < capacity; slot++)
+        {
+            if (sessionId(slot) == sessionId)
+            {
+                return slot;
+            }
+        }
+
+        return MISSING;
+    }
+
+    // Inserts the key, or updates the values of an existing equal key.
+    void put(
+        final DirectBuffer key, final int offset, final int length, final long sessionId, final int filePosition)
+    {
+        final int hash = hash(key, offset, length);
+        final UnsafeBuffer slots = this.slots;
+        int slot = Hashing.hash(hash, mask);
+        while (true)
+        {
+            final int slotOffset = slot * SLOT_LENGTH;
+            if (slots.getLong(slotOffset + SESSION_ID_OFFSET) == EMPTY)
+            {
+                final int keyOffset = keysLength;
+                keys.putBytes(keyOffset, key, offset, length);
+                keysLength += length;
+
+                putSlot(slots, slotOffset, sessionId, filePosition, hash, keyOffset, length);
+                if (++size > resizeThreshold)
+                {
+                    rehash(capacity << 1);
+                }
+                return;
+            }
+
+            if (slots.getInt(slotOffset + HASH_OFFSET) == hash && keyEquals(slotOffset, key, offset, length))
+            {
+                slots.putLong(slotOffset + SESSION_ID_OFFSET, sessionId);
+                slots.putInt(slotOffset + FILE_POSITION_OFFSET, filePosition);
+                return;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    long sessionId(final int slot)
+    {
+        return slots.getLong(slot * SLOT_LENGTH + SESSION_ID_OFFSET);
+    }
+
+    int filePosition(final int slot)
+    {
+        return slots.getInt(slot * SLOT_LENGTH + FILE_POSITION_OFFSET);
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    void clear()
+    {
+        slots.setMemory(0, capacity * SLOT_LENGTH, (byte)0);
+        size = 0;
+        keysLength = 0;
+    }
+
+    private boolean keyEquals(final int slotOffset, final DirectBuffer key, final int offset, final int length)
+    {
+        if (slots.getInt(slotOffset + KEY_LENGTH_OFFSET) != length)
+        {
+            return false;
+        }
+
+        final ExpandableDirectByteBuffer keys = this.keys;
+        final int keyOffset = slots.getInt(slotOffset + KEY_OFFSET_OFFSET);
+        int i = 0;
+        for (; i <= length - SIZE_OF_LONG; i += SIZE_OF_LONG)
+        {
+            if (keys.getLong(keyOffset + i) != key.getLong(offset + i))
+            {
+                return false;
+            }
+        }
+
+        for (; i < length; i++)
+        {
+            if (keys.getByte(keyOffset + i) != key.getByte(offset + i))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void rehash(final int newCapacity)
+    {
+        final UnsafeBuffer oldSlots = slots;
+        final int oldCapacity = capacity;
+        allocate(newCapacity);
+
+        final UnsafeBuffer slots = this.slots;
+        for (int oldSlot = 0; oldSlot < oldCapacity; oldSlot++)
+        {
+            final int oldOffset = oldSlot * SLOT_LENGTH;
+            final long sessionId = oldSlots.getLong(oldOffset + SESSION_ID_OFFSET);
+            if (sessionId != EMPTY)
+            {
+                final int hash = oldSlots.getInt(oldOffset + HASH_OFFSET);
+                int slot = Hashing.hash(hash, mask);
+                while (slots.getLong(slot * SLOT_LENGTH + SESSION_ID_OFFSET) != EMPTY)
+                {
+                    slot = (slot + 1) & mask;
+                }
+
+                putSlot(
+                    slots,
+                    slot * SLOT_LENGTH,
+                    sessionId,
+                    oldSlots.getInt(oldOffset + FILE_POSITION_OFFSET),
+                    hash,
+                    oldSlots.getInt(oldOffset + KEY_OFFSET_OFFSET),
+                    oldSlots.getInt(oldOffset + KEY_LENGTH_OFFSET));
+            }
+        }
+    }
+
+    private void allocate(final int capacity)
+    {
+        this.capacity = capacity;
+        mask = capacity - 1;
+        resizeThreshold = (capacity / 3) * 2;
+        slots = new UnsafeBuffer(ByteBuffer.allocateDirect(capacity * SLOT_LENGTH));
+    }
+
+    private static void putSlot(
+        final UnsafeBuffer slots,
+        final int slotOffset,
+        final long sessionId,
+        final int filePosition,
+        final int hash,
+        final int keyOffset,
+        final int keyLength)
+    {
+        slots.putLong(slotOffset + SESSION_ID_OFFSET, sessionId);
+        slots.putInt(slotOffset + FILE_POSITION_OFFSET, filePosition);
+        slots.putInt(slotOffset + HASH_OFFSET, hash);
+        slots.putInt(slotOffset + KEY_OFFSET_OFFSET, keyOffset);
+        slots.putInt(slotOffset + KEY_LENGTH_OFFSET, keyLength);
+    }
+
+    private static int hash(final DirectBuffer key, final int offset, final int length)
+    {
+        int hash = 1;
+        for (int i = 0; i < length; i++)
+        {
+            hash = 31 * hash + key.getByte(offset + i);
+        }
+
+        return hash;
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2015-2019 Real Logic Ltd, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.FragmentAssembler;
+import io.aeron.Subscription;
+import io.aeron.logbuffer.FragmentHandler;
+import io.aeron.logbuffer.Header;
+import org.agrona.BitUtil;
+import org.agrona.DirectBuffer;
+import org.agrona.LangUtil;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.MessageHandler;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.OneToOneRingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBufferDescriptor;
+import uk.co.real_logic.artio.CommonConfiguration;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+
+/**
+ * Scans every laneCount'th recording, starting from its lane index, on its own thread and replay stream.
+ *
+ * Unordered lanes deliver messages to the handler as they're replayed. Ordered lanes copy each message, along with
+ * its frame header, into a ring buffer followed by a marker at the end of each recording. The scanning thread drains
+ * the lanes' recordings in turn, so messages are delivered in the same order as a sequential scan whilst the lanes
+ * replay up to a ring buffer ahead of it.
+ */
+class ArchiveScanLane implements Runnable
+{
+    private static final int RING_BUFFER_LENGTH = 16 * 1024 * 1024;
+
+    private static final int MESSAGE_MSG_TYPE_ID = 1;
+    private static final int END_OF_RECORDING_MSG_TYPE_ID = 2;
+
+    // A message's record is the initial term id and position bits to shift of its recording, its frame header and
+    // then the message itself.
+    private static final int INITIAL_TERM_ID_OFFSET = 0;
+    private static final int POSITION_BITS_TO_SHIFT_OFFSET = INITIAL_TERM_ID_OFFSET + BitUtil.SIZE_OF_INT;
+    private static final int FRAME_HEADER_OFFSET = POSITION_BITS_TO_SHIFT_OFFSET + BitUtil.SIZE_OF_INT;
+    private static final int MESSAGE_OFFSET = FRAME_HEADER_OFFSET + HEADER_LENGTH;
+
+    private final IdleStrategy idleStrategy = CommonConfiguration.backoffIdleStrategy();
+    private final MessageHandler drainHandler = this::onDrainedMessage;
+    private final FixArchiveScanner scanner;
+    private final int laneIndex;
+    private final int laneCount;
+    private final List<FixArchiveScanner.ArchiveLocation> ranges;
+    private final int archiveScannerStreamId;
+    private final FragmentHandler fragmentHandler;
+    private final RingBuffer ringBuffer;
+
+    private volatile boolean aborted;
+    private volatile Throwable failure;
+
+    // Only accessed by the draining thread.
+    private LogEntryHandler drainLogEntryHandler;
+    private Header drainHeader;
+    private boolean drainedRecording;
+
+    // Null handler for an ordered lane, null framePredicate when nothing can be evaluated on a first fragment
+    ArchiveScanLane(
+        final FixArchiveScanner scanner,
+        final int laneIndex,
+        final int laneCount,
+        final List<FixArchiveScanner.ArchiveLocation> ranges,
+        final int archiveScannerStreamId,
+        final FixMessageConsumer handler,
+        final FixMessagePredicate framePredicate)
+    {
+        this.scanner = scanner;
+        this.laneIndex = laneIndex;
+        this.laneCount = laneCount;
+        this.ranges = ranges;
+        this.archiveScannerStreamId = archiveScannerStreamId;
+
+        if (handler == null)
+        {
+            ringBuffer = new OneToOneRingBuffer(new UnsafeBuffer(
+                ByteBuffer.allocateDirect(RING_BUFFER_LENGTH + RingBufferDescriptor.TRAILER_LENGTH)));
+            fragmentHandler = PushdownFilter.of(framePredicate, new FragmentAssembler(this::onReplayedMessage));
+        }
+        else
+        {
+            ringBuffer = null;
+            fragmentHandler = PushdownFilter.of(framePredicate, new FragmentAssembler(new LogEntryHandler(handler)));
+        }
+    }
+
+    public void run()
+    {
+        try (Subscription replaySubscription = scanner.addReplaySubscription(archiveScannerStreamId);
+            OfflineArchive offlineArchive = scanner.newOfflineArchive())
+        {
+            for (int i = laneIndex, size = ranges.size(); i < size && !aborted; i += laneCount)
+            {
+                scanner.replay(
+                    ranges.get(i),
+                    archiveScannerStreamId,
+                    replaySubscription,
+                    offlineArchive,
+                    fragmentHandler,
+                    idleStrategy);
+
+                if (ringBuffer != null)
+                {
+                    write(END_OF_RECORDING_MSG_TYPE_ID, 0);
+                }
+            }
+        }
+        catch (final Throwable ex)
+        {
+            failure = ex;
+        }
+    }
+
+    private void onReplayedMessage(
+        final DirectBuffer buffer, final int offset, final int length, final Header header)
+    {
+        final int index = write(MESSAGE_MSG_TYPE_ID, MESSAGE_OFFSET + length);
+        if (index >= 0)
+        {
+            final AtomicBuffer ring = ringBuffer.buffer();
+            ring.putInt(index + INITIAL_TERM_ID_OFFSET, header.initialTermId());
+            ring.putInt(index + POSITION_BITS_TO_SHIFT_OFFSET, header.positionBitsToShift());
+            ring.putBytes(index + FRAME_HEADER_OFFSET, header.buffer(), header.offset(), HEADER_LENGTH);
+            ring.putBytes(index + MESSAGE_OFFSET, buffer, offset, length);
+            ringBuffer.commit(index);
+        }
+    }
+
+    // Claims space in the ring buffer, waiting for it to be drained if it's full, and returns the claimed index.
+    private int write(final int msgTypeId, final int length)
+    {
+        int index;
+        while ((index = ringBuffer.tryClaim(msgTypeId, length)) == RingBuffer.INSUFFICIENT_CAPACITY)
+        {
+            if (aborted)
+            {
+                return index;
+            }
+
+            idleStrategy.idle();
+        }
+        idleStrategy.reset();
+
+        if (msgTypeId == END_OF_RECORDING_MSG_TYPE_ID && index >= 0)
+        {
+            ringBuffer.commit(index);
+        }
+
+        return index;
+    }
+
+    // Delivers messages from the ring buffer until the end of the lane's current recording and returns true if it
+    // was reached.
+    boolean drainRecording(final LogEntryHandler logEntryHandler)
+    {
+        drainLogEntryHandler = logEntryHandler;
+        drainedRecording = false;
+        while (!drainedRecording)
+        {
+            if (ringBuffer.read(drainHandler, 1) == 0)
+            {
+                checkFailure();
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void onDrainedMessage(
+        final int msgTypeId, final MutableDirectBuffer buffer, final int index, final int length)
+    {
+        if (msgTypeId == END_OF_RECORDING_MSG_TYPE_ID)
+        {
+            drainedRecording = true;
+            return;
+        }
+
+        final int initialTermId = buffer.getInt(index + INITIAL_TERM_ID_OFFSET);
+        final int positionBitsToShift = buffer.getInt(index + POSITION_BITS_TO_SHIFT_OFFSET);
+        Header header = drainHeader;
+        if (header == null ||
+            header.initialTermId() != initialTermId ||
+            header.positionBitsToShift() != positionBitsToShift)
+        {
+            header = new Header(initialTermId, positionBitsToShift);
+            drainHeader = header;
+        }
+
+        header.buffer(buffer);
+        header.offset(index + FRAME_HEADER_OFFSET);
+        drainLogEntryHandler.onFragment(buffer, index + MESSAGE_OFFSET, length - MESSAGE_OFFSET, header);
+    }
+
+    void abort()
+    {
+        aborted = true;
+    }
+
+    void checkFailure()
+    {
+        final Throwable failure = this.failure;
+        if (failure != null)
+        {
+            LangUtil.rethrowUnchecked(failure);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2015-2019 Real Logic Ltd, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.CloseHelper;
+import org.agrona.LangUtil;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.storage.messages.ReplayIndexRecordDecoder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static java.nio.file.StandardOpenOption.*;
+import static uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor.RECORD_LENGTH;
+
+/**
+ * The cold tier of a session's replay index: records that have been evicted from the session's ring, appended to a
+ * file in the order that they were written.
+ *
+ * Records are fixed length, so if they're in (sequenceIndex, sequenceNumber) order they can be binary searched in
+ * place. Reads are a block at a time and the last block read is kept, so a scan mostly reads cached blocks.
+ *
+ * Single writer, multiple readers: records are only ever appended, so a reader sees a prefix of them.
+ */
+final class ColdReplayIndex implements AutoCloseable
+{
+    static final long NO_RECORD = -1;
+
+    static final int BLOCK_LENGTH = 4096;
+
+    private final ReplayIndexRecordDecoder record = new ReplayIndexRecordDecoder();
+    private final ByteBuffer blockByteBuffer = ByteBuffer.allocateDirect(BLOCK_LENGTH);
+    private final UnsafeBuffer block = new UnsafeBuffer(blockByteBuffer);
+    private final FileChannel channel;
+    private final int actingBlockLength;
+    private final int actingVersion;
+
+    private long blockStartRecord = NO_RECORD;
+    private int blockRecordCount;
+
+    // Writer only: the last record appended, so records aren't appended twice after a restart.
+    private long lastRecordingId = NO_RECORD;
+    private long lastPosition = NO_RECORD;
+
+    private ColdReplayIndex(final FileChannel channel, final int actingBlockLength, final int actingVersion)
+    {
+        this.channel = channel;
+        this.actingBlockLength = actingBlockLength;
+        this.actingVersion = actingVersion;
+    }
+
+    static ColdReplayIndex openForWriting(final File file, final int actingBlockLength, final int actingVersion)
+    {
+        try
+        {
+            final ColdReplayIndex index = new ColdReplayIndex(
+                FileChannel.open(file.toPath(), CREATE, READ, WRITE), actingBlockLength, actingVersion);
+            final long recordCount = index.recordCount();
+            if (recordCount > 0)
+            {
+                final ReplayIndexRecordDecoder lastRecord = index.record(recordCount - 1);
+                index.lastRecordingId = lastRecord.recordingId();
+                index.lastPosition = lastRecord.position();
+            }
+            return index;
+        }
+        catch (final IOException ex)
+        {
+            LangUtil.rethrowUnchecked(ex);
+            return null;
+        }
+    }
+
+    // Returns null if nothing has been evicted from the session's ring yet.
+    static ColdReplayIndex openForReading(final File file, final int actingBlockLength, final int actingVersion)
+    {
+        if (!file.exists())
+        {
+            return null;
+        }
+
+        try
+        {
+            return new ColdReplayIndex(FileChannel.open(file.toPath(), READ), actingBlockLength, actingVersion);
+        }
+        catch (final IOException ex)
+        {
+            LangUtil.rethrowUnchecked(ex);
+            return null;
+        }
+    }
+
+    // Appends the records in the given region of a ring that come after the last record appended.
+    void append(final AtomicBuffer ring, final int offset, final int length)
+    {
+        final int end = offset + length;
+        int appendLength = 0;
+        for (int recordOffset = offset; recordOffset < end; recordOffset += RECORD_LENGTH)
+        {
+            record.wrap(ring, recordOffset, actingBlockLength, actingVersion);
+            final long recordingId = record.recordingId();
+            final long position = record.position();
+            if (position != 0 && isAfterLastRecord(recordingId, position))
+            {
+                lastRecordingId = recordingId;
+                lastPosition = position;
+                block.putBytes(appendLength, ring, recordOffset, RECORD_LENGTH);
+                appendLength += RECORD_LENGTH;
+            }
+        }
+
+        if (appendLength > 0)
+        {
+            try
+            {
+                blockByteBuffer.clear().limit(appendLength);
+                long filePosition = channel.size();
+                while (blockByteBuffer.hasRemaining())
+                {
+                    filePosition += channel.write(blockByteBuffer, filePosition);
+                }
+            }
+            catch (final IOException ex)
+            {
+                LangUtil.rethrowUnchecked(ex);
+            }
+            finally
+            {
+                blockStartRecord = NO_RECORD;
+            }
+        }
+    }
+
+    private boolean isAfterLastRecord(final long recordingId, final long position)
+    {
+        return recordingId > lastRecordingId || (recordingId == lastRecordingId && position > lastPosition);
+    }
+
+    long recordCount()
+    {
+        try
+        {
+            return channel.size() / RECORD_LENGTH;
+        }
+        catch (final IOException ex)
+        {
+            LangUtil.rethrowUnchecked(ex);
+            return 0;
+        }
+    }
+
+    // Finds the first record at or after the given key, or recordCount if there isn't one.
+    long search(final long recordCount, final int sequenceNumber, final int sequenceIndex)
+    {
+        long low = 0;
+        long high = recordCount;
+        while (low < high)
+        {
+            final long middle = (low + high) >>> 1;
+            final ReplayIndexRecordDecoder middleRecord = record(middle);
+            final int middleSequenceIndex = middleRecord.sequenceIndex();
+            if (middleSequenceIndex < sequenceIndex ||
+                (middleSequenceIndex == sequenceIndex && middleRecord.sequenceNumber() < sequenceNumber))
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    ReplayIndexRecordDecoder record(final long recordIndex)
+    {
+        if (recordIndex < blockStartRecord || recordIndex >= blockStartRecord + blockRecordCount)
+        {
+            readBlock(recordIndex);
+        }
+
+        return record.wrap(
+            block, (int)(recordIndex - blockStartRecord) * RECORD_LENGTH, actingBlockLength, actingVersion);
+    }
+
+    private void readBlock(final long recordIndex)
+    {
+        try
+        {
+            blockByteBuffer.clear();
+            final long filePosition = recordIndex * RECORD_LENGTH;
+            int read = 0;
+            while (blockByteBuffer.hasRemaining())
+            {
+                final int bytes = channel.read(blockByteBuffer, filePosition + read);
+                if (bytes <= 0)
+                {
+                    break;
+                }
+                read += bytes;
+            }
+
+            blockStartRecord = recordIndex;
+            blockRecordCount = read / RECORD_LENGTH;
+        }
+        catch (final IOException ex)
+        {
+            blockStartRecord = NO_RECORD;
+            LangUtil.rethrowUnchecked(ex);
+        }
+    }
+
+    public void close()
+    {
+        CloseHelper.close(channel);
+    }
+}
@@ -40,6 +40,11 @@ public final class FixArchivePrinter
     {
         String aeronDirectoryName = null;
         String aeronChannel = null;
+        String logFileDir = null;
+        String archiveDirectoryName = null;
+        int parallelism = 1;
+        long fromTimestamp = Long.MIN_VALUE;
+        long toTimestamp = Long.MAX_VALUE;
         int queryStreamId = DEFAULT_OUTBOUND_LIBRARY_STREAM;
         int archiveScannerStreamId = DEFAULT_ARCHIVE_SCANNER_STREAM;
         FixMessagePredicate predicate = FixMessagePredicates.alwaysTrue();
@@ -72,11 +77,13 @@ public final class FixArchivePrinter
             switch (optionName)
             {
                 case "from":
-                    predicate = from(parseLong(optionValue)).and(predicate);
+                    fromTimestamp = parseLong(optionValue);
+                    predicate = from(fromTimestamp).and(predicate);
                     break;
 
                 case "to":
-                    predicate = to(parseLong(optionValue)).and(predicate);
+                    toTimestamp = parseLong(optionValue);
+                    predicate = to(toTimestamp).and(predicate);
                     break;
 
                 case "message-types":
@@ -123,14 +130,29 @@ public final class FixArchivePrinter
                 case "aeron-channel":
                     aeronChannel = optionValue;
                     break;
+
+                case "log-file-dir":
+                    logFileDir = optionValue;
+                    break;
+
+                case "archive-dir-name":
+                    archiveDirectoryName = optionValue;
+                    break;
+
+                case "parallelism":
+                    parallelism = Integer.parseInt(optionValue);
+                    break;
             }
         }
 
-        requiredArgument(aeronDirectoryName, "aeron-dir-name");
+        if (archiveDirectoryName == null)
+        {
+            requiredArgument(aeronDirectoryName, "aeron-dir-name");
+        }
         requiredArgument(aeronChannel, "aeron-channel");
 
         scanArchive(aeronDirectoryName, aeronChannel, queryStreamId, predicate, follow, headerPredicate,
-            archiveScannerStreamId);
+            archiveScannerStreamId, logFileDir, fromTimestamp, toTimestamp, archiveDirectoryName, parallelism);
     }
 
     private static void requiredArgument(final int eqIndex)
@@ -150,7 +172,12 @@ public final class FixArchivePrinter
         final FixMessagePredicate otherPredicate,
         final boolean follow,
         final Predicate<HeaderDecoder> headerPredicate,
-        final int archiveScannerStreamId)
+        final int archiveScannerStreamId,
+        final String logFileDir,
+        final long fromTimestamp,
+        final long toTimestamp,
+        final String archiveDirectoryName,
+        final int parallelism)
     {
         FixMessagePredicate predicate = otherPredicate;
         if (headerPredicate != null)
@@ -160,7 +187,10 @@ public final class FixArchivePrinter
 
         final FixArchiveScanner.Context context = new FixArchiveScanner.Context()
             .aeronDirectoryName(aeronDirectoryName)
-            .idleStrategy(CommonConfiguration.backoffIdleStrategy());
+            .idleStrategy(CommonConfiguration.backoffIdleStrategy())
+            .logFileDir(logFileDir)
+            .archiveDirectoryName(archiveDirectoryName)
+            .parallelism(parallelism);
 
         final FixArchiveScanner scanner = new FixArchiveScanner(context);
         scanner.scan(
@@ -168,7 +198,9 @@ public final class FixArchivePrinter
             queryStreamId,
             filterBy(FixArchivePrinter::print, predicate),
             follow,
-            archiveScannerStreamId);
+            archiveScannerStreamId,
+            fromTimestamp,
+            toTimestamp);
     }
 
     private static void requiredArgument(final String argument, final String description)
@@ -189,8 +221,12 @@ public final class FixArchivePrinter
         printOption(
             "aeron-dir-name",
             "Specifies the directory to use for archiving, should be the same as your " +
-            "aeronContext.aeronDirectoryName()",
+            "aeronContext.aeronDirectoryName(). Not required if --archive-dir-name is specified",
             true);
+        printOption(
+            "archive-dir-name",
+            "Specifies an archive's directory in order to read it offline, without a running media driver or archive",
+            false);
         printOption(
             "aeron-channel",
             "Specifies the aeron channel that was used to by the engine",
@@ -238,6 +274,14 @@ public final class FixArchivePrinter
             " This should be your configuration.inboundLibraryStream() or configuration.outboundLibraryStream()" +
             " Defaults to sent.",
             false);
+        printOption(
+            "log-file-dir",
+            "Specifies the engine's log file directory, in order to use its time index when querying --from and --to",
+            false);
+        printOption(
+            "parallelism",
+            "The number of recordings to scan in parallel, using consecutive archive scanner stream ids. Defaults to 1",
+            false);
         printOption(
             "follow",
             "Continue to print out archive messages for a recording that is still in flight. defaults to off",
@@ -20,8 +20,11 @@ import io.aeron.FragmentAssembler;
 import io.aeron.Image;
 import io.aeron.Subscription;
 import io.aeron.archive.client.AeronArchive;
+import io.aeron.logbuffer.FragmentHandler;
+import org.agrona.CloseHelper;
 import org.agrona.concurrent.IdleStrategy;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -33,20 +36,35 @@ import static java.util.Comparator.comparingLong;
 /**
  * Scan the archive for fix messages. Can be combined with predicates to create rich queries.
  *
+ * The archive is either replayed through a running media driver and archive or, if an archive directory is
+ * configured, read offline from its files, see {@link Context#archiveDirectoryName(String)}. Recordings can be
+ * scanned in parallel, see {@link Context#parallelism(int)}.
+ *
  * @see FixMessageConsumer
  * @see FixMessagePredicate
  * @see FixMessagePredicates
  */
 public class FixArchiveScanner implements AutoCloseable
 {
+    private static final int FRAGMENT_LIMIT = 10;
+
     private final Aeron aeron;
     private final AeronArchive aeronArchive;
+    private final OfflineArchive offlineArchive;
     private final IdleStrategy idleStrategy;
+    private final String logFileDir;
+    private final String archiveDirectoryName;
+    private final int parallelism;
+    private final boolean ordered;
 
     public static class Context
     {
         private String aeronDirectoryName;
         private IdleStrategy idleStrategy;
+        private String logFileDir;
+        private String archiveDirectoryName;
+        private int parallelism = 1;
+        private boolean ordered = true;
 
         public Context()
         {
@@ -73,15 +91,117 @@ public class FixArchiveScanner implements AutoCloseable
         {
             return idleStrategy;
         }
+
+        /**
+         * Sets the log file directory of the engine that wrote the archive, in order to use its time index.
+         *
+         * @param logFileDir the engine's log file directory, or null to not use its time index.
+         * @return this
+         * @see uk.co.real_logic.artio.engine.EngineConfiguration#timeIndexInterval(long)
+         */
+        public Context logFileDir(final String logFileDir)
+        {
+            this.logFileDir = logFileDir;
+            return this;
+        }
+
+        public String logFileDir()
+        {
+            return logFileDir;
+        }
+
+        /**
+         * Sets the directory of an archive to read offline. When set the scanner doesn't connect to a media driver or
+         * an archive, instead it reads the archive's catalog and memory maps its recording segment files, so it can
+         * scan a copy of an archive. Scans don't follow recordings that are in progress offline, they stop at the end
+         * of the data that's been written.
+         *
+         * @param archiveDirectoryName the archive's directory, or null to replay through a running archive.
+         * @return this
+         */
+        public Context archiveDirectoryName(final String archiveDirectoryName)
+        {
+            this.archiveDirectoryName = archiveDirectoryName;
+            return this;
+        }
+
+        public String archiveDirectoryName()
+        {
+            return archiveDirectoryName;
+        }
+
+        /**
+         * Sets the number of recordings that are scanned in parallel. Each recording is replayed by one of this
+         * many threads, which use consecutive replay streams starting at the scan's archiveScannerStreamId.
+         * Scans that follow the archive are always sequential.
+         *
+         * @param parallelism the number of recordings that are scanned in parallel, 1 to scan them in turn.
+         * @return this
+         * @see #ordered(boolean)
+         */
+        public Context parallelism(final int parallelism)
+        {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        public int parallelism()
+        {
+            return parallelism;
+        }
+
+        /**
+         * Sets whether messages are delivered in the same order as a sequential scan when recordings are scanned in
+         * parallel. A sequential scan delivers each recording's messages in turn, so this isn't timestamp order when
+         * recordings overlap in time, as the outbound stream's recordings can. Ordered messages are copied by the
+         * scanning threads and delivered on the thread that calls scan.
+         *
+         * Unordered messages are delivered on the scanning threads as they're replayed, but they aren't copied. Each
+         * thread filters with its own copy of the predicates from {@link FixMessagePredicates}, but the consumer and
+         * any other predicates are shared by the threads, so they must be thread safe.
+         *
+         * @param ordered true to deliver messages in order, false to deliver them as they're scanned.
+         * @return this
+         * @see #parallelism(int)
+         */
+        public Context ordered(final boolean ordered)
+        {
+            this.ordered = ordered;
+            return this;
+        }
+
+        public boolean ordered()
+        {
+            return ordered;
+        }
     }
 
     public FixArchiveScanner(final Context context)
     {
         this.idleStrategy = context.idleStrategy();
+        this.logFileDir = context.logFileDir();
+        this.archiveDirectoryName = context.archiveDirectoryName();
+        this.parallelism = context.parallelism();
+        this.ordered = context.ordered();
 
-        final Aeron.Context aeronContext = new Aeron.Context().aeronDirectoryName(context.aeronDirectoryName());
-        aeron = Aeron.connect(aeronContext);
-        aeronArchive = AeronArchive.connect(new AeronArchive.Context().aeron(aeron).ownsAeronClient(true));
+        if (parallelism < 1)
+        {
+            throw new IllegalArgumentException("parallelism must be at least 1, but was " + parallelism);
+        }
+
+        if (archiveDirectoryName != null)
+        {
+            aeron = null;
+            aeronArchive = null;
+            offlineArchive = new OfflineArchive(new File(archiveDirectoryName));
+        }
+        else
+        {
+            final Aeron.Context aeronContext = new Aeron.Context().aeronDirectoryName(context.aeronDirectoryName());
+            aeron = Aeron.connect(aeronContext);
+            aeronArchive = AeronArchive.connect(new AeronArchive.Context().aeron(aeron).ownsAeronClient(true));
+            offlineArchive = null;
+        }
     }
 
     public void scan(
@@ -91,60 +211,231 @@ public class FixArchiveScanner implements AutoCloseable
         final boolean follow,
         final int archiveScannerStreamId)
     {
-        final LogEntryHandler logEntryHandler = new LogEntryHandler(handler);
-        final FragmentAssembler fragmentAssembler = new FragmentAssembler(logEntryHandler);
+        scan(aeronChannel, queryStreamId, handler, follow, archiveScannerStreamId, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
 
-        final List<ArchiveLocation> archiveLocations = lookupArchiveLocations(aeronChannel, queryStreamId);
+    /**
+     * Scan the archive for the messages in a time range. If the engine's time index is available, see
+     * {@link Context#logFileDir(String)}, then only the parts of each recording that can hold messages in the range
+     * are replayed. The handler can still be passed messages outside of the range, so it should also filter them,
+     * for example with {@link FixMessagePredicates#between(long, long)}.
+     *
+     * @param aeronChannel the channel that the engine's messages were archived from.
+     * @param queryStreamId the stream that the engine's messages were archived from.
+     * @param handler the callback for the messages that are scanned.
+     * @param follow true to carry on scanning messages as they're archived, false to stop at the end of the archive.
+     * @param archiveScannerStreamId the stream id that the archive is replayed on.
+     * @param fromTimestampInclusive the earliest timestamp of messages that are queried.
+     * @param toTimestampExclusive the timestamp that queried messages are before.
+     */
+    public void scan(
+        final String aeronChannel,
+        final int queryStreamId,
+        final FixMessageConsumer handler,
+        final boolean follow,
+        final int archiveScannerStreamId,
+        final long fromTimestampInclusive,
+        final long toTimestampExclusive)
+    {
+        final List<ArchiveLocation> ranges = new ArrayList<>();
+        try (TimeIndexReader timeIndex = logFileDir == null ?
+            null : TimeIndexReader.open(TimeIndexDescriptor.timeIndexFile(logFileDir, queryStreamId)))
+        {
+            for (final ArchiveLocation archiveLocation : lookupArchiveLocations(aeronChannel, queryStreamId))
+            {
+                final ArchiveLocation range = scannedRange(
+                    archiveLocation, follow, timeIndex, fromTimestampInclusive, toTimestampExclusive);
+                if (range.stopPosition == NULL_POSITION || range.stopPosition > range.startPosition)
+                {
+                    ranges.add(range);
+                }
+            }
+        }
 
-        try (Subscription replaySubscription = aeron.addSubscription(IPC_CHANNEL, archiveScannerStreamId))
+        if (parallelism > 1 && !follow && ranges.size() > 1)
         {
-            archiveLocations.forEach(archiveLocation ->
+            scanInParallel(ranges, handler, archiveScannerStreamId);
+            return;
+        }
+
+        final FragmentHandler fragmentHandler = PushdownFilter.of(
+            FixMessagePredicates.framePredicate(handler), new FragmentAssembler(new LogEntryHandler(handler)));
+        try (Subscription replaySubscription = addReplaySubscription(archiveScannerStreamId))
+        {
+            for (final ArchiveLocation range : ranges)
             {
-                final long recordingId = archiveLocation.recordingId;
-                final boolean stillArchiving = archiveLocation.stopPosition == NULL_POSITION;
+                replay(
+                    range, archiveScannerStreamId, replaySubscription, offlineArchive, fragmentHandler, idleStrategy);
+            }
+        }
+    }
+
+    private void scanInParallel(
+        final List<ArchiveLocation> ranges, final FixMessageConsumer handler, final int archiveScannerStreamId)
+    {
+        final int laneCount = Math.min(parallelism, ranges.size());
+        final ArchiveScanLane[] lanes = new ArchiveScanLane[laneCount];
+        final Thread[] threads = new Thread[laneCount];
+        for (int i = 0; i < laneCount; i++)
+        {
+            // Each lane evaluates its own copy of the predicates, since predicates like whereHeader have decoding state
+            final FixMessagePredicate framePredicate = FixMessagePredicates.framePredicate(handler);
+            final FixMessageConsumer laneHandler = ordered ? null : FixMessagePredicates.threadLocalCopy(handler);
+            lanes[i] = new ArchiveScanLane(
+                this, i, laneCount, ranges, archiveScannerStreamId + i, laneHandler, framePredicate);
+            threads[i] = new Thread(lanes[i], "FixArchiveScanner-" + i);
+            threads[i].start();
+        }
 
-                final long stopPosition;
-                final long length;
-                if (stillArchiving)
+        boolean drained = false;
+        try
+        {
+            if (ordered)
+            {
+                final LogEntryHandler logEntryHandler = new LogEntryHandler(handler);
+                for (int i = 0, size = ranges.size(); i < size; i++)
                 {
-                    if (follow)
-                    {
-                        length = NULL_LENGTH;
-                        stopPosition = NULL_POSITION;
-                    }
-                    else
+                    final ArchiveScanLane lane = lanes[i % laneCount];
+                    while (!lane.drainRecording(logEntryHandler))
                     {
-                        stopPosition = aeronArchive.getRecordingPosition(recordingId);
-                        length = stopPosition - archiveLocation.startPosition;
+                        idleStrategy.idle();
                     }
+                    idleStrategy.reset();
                 }
-                else
+            }
+
+            drained = true;
+        }
+        finally
+        {
+            // Unordered lanes carry on scanning their recordings until they're done, unless draining has failed.
+            if (!drained)
+            {
+                for (final ArchiveScanLane lane : lanes)
                 {
-                    stopPosition = archiveLocation.stopPosition;
-                    length = stopPosition - archiveLocation.startPosition;
+                    lane.abort();
                 }
+            }
 
-                if (length != 0)
-                {
-                    final int sessionId = (int)aeronArchive.startReplay(
-                        recordingId,
-                        archiveLocation.startPosition,
-                        length,
-                        IPC_CHANNEL,
-                        archiveScannerStreamId);
+            for (final Thread thread : threads)
+            {
+                joinQuietly(thread);
+            }
+        }
 
-                    final Image image = lookupImage(replaySubscription, sessionId);
+        for (final ArchiveScanLane lane : lanes)
+        {
+            lane.checkFailure();
+        }
+    }
 
-                    while (stopPosition == NULL_POSITION || image.position() < stopPosition)
-                    {
-                        idleStrategy.idle(image.poll(fragmentAssembler, 10));
-                    }
-                }
-            });
+    private static void joinQuietly(final Thread thread)
+    {
+        boolean interrupted = false;
+        while (thread.isAlive())
+        {
+            try
+            {
+                thread.join();
+            }
+            catch (final InterruptedException ex)
+            {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // The part of a recording that's scanned, narrowed by the time index if there is one.
+    private ArchiveLocation scannedRange(
+        final ArchiveLocation archiveLocation,
+        final boolean follow,
+        final TimeIndexReader timeIndex,
+        final long fromTimestampInclusive,
+        final long toTimestampExclusive)
+    {
+        final long recordingId = archiveLocation.recordingId;
+        final boolean stillArchiving = archiveLocation.stopPosition == NULL_POSITION;
+
+        long startPosition = archiveLocation.startPosition;
+        long stopPosition;
+        if (stillArchiving)
+        {
+            stopPosition = follow || offlineArchive != null ?
+                NULL_POSITION : aeronArchive.getRecordingPosition(recordingId);
         }
+        else
+        {
+            stopPosition = archiveLocation.stopPosition;
+        }
+
+        if (timeIndex != null)
+        {
+            if (fromTimestampInclusive != Long.MIN_VALUE)
+            {
+                startPosition = timeIndex.startPosition(recordingId, fromTimestampInclusive, startPosition);
+            }
+
+            if (toTimestampExclusive != Long.MAX_VALUE)
+            {
+                stopPosition = timeIndex.stopPosition(recordingId, toTimestampExclusive, stopPosition);
+            }
+        }
+
+        return new ArchiveLocation(recordingId, startPosition, stopPosition);
     }
 
-    private Image lookupImage(final Subscription replaySubscription, final int sessionId)
+    // Invoked by both the scanning thread and parallel scan lanes, each with their own subscription and state.
+    void replay(
+        final ArchiveLocation range,
+        final int archiveScannerStreamId,
+        final Subscription replaySubscription,
+        final OfflineArchive offlineArchive,
+        final FragmentHandler fragmentHandler,
+        final IdleStrategy idleStrategy)
+    {
+        final long recordingId = range.recordingId;
+        final long startPosition = range.startPosition;
+        final long stopPosition = range.stopPosition;
+
+        if (offlineArchive != null)
+        {
+            offlineArchive.read(recordingId, startPosition, stopPosition, fragmentHandler);
+            return;
+        }
+
+        final long length = stopPosition == NULL_POSITION ? NULL_LENGTH : stopPosition - startPosition;
+        final int sessionId = (int)aeronArchive.startReplay(
+            recordingId,
+            startPosition,
+            length,
+            IPC_CHANNEL,
+            archiveScannerStreamId);
+
+        final Image image = lookupImage(replaySubscription, sessionId, idleStrategy);
+
+        while (stopPosition == NULL_POSITION || image.position() < stopPosition)
+        {
+            idleStrategy.idle(image.poll(fragmentHandler, FRAGMENT_LIMIT));
+        }
+    }
+
+    Subscription addReplaySubscription(final int archiveScannerStreamId)
+    {
+        return archiveDirectoryName != null ? null : aeron.addSubscription(IPC_CHANNEL, archiveScannerStreamId);
+    }
+
+    OfflineArchive newOfflineArchive()
+    {
+        return archiveDirectoryName != null ? new OfflineArchive(new File(archiveDirectoryName)) : null;
+    }
+
+    private Image lookupImage(
+        final Subscription replaySubscription, final int sessionId, final IdleStrategy idleStrategy)
     {
         Image image = null;
 
@@ -161,6 +452,24 @@ public class FixArchiveScanner implements AutoCloseable
     private List<ArchiveLocation> lookupArchiveLocations(final String aeronChannel, final int queryStreamId)
     {
         final List<ArchiveLocation> archiveLocations = new ArrayList<>();
+        if (offlineArchive != null)
+        {
+            offlineArchive.lookupArchiveLocations(aeronChannel, queryStreamId, archiveLocations);
+        }
+        else
+        {
+            listRecordingsForUri(aeronChannel, queryStreamId, archiveLocations);
+        }
+
+        // Any uncompleted recording is at the end
+        archiveLocations.sort(comparingLong(ArchiveLocation::stopPosition).reversed());
+
+        return archiveLocations;
+    }
+
+    private void listRecordingsForUri(
+        final String aeronChannel, final int queryStreamId, final List<ArchiveLocation> archiveLocations)
+    {
         aeronArchive.listRecordingsForUri(
             0,
             Integer.MAX_VALUE,
@@ -182,14 +491,9 @@ public class FixArchiveScanner implements AutoCloseable
             strippedChannel,
             originalChannel,
             sourceIdentity) -> archiveLocations.add(new ArchiveLocation(recordingId, startPosition, stopPosition)));
-
-        // Any uncompleted recording is at the end
-        archiveLocations.sort(comparingLong(ArchiveLocation::stopPosition).reversed());
-
-        return archiveLocations;
     }
 
-    class ArchiveLocation
+    static class ArchiveLocation
     {
         final long recordingId;
         final long startPosition;
@@ -219,6 +523,7 @@ public class FixArchiveScanner implements AutoCloseable
 
     public void close()
     {
-        aeronArchive.close();
+        CloseHelper.close(aeronArchive);
+        CloseHelper.close(offlineArchive);
     }
 }
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2015-2019 Real Logic Ltd, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.DirectBuffer;
+
+/**
+ * Byte level destination for the entries written by a {@link FixMessageLogger}.
+ *
+ * Each entry is the message's timestamp, its direction (IN or OUT) and its FIX body separated by spaces and terminated
+ * by a newline, all in ascii.
+ *
+ * @see RotatingLogFileSink
+ */
+@FunctionalInterface
+public interface FixMessageLogSink extends AutoCloseable
+{
+    /**
+     * Callback invoked for each log entry.
+     *
+     * @param buffer the buffer containing the entry, it is reused once this method returns.
+     * @param offset the offset where the entry begins within the buffer.
+     * @param length the length of the entry in bytes.
+     */
+    void onLogEntry(DirectBuffer buffer, int offset, int length);
+
+    /**
+     * Invoked after each duty cycle of the logger that has written entries, so that buffered entries can be written
+     * out.
+     */
+    default void flush()
+    {
+    }
+
+    default void close()
+    {
+    }
+}
@@ -18,13 +18,19 @@ package uk.co.real_logic.artio.engine.logger;
 import io.aeron.Aeron;
 import io.aeron.FragmentAssembler;
 import io.aeron.Subscription;
+import io.aeron.logbuffer.Header;
+import org.agrona.CloseHelper;
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
 import org.agrona.concurrent.Agent;
 import org.agrona.concurrent.AgentRunner;
 import uk.co.real_logic.artio.CommonConfiguration;
+import uk.co.real_logic.artio.messages.FixMessageDecoder;
 
 import java.util.function.Consumer;
 
 import static io.aeron.CommonContext.IPC_CHANNEL;
+import static java.nio.charset.StandardCharsets.US_ASCII;
 import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_INBOUND_LIBRARY_STREAM;
 import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_OUTBOUND_LIBRARY_STREAM;
 import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_OUTBOUND_REPLAY_STREAM;
@@ -36,8 +42,11 @@ import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_OUTBOUND
  * Main method is provided as an example of usage - when integrating into your specific system you should pass in the
  * library aeron channel and stream ids used by your {@link uk.co.real_logic.artio.engine.EngineConfiguration}.
  *
- * Since this class generates Java objects for every message that passes through the system you're recommended to run
- * it in a different process to the normal Artio Engine if you're operating in a latency sensitive environment.
+ * When constructed with a {@code Consumer<String>} this class generates Java objects for every message that passes
+ * through the system, so you're recommended to run it in a different process to the normal Artio Engine if you're
+ * operating in a latency sensitive environment. When constructed with a {@link FixMessageLogSink} each message is
+ * written as bytes into a reused buffer instead, so no objects are allocated per message once the buffer has grown
+ * to fit the largest message.
  */
 public class FixMessageLogger implements Agent
 {
@@ -61,11 +70,19 @@ public class FixMessageLogger implements Agent
         AgentRunner.startOnThread(runner);
     }
 
+    private static final byte[] INBOUND = "IN".getBytes(US_ASCII);
+    private static final byte[] OUTBOUND = "OUT".getBytes(US_ASCII);
+    private static final byte SEPARATOR = ' ';
+    private static final byte END_OF_ENTRY = '\n';
+
+    private final ExpandableArrayBuffer entryBuffer = new ExpandableArrayBuffer(1024);
     private final Aeron aeron;
     private final Subscription outboundSubscription;
     private final Subscription inboundSubscription;
     private final Subscription replaySubscription;
     private final FragmentAssembler fragmentAssembler;
+    private final int inboundStreamId;
+    private final FixMessageLogSink sink;
 
     public FixMessageLogger(
         final Consumer<String> fixMessageConsumer,
@@ -75,26 +92,97 @@ public class FixMessageLogger implements Agent
         final int outboundStreamId,
         final int outboundReplayStreamId)
     {
+        this(
+            (message, buffer, offset, length, header) -> fixMessageConsumer.accept(message.body()),
+            null,
+            context,
+            libraryAeronChannel,
+            inboundStreamId,
+            outboundStreamId,
+            outboundReplayStreamId);
+    }
+
+    public FixMessageLogger(
+        final FixMessageLogSink sink,
+        final Aeron.Context context,
+        final String libraryAeronChannel,
+        final int inboundStreamId,
+        final int outboundStreamId,
+        final int outboundReplayStreamId)
+    {
+        this(
+            null,
+            sink,
+            context,
+            libraryAeronChannel,
+            inboundStreamId,
+            outboundStreamId,
+            outboundReplayStreamId);
+    }
+
+    private FixMessageLogger(
+        final FixMessageConsumer fixMessageConsumer,
+        final FixMessageLogSink sink,
+        final Aeron.Context context,
+        final String libraryAeronChannel,
+        final int inboundStreamId,
+        final int outboundStreamId,
+        final int outboundReplayStreamId)
+    {
+        this.inboundStreamId = inboundStreamId;
+        this.sink = sink;
+
         aeron = Aeron.connect(context);
         inboundSubscription = aeron.addSubscription(libraryAeronChannel, inboundStreamId);
         outboundSubscription = aeron.addSubscription(libraryAeronChannel, outboundStreamId);
         replaySubscription = aeron.addSubscription(libraryAeronChannel, outboundReplayStreamId);
 
-        final LogEntryHandler logEntryHandler = new LogEntryHandler((message, buffer, offset, length, header) ->
-            fixMessageConsumer.accept(message.body()));
+        final LogEntryHandler logEntryHandler = new LogEntryHandler(
+            sink == null ? fixMessageConsumer : this::writeLogEntry);
         fragmentAssembler = new FragmentAssembler(logEntryHandler);
     }
 
     public int doWork()
     {
-        return
+        final int work =
             inboundSubscription.poll(fragmentAssembler, 10) +
             outboundSubscription.poll(fragmentAssembler, 10) +
             replaySubscription.poll(fragmentAssembler, 10);
+
+        if (sink != null && work > 0)
+        {
+            sink.flush();
+        }
+
+        return work;
+    }
+
+    private void writeLogEntry(
+        final FixMessageDecoder message,
+        final DirectBuffer buffer,
+        final int offset,
+        final int length,
+        final Header header)
+    {
+        final ExpandableArrayBuffer entryBuffer = this.entryBuffer;
+        final byte[] direction = header.streamId() == inboundStreamId ? INBOUND : OUTBOUND;
+        final int bodyLength = message.bodyLength();
+
+        int position = entryBuffer.putLongAscii(0, message.timestamp());
+        entryBuffer.putByte(position++, SEPARATOR);
+        entryBuffer.putBytes(position, direction);
+        position += direction.length;
+        entryBuffer.putByte(position++, SEPARATOR);
+        entryBuffer.checkLimit(position + bodyLength + 1);
+        position += message.getBody(entryBuffer, position, bodyLength);
+        entryBuffer.putByte(position++, END_OF_ENTRY);
+
+        sink.onLogEntry(entryBuffer, 0, position);
     }
 
     public void onClose()
     {
+        CloseHelper.close(sink);
         aeron.close();
     }
 
@@ -29,11 +29,11 @@ public interface FixMessagePredicate
 
     default FixMessagePredicate and(final FixMessagePredicate other)
     {
-        return (message) -> test(message) && other.test(message);
+        return FixMessagePredicates.and(this, other);
     }
 
     default FixMessagePredicate or(final FixMessagePredicate other)
     {
-        return (message) -> test(message) || other.test(message);
+        return FixMessagePredicates.or(this, other);
     }
 }
@@ -15,11 +15,14 @@
  */
 package uk.co.real_logic.artio.engine.logger;
 
+import io.aeron.logbuffer.Header;
+import org.agrona.DirectBuffer;
 import org.agrona.ExpandableArrayBuffer;
 import org.agrona.collections.IntHashSet;
 import uk.co.real_logic.artio.decoder.HeaderDecoder;
 import uk.co.real_logic.artio.dictionary.generation.CodecUtil;
 import uk.co.real_logic.artio.dictionary.generation.GenerationUtil;
+import uk.co.real_logic.artio.messages.FixMessageDecoder;
 import uk.co.real_logic.artio.util.AsciiBuffer;
 import uk.co.real_logic.artio.util.BufferAsciiSequence;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
@@ -31,8 +34,14 @@ import java.util.regex.Pattern;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import static uk.co.real_logic.artio.dictionary.StandardFixConstants.START_OF_HEADER;
+
 /**
  * Filters to be used in conjunction with {@link FixArchiveScanner}.
+ *
+ * When a consumer from {@link #filterBy(FixMessageConsumer, FixMessagePredicate)} is scanned the predicates that only
+ * look at the framing fields, or the fix header, are also evaluated on the first fragment of large messages, so that
+ * non-matching messages are skipped without being reassembled.
  */
 public final class FixMessagePredicates
 {
@@ -50,18 +59,7 @@ public final class FixMessagePredicates
     public static FixMessageConsumer filterBy(
         final FixMessageConsumer consumer, final FixMessagePredicate predicate)
     {
-        return (message, buffer, offset, length, header) ->
-        {
-            final int actingVersion = message.sbeSchemaVersion();
-            final int actingBlockLength = message.sbeBlockLength();
-
-            if (predicate.test(message))
-            {
-                // Rewrap incase the predicate.test() method has altered the limit()
-                message.wrap(buffer, offset, actingBlockLength, actingVersion);
-                consumer.onMessage(message, buffer, offset, length, header);
-            }
-        };
+        return new FilteredConsumer(consumer, predicate);
     }
 
     /**
@@ -88,7 +86,7 @@ public final class FixMessagePredicates
      */
     public static FixMessagePredicate from(final long beginTimestampInclusive)
     {
-        return (message) -> message.timestamp() >= beginTimestampInclusive;
+        return onFrame((message) -> message.timestamp() >= beginTimestampInclusive);
     }
 
     /**
@@ -101,7 +99,7 @@ public final class FixMessagePredicates
      */
     public static FixMessagePredicate to(final long endTimestampExclusive)
     {
-        return (message) -> message.timestamp() < endTimestampExclusive;
+        return onFrame((message) -> message.timestamp() < endTimestampExclusive);
     }
 
     /**
@@ -137,7 +135,7 @@ public final class FixMessagePredicates
 
     private static FixMessagePredicate messageTypeOf(final IntHashSet hashSet)
     {
-        return (message) -> hashSet.contains(message.messageType());
+        return onFrame((message) -> hashSet.contains(message.messageType()));
     }
 
     /**
@@ -201,18 +199,7 @@ public final class FixMessagePredicates
     public static FixMessagePredicate whereHeader(
         final Predicate<HeaderDecoder> matches)
     {
-        final HeaderDecoder header = new HeaderDecoder();
-        final ExpandableArrayBuffer buffer = new ExpandableArrayBuffer(1024);
-        final AsciiBuffer asciiBuffer = new MutableAsciiBuffer();
-        return message ->
-        {
-            final int length = message.bodyLength();
-            buffer.checkLimit(length);
-            message.getBody(buffer, 0, length);
-            asciiBuffer.wrap(buffer);
-            header.decode(asciiBuffer, 0, length);
-            return matches.test(header);
-        };
+        return new HeaderPredicate(matches);
     }
 
     /**
@@ -223,25 +210,297 @@ public final class FixMessagePredicates
      */
     public static FixMessagePredicate sessionOf(final long sessionId)
     {
-        return (message) -> message.session() == sessionId;
+        return onFrame((message) -> message.session() == sessionId);
     }
 
     public static FixMessagePredicate bodyMatches(final Pattern pattern)
     {
-        final ExpandableArrayBuffer buffer = new ExpandableArrayBuffer(1024);
-        final BufferAsciiSequence sequence = new BufferAsciiSequence();
-        return message ->
+        return new BodyPredicate(pattern);
+    }
+
+    public static FixMessagePredicate alwaysTrue()
+    {
+        return onFrame(message -> true);
+    }
+
+    static FixMessagePredicate and(final FixMessagePredicate left, final FixMessagePredicate right)
+    {
+        if (left instanceof FramePredicate && right instanceof FramePredicate)
+        {
+            return new FrameConjunction((FramePredicate)left, (FramePredicate)right);
+        }
+
+        return new Conjunction(left, right);
+    }
+
+    static FixMessagePredicate or(final FixMessagePredicate left, final FixMessagePredicate right)
+    {
+        if (left instanceof FramePredicate && right instanceof FramePredicate)
+        {
+            return new FrameDisjunction((FramePredicate)left, (FramePredicate)right);
+        }
+
+        return new Disjunction(left, right);
+    }
+
+    // The part of the consumer's filter that can be evaluated on the first fragment of a message, null if none.
+    // Each call returns a new instance with its own decoding state, so that every scanning thread can have one.
+    static FixMessagePredicate framePredicate(final FixMessageConsumer consumer)
+    {
+        if (consumer instanceof FilteredConsumer)
+        {
+            return framePredicate(((FilteredConsumer)consumer).predicate);
+        }
+
+        return null;
+    }
+
+    private static FixMessagePredicate framePredicate(final FixMessagePredicate predicate)
+    {
+        if (predicate instanceof FramePredicate)
+        {
+            return ((FramePredicate)predicate).copy();
+        }
+
+        if (predicate instanceof Conjunction)
+        {
+            final Conjunction conjunction = (Conjunction)predicate;
+            final FixMessagePredicate left = framePredicate(conjunction.left);
+            final FixMessagePredicate right = framePredicate(conjunction.right);
+            if (left == null)
+            {
+                return right;
+            }
+
+            return right == null ? left : and(left, right);
+        }
+
+        return null;
+    }
+
+    // A consumer that filters with its own copy of the consumer's predicates, so that it can be used on a different
+    // thread to the original. Predicates and consumers that aren't from this class are shared, rather than copied.
+    static FixMessageConsumer threadLocalCopy(final FixMessageConsumer consumer)
+    {
+        if (consumer instanceof FilteredConsumer)
+        {
+            final FilteredConsumer filteredConsumer = (FilteredConsumer)consumer;
+            return new FilteredConsumer(
+                threadLocalCopy(filteredConsumer.consumer), threadLocalCopy(filteredConsumer.predicate));
+        }
+
+        return consumer;
+    }
+
+    private static FixMessagePredicate threadLocalCopy(final FixMessagePredicate predicate)
+    {
+        if (predicate instanceof FramePredicate)
+        {
+            return ((FramePredicate)predicate).copy();
+        }
+
+        if (predicate instanceof Conjunction)
+        {
+            final Conjunction conjunction = (Conjunction)predicate;
+            return new Conjunction(threadLocalCopy(conjunction.left), threadLocalCopy(conjunction.right));
+        }
+
+        if (predicate instanceof Disjunction)
+        {
+            final Disjunction disjunction = (Disjunction)predicate;
+            return new Disjunction(threadLocalCopy(disjunction.left), threadLocalCopy(disjunction.right));
+        }
+
+        if (predicate instanceof BodyPredicate)
+        {
+            return new BodyPredicate(((BodyPredicate)predicate).pattern);
+        }
+
+        return predicate;
+    }
+
+    private static FixMessagePredicate onFrame(final FramePredicate predicate)
+    {
+        return predicate;
+    }
+
+    // Only reads the framing fields or the fix header, and never rejects a message just because the body it was
+    // given is truncated, so it's safe to evaluate on the first fragment of a message.
+    @FunctionalInterface
+    private interface FramePredicate extends FixMessagePredicate
+    {
+        // A predicate that tests the same condition, stateful predicates return one with its own decoding state.
+        default FramePredicate copy()
+        {
+            return this;
+        }
+    }
+
+    private static final class HeaderPredicate implements FramePredicate
+    {
+        private final HeaderDecoder header = new HeaderDecoder();
+        private final AsciiBuffer asciiBuffer = new MutableAsciiBuffer();
+        private final Predicate<HeaderDecoder> matches;
+
+        private HeaderPredicate(final Predicate<HeaderDecoder> matches)
+        {
+            this.matches = matches;
+        }
+
+        public boolean test(final FixMessageDecoder message)
+        {
+            // Decode the header in place, it stops at the first body field so the body is never copied.
+            message.limit(message.offset() + message.sbeBlockLength());
+            final int bodyLength = message.bodyLength();
+            final int bodyOffset = message.limit() + FixMessageDecoder.bodyHeaderLength();
+            final DirectBuffer buffer = message.buffer();
+            final int availableLength = Math.min(bodyLength, buffer.capacity() - bodyOffset);
+
+            asciiBuffer.wrap(buffer);
+            final int headerLength = header.decode(asciiBuffer, bodyOffset, availableLength);
+            if (availableLength < bodyLength &&
+                asciiBuffer.scan(bodyOffset + headerLength, bodyOffset + availableLength - 1, START_OF_HEADER) ==
+                AsciiBuffer.UNKNOWN_INDEX)
+            {
+                // Only the first fragment is available and the header may carry on into the next one.
+                return true;
+            }
+
+            return matches.test(header);
+        }
+
+        public FramePredicate copy()
+        {
+            return new HeaderPredicate(matches);
+        }
+    }
+
+    private static final class FrameConjunction implements FramePredicate
+    {
+        private final FramePredicate left;
+        private final FramePredicate right;
+
+        private FrameConjunction(final FramePredicate left, final FramePredicate right)
+        {
+            this.left = left;
+            this.right = right;
+        }
+
+        public boolean test(final FixMessageDecoder message)
+        {
+            return left.test(message) && right.test(message);
+        }
+
+        public FramePredicate copy()
+        {
+            return new FrameConjunction(left.copy(), right.copy());
+        }
+    }
+
+    private static final class FrameDisjunction implements FramePredicate
+    {
+        private final FramePredicate left;
+        private final FramePredicate right;
+
+        private FrameDisjunction(final FramePredicate left, final FramePredicate right)
+        {
+            this.left = left;
+            this.right = right;
+        }
+
+        public boolean test(final FixMessageDecoder message)
+        {
+            return left.test(message) || right.test(message);
+        }
+
+        public FramePredicate copy()
+        {
+            return new FrameDisjunction(left.copy(), right.copy());
+        }
+    }
+
+    private static final class Conjunction implements FixMessagePredicate
+    {
+        private final FixMessagePredicate left;
+        private final FixMessagePredicate right;
+
+        private Conjunction(final FixMessagePredicate left, final FixMessagePredicate right)
+        {
+            this.left = left;
+            this.right = right;
+        }
+
+        public boolean test(final FixMessageDecoder message)
+        {
+            return left.test(message) && right.test(message);
+        }
+    }
+
+    private static final class Disjunction implements FixMessagePredicate
+    {
+        private final FixMessagePredicate left;
+        private final FixMessagePredicate right;
+
+        private Disjunction(final FixMessagePredicate left, final FixMessagePredicate right)
+        {
+            this.left = left;
+            this.right = right;
+        }
+
+        public boolean test(final FixMessageDecoder message)
+        {
+            return left.test(message) || right.test(message);
+        }
+    }
+
+    private static final class BodyPredicate implements FixMessagePredicate
+    {
+        private final ExpandableArrayBuffer buffer = new ExpandableArrayBuffer(1024);
+        private final BufferAsciiSequence sequence = new BufferAsciiSequence();
+        private final Pattern pattern;
+
+        private BodyPredicate(final Pattern pattern)
+        {
+            this.pattern = pattern;
+        }
+
+        public boolean test(final FixMessageDecoder message)
         {
             final int length = message.bodyLength();
             buffer.checkLimit(length);
             message.getBody(buffer, 0, length);
             sequence.wrap(buffer, 0, length);
             return pattern.matcher(sequence).matches();
-        };
+        }
     }
 
-    public static FixMessagePredicate alwaysTrue()
+    private static final class FilteredConsumer implements FixMessageConsumer
     {
-        return message -> true;
+        private final FixMessageConsumer consumer;
+        private final FixMessagePredicate predicate;
+
+        private FilteredConsumer(final FixMessageConsumer consumer, final FixMessagePredicate predicate)
+        {
+            this.consumer = consumer;
+            this.predicate = predicate;
+        }
+
+        public void onMessage(
+            final FixMessageDecoder message,
+            final DirectBuffer buffer,
+            final int offset,
+            final int length,
+            final Header header)
+        {
+            final int actingVersion = message.sbeSchemaVersion();
+            final int actingBlockLength = message.sbeBlockLength();
+
+            if (predicate.test(message))
+            {
+                // Rewrap incase the predicate.test() method has altered the limit()
+                message.wrap(buffer, offset, actingBlockLength, actingVersion);
+                consumer.onMessage(message, buffer, offset, length, header);
+            }
+        }
     }
 }
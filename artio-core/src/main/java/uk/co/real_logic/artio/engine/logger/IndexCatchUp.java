@@ -0,0 +1,216 @@
+/*
+ * Copyright 2015-2019 Real Logic Ltd, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.Image;
+import io.aeron.Subscription;
+import io.aeron.archive.client.AeronArchive;
+import io.aeron.archive.client.ArchiveException;
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.AgentInvoker;
+import org.agrona.concurrent.IdleStrategy;
+import uk.co.real_logic.artio.CommonConfiguration;
+import uk.co.real_logic.artio.DebugLogger;
+import uk.co.real_logic.artio.LogTag;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.aeron.CommonContext.IPC_CHANNEL;
+
+/**
+ * Catches indexes up with the archive on startup, from the positions that each index has persisted with its state.
+ *
+ * Each index's recordings are replayed in turn, but the replays of different indexes run concurrently: they're
+ * started together on one subscription and their images are polled in turn, so no index waits on another's replay.
+ */
+public final class IndexCatchUp
+{
+    private static final int LIMIT = 20;
+
+    private final List<IndexReplays> indexReplays = new ArrayList<>();
+    private final IdleStrategy idleStrategy = CommonConfiguration.backoffIdleStrategy();
+    private final AeronArchive aeronArchive;
+    private final ErrorHandler errorHandler;
+    private final int archiveReplayStream;
+    private final AgentInvoker aeronInvoker;
+
+    public IndexCatchUp(
+        final AeronArchive aeronArchive, final ErrorHandler errorHandler, final int archiveReplayStream)
+    {
+        this.aeronArchive = aeronArchive;
+        this.errorHandler = errorHandler;
+        this.archiveReplayStream = archiveReplayStream;
+        aeronInvoker = aeronArchive.context().aeron().conductorAgentInvoker();
+    }
+
+    public void catchUp(final List<Index> indices)
+    {
+        for (int i = 0, size = indices.size(); i < size; i++)
+        {
+            final IndexReplays replays = new IndexReplays(indices.get(i));
+            replays.index.readLastPosition(replays::onLastPosition);
+            if (!replays.pendingReplays.isEmpty())
+            {
+                indexReplays.add(replays);
+            }
+        }
+
+        if (indexReplays.isEmpty())
+        {
+            return;
+        }
+
+        try (Subscription subscription = aeronArchive.context().aeron().addSubscription(
+            IPC_CHANNEL, archiveReplayStream))
+        {
+            for (int i = 0, size = indexReplays.size(); i < size; i++)
+            {
+                indexReplays.get(i).startNextReplay();
+            }
+
+            while (!indexReplays.isEmpty())
+            {
+                int workCount = invokeAeronConductor();
+                for (int i = indexReplays.size() - 1; i >= 0; i--)
+                {
+                    final IndexReplays replays = indexReplays.get(i);
+                    workCount += replays.poll(subscription);
+                    if (replays.isComplete())
+                    {
+                        indexReplays.remove(i);
+                    }
+                }
+
+                if (workCount == 0)
+                {
+                    idleStrategy.idle();
+                    aeronArchive.checkForErrorResponse();
+                }
+                else
+                {
+                    idleStrategy.reset();
+                }
+            }
+        }
+    }
+
+    private int invokeAeronConductor()
+    {
+        return aeronInvoker != null ? aeronInvoker.invoke() : 0;
+    }
+
+    private final class IndexReplays
+    {
+        private static final long NO_REPLAY = -1;
+
+        private final ArrayDeque<PendingReplay> pendingReplays = new ArrayDeque<>();
+        private final Index index;
+
+        private long replaySessionId = NO_REPLAY;
+        private long recordingStoppedPosition;
+
+        IndexReplays(final Index index)
+        {
+            this.index = index;
+        }
+
+        void onLastPosition(final int aeronSessionId, final long recordingId, final long indexStoppedPosition)
+        {
+            try
+            {
+                final long recordingStoppedPosition = aeronArchive.getStopPosition(recordingId);
+                if (recordingStoppedPosition > indexStoppedPosition)
+                {
+                    DebugLogger.log(
+                        LogTag.INDEX,
+                        "Catchup [%s]: recordingId = %d, recordingStopped @ %d, indexStopped @ %d",
+                        index.getName(),
+                        recordingId,
+                        recordingStoppedPosition,
+                        indexStoppedPosition);
+
+                    pendingReplays.add(new PendingReplay(recordingId, indexStoppedPosition, recordingStoppedPosition));
+                }
+            }
+            catch (final ArchiveException ex)
+            {
+                errorHandler.onError(ex);
+            }
+        }
+
+        void startNextReplay()
+        {
+            replaySessionId = NO_REPLAY;
+            while (!pendingReplays.isEmpty())
+            {
+                final PendingReplay replay = pendingReplays.poll();
+                try
+                {
+                    recordingStoppedPosition = replay.recordingStoppedPosition;
+                    replaySessionId = aeronArchive.startReplay(
+                        replay.recordingId,
+                        replay.indexStoppedPosition,
+                        replay.recordingStoppedPosition - replay.indexStoppedPosition,
+                        IPC_CHANNEL,
+                        archiveReplayStream);
+                    return;
+                }
+                catch (final ArchiveException ex)
+                {
+                    errorHandler.onError(ex);
+                }
+            }
+        }
+
+        int poll(final Subscription subscription)
+        {
+            final Image image = subscription.imageBySessionId((int)replaySessionId);
+            if (image == null)
+            {
+                return 0;
+            }
+
+            final int fragments = image.poll(index, LIMIT);
+            if (image.position() >= recordingStoppedPosition || image.isClosed())
+            {
+                startNextReplay();
+            }
+
+            return fragments;
+        }
+
+        boolean isComplete()
+        {
+            return replaySessionId == NO_REPLAY;
+        }
+    }
+
+    private static final class PendingReplay
+    {
+        private final long recordingId;
+        private final long indexStoppedPosition;
+        private final long recordingStoppedPosition;
+
+        PendingReplay(final long recordingId, final long indexStoppedPosition, final long recordingStoppedPosition)
+        {
+            this.recordingId = recordingId;
+            this.indexStoppedPosition = indexStoppedPosition;
+            this.recordingStoppedPosition = recordingStoppedPosition;
+        }
+    }
+}
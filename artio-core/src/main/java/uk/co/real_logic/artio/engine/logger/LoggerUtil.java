@@ -39,6 +39,20 @@ public final class LoggerUtil
         }
     }
 
+    // A new file isn't filled with zeros, so its disk space is only allocated as it's written to.
+    public static ByteBuffer mapSparse(final File file, final int size)
+    {
+        if (file.exists())
+        {
+            return IoUtil.mapExistingFile(file, file.getName());
+        }
+
+        final File parentDir = file.getParentFile();
+        IoUtil.ensureDirectoryExists(parentDir, parentDir.getAbsolutePath());
+
+        return IoUtil.mapNewFile(file, size, false);
+    }
+
     public static MappedByteBuffer mapNewFile(final File file, final int size)
     {
         final File parentDir = file.getParentFile();
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2015-2019 Real Logic Ltd, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.archive.codecs.CatalogHeaderDecoder;
+import io.aeron.archive.codecs.RecordingDescriptorDecoder;
+import io.aeron.archive.codecs.RecordingDescriptorHeaderDecoder;
+import io.aeron.logbuffer.FragmentHandler;
+import io.aeron.logbuffer.Header;
+import io.aeron.logbuffer.LogBufferDescriptor;
+import org.agrona.BitUtil;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.File;
+import java.nio.MappedByteBuffer;
+import java.util.List;
+
+import static io.aeron.archive.client.AeronArchive.NULL_POSITION;
+import static io.aeron.logbuffer.FrameDescriptor.*;
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+
+/**
+ * Reads an archive's catalog and recording segment files directly, so that an archive can be scanned without a
+ * media driver or archive running, for example a copy of it. Segment files are memory mapped a file at a time and
+ * fragments are passed to handlers from the mapped file, without copying them.
+ *
+ * The archive shouldn't be being written to whilst it's read, as a recording that's in progress is only read up to
+ * the end of its data that's been written.
+ */
+final class OfflineArchive implements AutoCloseable
+{
+    // Matches the archive's own file names, see io.aeron.archive.Archive.Configuration
+    private static final String CATALOG_FILE_NAME = "archive.catalog";
+    private static final String RECORDING_SEGMENT_SUFFIX = ".rec";
+    private static final byte VALID = 1;
+
+    private final CatalogHeaderDecoder catalogHeader = new CatalogHeaderDecoder();
+    private final RecordingDescriptorHeaderDecoder descriptorHeader = new RecordingDescriptorHeaderDecoder();
+    private final RecordingDescriptorDecoder descriptor = new RecordingDescriptorDecoder();
+    private final UnsafeBuffer segmentBuffer = new UnsafeBuffer(0, 0);
+    private final File archiveDir;
+    private final MappedByteBuffer catalogByteBuffer;
+    private final UnsafeBuffer catalogBuffer;
+    private final int entryLength;
+
+    OfflineArchive(final File archiveDir)
+    {
+        this.archiveDir = archiveDir;
+        final File catalogFile = new File(archiveDir, CATALOG_FILE_NAME);
+        catalogByteBuffer = IoUtil.mapExistingFile(catalogFile, READ_ONLY, CATALOG_FILE_NAME);
+        catalogBuffer = new UnsafeBuffer(catalogByteBuffer);
+        catalogHeader.wrap(catalogBuffer, 0, CatalogHeaderDecoder.BLOCK_LENGTH, CatalogHeaderDecoder.SCHEMA_VERSION);
+        entryLength = catalogHeader.entryLength();
+    }
+
+    void lookupArchiveLocations(
+        final String aeronChannel, final int streamId, final List<FixArchiveScanner.ArchiveLocation> archiveLocations)
+    {
+        for (long recordingId = 0; wrapDescriptor(recordingId); recordingId++)
+        {
+            if (descriptorHeader.valid() == VALID &&
+                descriptor.streamId() == streamId &&
+                descriptor.strippedChannel().contains(aeronChannel))
+            {
+                archiveLocations.add(new FixArchiveScanner.ArchiveLocation(
+                    recordingId, descriptor.startPosition(), descriptor.stopPosition()));
+            }
+        }
+    }
+
+    // Reads the recording's fragments from the start position, up to the stop position or the end of the data that's
+    // been written if the stop position is NULL_POSITION.
+    void read(
+        final long recordingId, final long startPosition, final long stopPosition, final FragmentHandler handler)
+    {
+        if (!wrapDescriptor(recordingId))
+        {
+            throw new IllegalArgumentException("Unknown recording: " + recordingId);
+        }
+
+        final long recordingStartPosition = descriptor.startPosition();
+        final int termBufferLength = descriptor.termBufferLength();
+        final int segmentFileLength = descriptor.segmentFileLength();
+        final Header header = new Header(
+            descriptor.initialTermId(), LogBufferDescriptor.positionBitsToShift(termBufferLength));
+        header.buffer(segmentBuffer);
+
+        long position = startPosition;
+        while (stopPosition == NULL_POSITION || position < stopPosition)
+        {
+            final long segmentBasePosition = segmentFileBasePosition(
+                recordingStartPosition, position, termBufferLength, segmentFileLength);
+            final File segmentFile = new File(archiveDir, segmentFileName(recordingId, segmentBasePosition));
+            if (!segmentFile.exists())
+            {
+                return;
+            }
+
+            final MappedByteBuffer segmentByteBuffer =
+                IoUtil.mapExistingFile(segmentFile, READ_ONLY, segmentFile.getName());
+            try
+            {
+                segmentBuffer.wrap(segmentByteBuffer);
+                final int limit = stopPosition == NULL_POSITION ?
+                    segmentBuffer.capacity() :
+                    (int)Math.min(segmentBuffer.capacity(), stopPosition - segmentBasePosition);
+
+                int offset = (int)(position - segmentBasePosition);
+                while (offset < limit)
+                {
+                    final int frameLength = segmentBuffer.getInt(lengthOffset(offset), LITTLE_ENDIAN);
+                    if (frameLength <= 0)
+                    {
+                        return;
+                    }
+
+                    if (segmentBuffer.getShort(typeOffset(offset), LITTLE_ENDIAN) != PADDING_FRAME_TYPE)
+                    {
+                        header.offset(offset);
+                        handler.onFragment(segmentBuffer, offset + HEADER_LENGTH, frameLength - HEADER_LENGTH, header);
+                    }
+
+                    offset += BitUtil.align(frameLength, FRAME_ALIGNMENT);
+                }
+
+                position = segmentBasePosition + offset;
+            }
+            finally
+            {
+                IoUtil.unmap(segmentByteBuffer);
+            }
+        }
+    }
+
+    private boolean wrapDescriptor(final long recordingId)
+    {
+        final long offset = (recordingId + 1) * entryLength;
+        if (offset + entryLength > catalogBuffer.capacity())
+        {
+            return false;
+        }
+
+        descriptorHeader.wrap(
+            catalogBuffer,
+            (int)offset,
+            RecordingDescriptorHeaderDecoder.BLOCK_LENGTH,
+            RecordingDescriptorHeaderDecoder.SCHEMA_VERSION);
+        if (descriptorHeader.length() == 0)
+        {
+            return false;
+        }
+
+        descriptor.wrap(
+            catalogBuffer,
+            (int)offset + RecordingDescriptorHeaderDecoder.BLOCK_LENGTH,
+            RecordingDescriptorDecoder.BLOCK_LENGTH,
+            RecordingDescriptorDecoder.SCHEMA_VERSION);
+        return true;
+    }
+
+    private static String segmentFileName(final long recordingId, final long segmentBasePosition)
+    {
+        return recordingId + "-" + segmentBasePosition + RECORDING_SEGMENT_SUFFIX;
+    }
+
+    private static long segmentFileBasePosition(
+        final long startPosition, final long position, final int termBufferLength, final int segmentFileLength)
+    {
+        final long startTermBasePosition = startPosition - (startPosition & (termBufferLength - 1));
+        final long lengthFromBasePosition = position - startTermBasePosition;
+        final long segments = lengthFromBasePosition - (lengthFromBasePosition & (segmentFileLength - 1));
+
+        return startTermBasePosition + segments;
+    }
+
+    public void close()
+    {
+        IoUtil.unmap(catalogByteBuffer);
+    }
+}
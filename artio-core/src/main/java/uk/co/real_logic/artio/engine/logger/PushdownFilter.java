@@ -0,0 +1,109 @@
+/*
+ * Copyright 2015-2019 Real Logic Ltd, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.logbuffer.FragmentHandler;
+import io.aeron.logbuffer.Header;
+import org.agrona.DirectBuffer;
+import org.agrona.collections.IntHashSet;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.messages.FixMessageDecoder;
+import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
+
+import static io.aeron.logbuffer.FrameDescriptor.BEGIN_FRAG_FLAG;
+import static io.aeron.logbuffer.FrameDescriptor.END_FRAG_FLAG;
+
+/**
+ * Evaluates the frame level part of a scan's predicate on the first fragment of a fragmented message, so that
+ * messages which can't match are discarded before their fragments are copied and reassembled.
+ *
+ * Unfragmented messages are passed straight through, they're not copied by reassembly and the full predicate is
+ * evaluated on them downstream anyway.
+ */
+class PushdownFilter implements FragmentHandler
+{
+    private static final int MIN_FIRST_FRAGMENT_LENGTH =
+        MessageHeaderDecoder.ENCODED_LENGTH + FixMessageDecoder.BLOCK_LENGTH + FixMessageDecoder.bodyHeaderLength();
+
+    private final MessageHeaderDecoder messageHeader = new MessageHeaderDecoder();
+    private final FixMessageDecoder fixMessage = new FixMessageDecoder();
+    private final UnsafeBuffer fragmentBuffer = new UnsafeBuffer(0, 0);
+    private final IntHashSet skippedSessionIds = new IntHashSet();
+    private final FixMessagePredicate framePredicate;
+    private final FragmentHandler handler;
+
+    static FragmentHandler of(final FixMessagePredicate framePredicate, final FragmentHandler handler)
+    {
+        return framePredicate == null ? handler : new PushdownFilter(framePredicate, handler);
+    }
+
+    PushdownFilter(final FixMessagePredicate framePredicate, final FragmentHandler handler)
+    {
+        this.framePredicate = framePredicate;
+        this.handler = handler;
+    }
+
+    public void onFragment(final DirectBuffer buffer, final int offset, final int length, final Header header)
+    {
+        final byte flags = header.flags();
+        final int sessionId = header.sessionId();
+
+        if ((flags & BEGIN_FRAG_FLAG) == BEGIN_FRAG_FLAG)
+        {
+            skippedSessionIds.remove(sessionId);
+            if ((flags & END_FRAG_FLAG) == END_FRAG_FLAG || firstFragmentMatches(buffer, offset, length))
+            {
+                handler.onFragment(buffer, offset, length, header);
+            }
+            else
+            {
+                skippedSessionIds.add(sessionId);
+            }
+        }
+        else if (skippedSessionIds.contains(sessionId))
+        {
+            if ((flags & END_FRAG_FLAG) == END_FRAG_FLAG)
+            {
+                skippedSessionIds.remove(sessionId);
+            }
+        }
+        else
+        {
+            handler.onFragment(buffer, offset, length, header);
+        }
+    }
+
+    private boolean firstFragmentMatches(final DirectBuffer buffer, final int offset, final int length)
+    {
+        if (length < MIN_FIRST_FRAGMENT_LENGTH)
+        {
+            return true;
+        }
+
+        // Bound the view to this fragment so that header predicates can't read past the part of the body we have.
+        fragmentBuffer.wrap(buffer, offset, length);
+        messageHeader.wrap(fragmentBuffer, 0);
+        if (messageHeader.templateId() != FixMessageDecoder.TEMPLATE_ID)
+        {
+            // Only fix messages are consumed by a scan.
+            return false;
+        }
+
+        fixMessage.wrap(
+            fragmentBuffer, MessageHeaderDecoder.ENCODED_LENGTH, messageHeader.blockLength(), messageHeader.version());
+        return framePredicate.test(fixMessage);
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2015-2019 Real Logic Ltd, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.logbuffer.ControlledFragmentHandler;
+import io.aeron.logbuffer.ControlledFragmentHandler.Action;
+import io.aeron.logbuffer.FragmentHandler;
+import io.aeron.logbuffer.Header;
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.collections.Long2ObjectHashMap;
+import uk.co.real_logic.artio.decoder.HeaderDecoder;
+import uk.co.real_logic.artio.messages.FixMessageDecoder;
+import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
+import uk.co.real_logic.artio.util.AsciiBuffer;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import java.util.function.LongFunction;
+
+import static io.aeron.logbuffer.FrameDescriptor.BEGIN_FRAG_FLAG;
+import static io.aeron.logbuffer.FrameDescriptor.UNFRAGMENTED;
+import static uk.co.real_logic.artio.messages.MessageStatus.OK;
+
+/**
+ * Keeps a copy of the most recently sent messages of each session, so that resend requests for them can be replayed
+ * without waiting on the archive.
+ *
+ * Messages are cached as the complete framed FixMessage that was published on the outbound library stream. Each
+ * session's cache only holds messages in (sequenceIndex, sequenceNumber) order, with no messages missing between
+ * the oldest and newest cached message.
+ */
+class ReplayCache implements FragmentHandler
+{
+    static final long NOT_CACHED = -1;
+
+    private final MessageHeaderDecoder frameHeaderDecoder = new MessageHeaderDecoder();
+    private final FixMessageDecoder messageFrame = new FixMessageDecoder();
+    private final HeaderDecoder fixHeader = new HeaderDecoder();
+    private final AsciiBuffer asciiBuffer = new MutableAsciiBuffer();
+    private final Long2ObjectHashMap<SessionCache> sessionIdToCache = new Long2ObjectHashMap<>();
+    private final LongFunction<SessionCache> newSessionCache = sessionId -> new SessionCache();
+
+    private final int cacheSize;
+
+    ReplayCache(final int cacheSize)
+    {
+        this.cacheSize = cacheSize;
+    }
+
+    public void onFragment(final DirectBuffer buffer, final int offset, final int length, final Header header)
+    {
+        final byte flags = header.flags();
+        final boolean unfragmented = (flags & UNFRAGMENTED) == UNFRAGMENTED;
+        if (!unfragmented && (flags & BEGIN_FRAG_FLAG) != BEGIN_FRAG_FLAG)
+        {
+            return;
+        }
+
+        frameHeaderDecoder.wrap(buffer, offset);
+        if (frameHeaderDecoder.templateId() != FixMessageDecoder.TEMPLATE_ID)
+        {
+            return;
+        }
+
+        final int actingBlockLength = frameHeaderDecoder.blockLength();
+        final int messageFrameOffset = offset + frameHeaderDecoder.encodedLength();
+        messageFrame.wrap(buffer, messageFrameOffset, actingBlockLength, frameHeaderDecoder.version());
+        if (messageFrame.status() != OK)
+        {
+            return;
+        }
+
+        final SessionCache sessionCache = sessionIdToCache.computeIfAbsent(messageFrame.session(), newSessionCache);
+        if (!unfragmented)
+        {
+            // A message that isn't cached would leave a gap in the session's cache.
+            sessionCache.clear();
+            return;
+        }
+
+        final int sequenceIndex = messageFrame.sequenceIndex();
+        final int bodyOffset = messageFrameOffset + actingBlockLength + FixMessageDecoder.bodyHeaderLength();
+        asciiBuffer.wrap(buffer);
+        fixHeader.reset();
+        fixHeader.decode(asciiBuffer, bodyOffset, messageFrame.bodyLength());
+
+        sessionCache.add(sequenceIndex, fixHeader.msgSeqNum(), buffer, offset, length);
+    }
+
+    SessionCache sessionCache(final long sessionId)
+    {
+        return sessionIdToCache.get(sessionId);
+    }
+
+    final class SessionCache
+    {
+        private final int[] sequenceIndices = new int[cacheSize];
+        private final int[] sequenceNumbers = new int[cacheSize];
+        private final int[] lengths = new int[cacheSize];
+        private final ExpandableArrayBuffer[] messages = new ExpandableArrayBuffer[cacheSize];
+
+        // Cursors count messages added, the oldest cached message is at oldestCursor and the next will be added at
+        // nextCursor.
+        private long oldestCursor;
+        private long nextCursor;
+
+        void add(
+            final int sequenceIndex,
+            final int sequenceNumber,
+            final DirectBuffer buffer,
+            final int offset,
+            final int length)
+        {
+            if (nextCursor > oldestCursor && !isBefore(sequenceIndex, sequenceNumber + 1, nextCursor - 1))
+            {
+                // Keep the cache in order if a session's sequence numbers have gone backwards.
+                clear();
+            }
+
+            final int slot = slot(nextCursor);
+            ExpandableArrayBuffer message = messages[slot];
+            if (message == null)
+            {
+                message = new ExpandableArrayBuffer(length);
+                messages[slot] = message;
+            }
+            message.putBytes(0, buffer, offset, length);
+            sequenceIndices[slot] = sequenceIndex;
+            sequenceNumbers[slot] = sequenceNumber;
+            lengths[slot] = length;
+
+            nextCursor++;
+            if (nextCursor - oldestCursor > cacheSize)
+            {
+                oldestCursor++;
+            }
+        }
+
+        void clear()
+        {
+            oldestCursor = nextCursor;
+        }
+
+        /**
+         * Finds the first message of a range if all of the messages in it are cached.
+         *
+         * @param sequenceIndex the sequence index of the range.
+         * @param beginSequenceNumber the first sequence number of the range.
+         * @param endSequenceNumber the last sequence number of the range.
+         * @return the cursor of the first message in the range, or {@link #NOT_CACHED} if the cache doesn't hold
+         * the whole range.
+         */
+        long find(final int sequenceIndex, final int beginSequenceNumber, final int endSequenceNumber)
+        {
+            final long oldestCursor = this.oldestCursor;
+            final long nextCursor = this.nextCursor;
+            if (oldestCursor == nextCursor ||
+                !isBefore(sequenceIndex, beginSequenceNumber + 1, oldestCursor) ||
+                isBefore(sequenceIndex, endSequenceNumber, nextCursor - 1))
+            {
+                return NOT_CACHED;
+            }
+
+            long cursor = oldestCursor;
+            while (cursor < nextCursor && isBefore(sequenceIndex, beginSequenceNumber, cursor))
+            {
+                cursor++;
+            }
+
+            return cursor;
+        }
+
+        boolean contains(final long cursor)
+        {
+            return cursor >= oldestCursor && cursor < nextCursor;
+        }
+
+        boolean isEvicted(final long cursor)
+        {
+            return cursor < oldestCursor;
+        }
+
+        int sequenceIndex(final long cursor)
+        {
+            return sequenceIndices[slot(cursor)];
+        }
+
+        int sequenceNumber(final long cursor)
+        {
+            return sequenceNumbers[slot(cursor)];
+        }
+
+        Action replay(final long cursor, final ControlledFragmentHandler handler)
+        {
+            final int slot = slot(cursor);
+            return handler.onFragment(messages[slot], 0, lengths[slot], null);
+        }
+
+        // Is the cached message at the cursor before the given sequence index and number?
+        private boolean isBefore(final int sequenceIndex, final int sequenceNumber, final long cursor)
+        {
+            final int slot = slot(cursor);
+            final int cachedSequenceIndex = sequenceIndices[slot];
+            return cachedSequenceIndex < sequenceIndex ||
+                (cachedSequenceIndex == sequenceIndex && sequenceNumbers[slot] < sequenceNumber);
+        }
+
+        private int slot(final long cursor)
+        {
+            return (int)(cursor % cacheSize);
+        }
+    }
+}
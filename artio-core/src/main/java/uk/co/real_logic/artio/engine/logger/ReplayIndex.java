@@ -17,12 +17,14 @@ package uk.co.real_logic.artio.engine.logger;
 
 import io.aeron.logbuffer.Header;
 import org.agrona.BitUtil;
+import org.agrona.CloseHelper;
 import org.agrona.DirectBuffer;
 import org.agrona.ErrorHandler;
 import org.agrona.IoUtil;
 import org.agrona.collections.Long2ObjectCache;
 import org.agrona.concurrent.AtomicBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
 import uk.co.real_logic.artio.decoder.HeaderDecoder;
 import uk.co.real_logic.artio.messages.FixMessageDecoder;
 import uk.co.real_logic.artio.messages.FixMessageEncoder;
@@ -52,10 +54,14 @@ import static uk.co.real_logic.artio.messages.MessageStatus.OK;
  * Head position counter
  * Tail position counter
  * Multiple ReplayIndexRecord entries
+ *
+ * Each session's buffer is either its own file or, if a slab count is configured, a slab within
+ * {@link ReplayIndexSlabs}. Once all of the slabs have been allocated further sessions are given their own file. If the cold tier is enabled then records are appended to a {@link ColdReplayIndex}, a
+ * block at a time, before they're overwritten.
  */
 public class ReplayIndex implements Index
 {
-    private final LongFunction<SessionIndex> newSessionIndex = SessionIndex::new;
+    private final LongFunction<SessionIndex> newSessionIndex = this::newSessionIndex;
     private final AsciiBuffer asciiBuffer = new MutableAsciiBuffer();
     private final MessageHeaderDecoder frameHeaderDecoder = new MessageHeaderDecoder();
     private final FixMessageDecoder messageFrame = new FixMessageDecoder();
@@ -73,6 +79,38 @@ public class ReplayIndex implements Index
     private final BufferFactory bufferFactory;
     private final AtomicBuffer positionBuffer;
     private final RecordingIdLookup recordingIdLookup;
+    private final ReplayIndexSlabs slabs;
+    private final boolean coldTier;
+
+    public ReplayIndex(
+        final String logFileDir,
+        final int requiredStreamId,
+        final int indexFileSize,
+        final int cacheNumSets,
+        final int cacheSetSize,
+        final BufferFactory bufferFactory,
+        final AtomicBuffer positionBuffer,
+        final ErrorHandler errorHandler,
+        final RecordingIdLookup recordingIdLookup,
+        final int slabCount,
+        final boolean coldTier)
+    {
+        this(
+            logFileDir,
+            requiredStreamId,
+            indexFileSize,
+            cacheNumSets,
+            cacheSetSize,
+            bufferFactory,
+            positionBuffer,
+            errorHandler,
+            recordingIdLookup,
+            slabCount,
+            coldTier,
+            bufferFactory,
+            null,
+            null);
+    }
 
     public ReplayIndex(
         final String logFileDir,
@@ -83,7 +121,12 @@ public class ReplayIndex implements Index
         final BufferFactory bufferFactory,
         final AtomicBuffer positionBuffer,
         final ErrorHandler errorHandler,
-        final RecordingIdLookup recordingIdLookup)
+        final RecordingIdLookup recordingIdLookup,
+        final int slabCount,
+        final boolean coldTier,
+        final BufferFactory slabBufferFactory,
+        final AtomicCounter slabsUsedBytes,
+        final AtomicCounter slabsCapacity)
     {
         this.logFileDir = logFileDir;
         this.requiredStreamId = requiredStreamId;
@@ -91,8 +134,17 @@ public class ReplayIndex implements Index
         this.bufferFactory = bufferFactory;
         this.positionBuffer = positionBuffer;
         this.recordingIdLookup = recordingIdLookup;
+        this.coldTier = coldTier;
 
         checkIndexFileSize(indexFileSize);
+        slabs = slabCount > 0 ? new ReplayIndexSlabs(
+            logFileDir, requiredStreamId, indexFileSize, slabCount, slabBufferFactory, slabsUsedBytes, slabsCapacity) :
+            null;
+        if (slabs != null)
+        {
+            slabs.createDirectory();
+            slabs.updateFileCounters();
+        }
         fixSessionIdToIndex = new Long2ObjectCache<>(cacheNumSets, cacheSetSize, SessionIndex::close);
         final String replayPositionPath = replayPositionPath(logFileDir, requiredStreamId);
         positionWriter = new IndexedPositionWriter(
@@ -149,17 +201,14 @@ public class ReplayIndex implements Index
                         continuedSequenceIndex = sequenceIndex;
                     }
 
-                    fixSessionIdToIndex
-                        .computeIfAbsent(fixSessionId, newSessionIndex)
-                        .onRecord(endPosition, length, sequenceNumber, sequenceIndex, header);
+                    onRecord(fixSessionId, endPosition, length, sequenceNumber, sequenceIndex, header);
                 }
             }
         }
         else
         {
-            fixSessionIdToIndex
-                .computeIfAbsent(continuedFixSessionId, newSessionIndex)
-                .onRecord(endPosition, length, continuedSequenceNumber, continuedSequenceIndex, header);
+            onRecord(
+                continuedFixSessionId, endPosition, length, continuedSequenceNumber, continuedSequenceIndex, header);
         }
 
         final int aeronSessionId = header.sessionId();
@@ -168,10 +217,29 @@ public class ReplayIndex implements Index
         positionWriter.updateChecksums();
     }
 
+    private void onRecord(
+        final long fixSessionId,
+        final long endPosition,
+        final int length,
+        final int sequenceNumber,
+        final int sequenceIndex,
+        final Header header)
+    {
+        final SessionIndex sessionIndex = fixSessionIdToIndex.computeIfAbsent(fixSessionId, newSessionIndex);
+        if (sessionIndex != null)
+        {
+            sessionIndex.onRecord(endPosition, length, sequenceNumber, sequenceIndex, header);
+        }
+    }
+
     public void close()
     {
         positionWriter.close();
         fixSessionIdToIndex.clear();
+        if (slabs != null)
+        {
+            slabs.close();
+        }
         IoUtil.unmap(positionBuffer.byteBuffer());
     }
 
@@ -180,20 +248,59 @@ public class ReplayIndex implements Index
         positionReader.readLastPosition(consumer);
     }
 
+    private SessionIndex newSessionIndex(final long fixSessionId)
+    {
+        if (slabs == null)
+        {
+            return newSessionFileIndex(fixSessionId);
+        }
+
+        final int existingSlab = slabs.findSlab(fixSessionId);
+        if (existingSlab != ReplayIndexSlabs.NO_SLAB)
+        {
+            return new SessionIndex(fixSessionId, null, slabs.slabBuffer(existingSlab), true);
+        }
+
+        final int slab = slabs.nextSlab();
+        if (slab == ReplayIndexSlabs.NO_SLAB)
+        {
+            // Slabs are never freed, so the session keeps its own file.
+            return newSessionFileIndex(fixSessionId);
+        }
+
+        final SessionIndex sessionIndex = new SessionIndex(fixSessionId, null, slabs.slabBuffer(slab), false);
+        slabs.publish(fixSessionId, slab);
+        return sessionIndex;
+    }
+
+    private SessionIndex newSessionFileIndex(final long fixSessionId)
+    {
+        final File logFile = replayIndexFile(logFileDir, fixSessionId, requiredStreamId);
+        final boolean exists = logFile.exists();
+        final ByteBuffer wrappedBuffer = bufferFactory.map(logFile, indexFileSize);
+        return new SessionIndex(fixSessionId, wrappedBuffer, new UnsafeBuffer(wrappedBuffer), exists);
+    }
+
     private final class SessionIndex implements AutoCloseable
     {
+        // null when the buffer is a slab, which is unmapped with the slabs
         private final ByteBuffer wrappedBuffer;
         private final AtomicBuffer buffer;
         private final int recordCapacity;
+        private final long fixSessionId;
+        private final int evictionLength;
+
+        private ColdReplayIndex coldIndex;
 
-        SessionIndex(final long fixSessionId)
+        SessionIndex(
+            final long fixSessionId, final ByteBuffer wrappedBuffer, final AtomicBuffer buffer, final boolean exists)
         {
-            final File logFile = replayIndexFile(logFileDir, fixSessionId, requiredStreamId);
-            final boolean exists = logFile.exists();
-            this.wrappedBuffer = bufferFactory.map(logFile, indexFileSize);
-            this.buffer = new UnsafeBuffer(wrappedBuffer);
+            this.fixSessionId = fixSessionId;
+            this.wrappedBuffer = wrappedBuffer;
+            this.buffer = buffer;
 
             recordCapacity = recordCapacity(buffer.capacity());
+            evictionLength = Math.min(ColdReplayIndex.BLOCK_LENGTH, recordCapacity);
             if (!exists)
             {
                 indexHeaderEncoder
@@ -224,6 +331,12 @@ public class ReplayIndex implements Index
             final long recordingId = recordingIdLookup.getRecordingId(aeronSessionId);
             final long beginPosition = endPosition - length;
 
+            if (coldTier && beginChangePosition >= recordCapacity &&
+                ((int)beginChangePosition & (evictionLength - 1)) == 0)
+            {
+                evict(beginChangePosition);
+            }
+
             beginChangeOrdered(buffer, changePosition);
             UNSAFE.storeFence();
 
@@ -240,8 +353,23 @@ public class ReplayIndex implements Index
             endChangeOrdered(buffer, changePosition);
         }
 
+        // Appends a block of the oldest records to the cold tier before the writer starts to overwrite them.
+        private void evict(final long beginChangePosition)
+        {
+            if (coldIndex == null)
+            {
+                coldIndex = ColdReplayIndex.openForWriting(
+                    replayIndexColdFile(logFileDir, fixSessionId, requiredStreamId),
+                    replayIndexRecord.sbeBlockLength(),
+                    replayIndexRecord.sbeSchemaVersion());
+            }
+
+            coldIndex.append(buffer, offset(beginChangePosition, recordCapacity), evictionLength);
+        }
+
         public void close()
         {
+            CloseHelper.close(coldIndex);
             IoUtil.unmap(wrappedBuffer);
         }
     }
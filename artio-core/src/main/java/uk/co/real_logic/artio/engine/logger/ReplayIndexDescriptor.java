@@ -33,6 +33,12 @@ public final class ReplayIndexDescriptor
     public static final int INITIAL_RECORD_OFFSET = END_CHANGE_OFFSET + BitUtil.SIZE_OF_LONG;
 
     static final int RECORD_LENGTH = 32;
+
+    // Slab layout: a directory of a count followed by session ids, each session's slab is at its directory index.
+    static final int DIRECTORY_COUNT_OFFSET = 0;
+    static final int DIRECTORY_HEADER_LENGTH = BitUtil.SIZE_OF_LONG;
+    private static final long MAX_SLAB_FILE_SIZE = 1024 * 1024 * 1024;
+
     static
     {
         // Safety check against making the ReplayIndexRecord big without modifying this
@@ -47,6 +53,37 @@ public final class ReplayIndexDescriptor
         return new File(String.format(logFileDir + File.separator + "replay-index-%d-%d", fixSessionId, streamId));
     }
 
+    static File replayIndexColdFile(final String logFileDir, final long fixSessionId, final int streamId)
+    {
+        return new File(String.format(
+            logFileDir + File.separator + "replay-index-cold-%d-%d", fixSessionId, streamId));
+    }
+
+    static File replayIndexDirectoryFile(final String logFileDir, final int streamId)
+    {
+        return new File(String.format(logFileDir + File.separator + "replay-index-directory-%d", streamId));
+    }
+
+    static File replayIndexSlabFile(final String logFileDir, final int streamId, final int fileIndex)
+    {
+        return new File(String.format(logFileDir + File.separator + "replay-index-slabs-%d-%d", streamId, fileIndex));
+    }
+
+    static int directoryFileSize(final int slabCount)
+    {
+        return DIRECTORY_HEADER_LENGTH + slabCount * BitUtil.SIZE_OF_LONG;
+    }
+
+    static int directoryEntryOffset(final int slab)
+    {
+        return DIRECTORY_HEADER_LENGTH + slab * BitUtil.SIZE_OF_LONG;
+    }
+
+    static int slabsPerFile(final int indexFileSize, final int slabCount)
+    {
+        return (int)Math.max(1, Math.min(slabCount, MAX_SLAB_FILE_SIZE / indexFileSize));
+    }
+
     public static UnsafeBuffer replayPositionBuffer(final String logFileDir, final int streamId)
     {
         final String pathname = replayPositionPath(logFileDir, streamId);
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2015-2019 Real Logic Ltd, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.IoUtil;
+import org.agrona.collections.Long2LongHashMap;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor.*;
+
+/**
+ * Lays out the replay index rings of all of a stream's sessions as fixed size slabs within a few large files, so
+ * that the number of files and mappings doesn't grow with the number of sessions.
+ *
+ * A directory file maps session ids to slabs in the order that the slabs were allocated, and each slab has the same
+ * layout as a per session replay index file. The writer creates the directory when it starts, and each slab file
+ * when its first slab is allocated. Slab files are created sparse, so that creating one doesn't write the whole file
+ * on the indexing thread. Readers map the files as they're first needed and don't find any slabs until the writer has
+ * created the directory.
+ *
+ * Single writer, multiple readers: the writer initialises a slab before publishing its directory entry.
+ */
+final class ReplayIndexSlabs implements AutoCloseable
+{
+    static final int NO_SLAB = -1;
+
+    private final Long2LongHashMap sessionIdToSlab = new Long2LongHashMap(NO_SLAB);
+    private final List<ByteBuffer> slabFiles = new ArrayList<>();
+    private final File directoryFile;
+    private final String logFileDir;
+    private final int streamId;
+    private final int indexFileSize;
+    private final int slabCount;
+    private final int slabsPerFile;
+    private final BufferFactory bufferFactory;
+    // The metrics are null if they aren't recorded
+    private final AtomicCounter usedBytes;
+    private final AtomicCounter capacity;
+
+    private ByteBuffer directoryBuffer;
+    private AtomicBuffer directory;
+    private int knownSlabs;
+
+    ReplayIndexSlabs(
+        final String logFileDir,
+        final int streamId,
+        final int indexFileSize,
+        final int slabCount,
+        final BufferFactory bufferFactory,
+        final AtomicCounter usedBytes,
+        final AtomicCounter capacity)
+    {
+        directoryFile = replayIndexDirectoryFile(logFileDir, streamId);
+        this.logFileDir = logFileDir;
+        this.streamId = streamId;
+        this.indexFileSize = indexFileSize;
+        this.slabCount = slabCount;
+        this.bufferFactory = bufferFactory;
+        this.usedBytes = usedBytes;
+        this.capacity = capacity;
+        slabsPerFile = slabsPerFile(indexFileSize, slabCount);
+    }
+
+    // Returns the slab allocated to the session, or NO_SLAB if it hasn't got one.
+    int findSlab(final long sessionId)
+    {
+        final int slab = (int)sessionIdToSlab.get(sessionId);
+        if (slab != NO_SLAB)
+        {
+            return slab;
+        }
+
+        return readNewSlabs(sessionId);
+    }
+
+    // Writer only: returns the next slab to be allocated, or NO_SLAB if they have all been allocated.
+    int nextSlab()
+    {
+        readNewSlabs(NO_SLAB);
+        return knownSlabs < slabCount ? knownSlabs : NO_SLAB;
+    }
+
+    // Writer only: creates the directory up front, so that readers can tell that there are no slabs yet.
+    void createDirectory()
+    {
+        mapDirectory();
+    }
+
+    // Writer only: the slab must have been initialised before it's published.
+    void publish(final long sessionId, final int slab)
+    {
+        final AtomicBuffer directory = mapDirectory();
+        directory.putLong(directoryEntryOffset(slab), sessionId);
+        directory.putIntOrdered(DIRECTORY_COUNT_OFFSET, slab + 1);
+        sessionIdToSlab.put(sessionId, slab);
+        knownSlabs = slab + 1;
+        updateFileCounters();
+    }
+
+    // Writer only: a slab's ring overwrites its oldest records, so the slabs fill up as sessions are allocated them.
+    void updateFileCounters()
+    {
+        if (usedBytes != null)
+        {
+            readNewSlabs(NO_SLAB);
+            usedBytes.setOrdered((long)knownSlabs * indexFileSize);
+            capacity.setOrdered((long)slabCount * indexFileSize);
+        }
+    }
+
+    AtomicBuffer slabBuffer(final int slab)
+    {
+        final int fileIndex = slab / slabsPerFile;
+        while (slabFiles.size() <= fileIndex)
+        {
+            slabFiles.add(bufferFactory.map(
+                replayIndexSlabFile(logFileDir, streamId, slabFiles.size()), slabsPerFile * indexFileSize));
+        }
+
+        return new UnsafeBuffer(slabFiles.get(fileIndex), (slab % slabsPerFile) * indexFileSize, indexFileSize);
+    }
+
+    private int readNewSlabs(final long sessionId)
+    {
+        // Readers can't map the directory until the writer has created it.
+        if (directory == null && !directoryFile.exists())
+        {
+            return NO_SLAB;
+        }
+
+        final AtomicBuffer directory = mapDirectory();
+        final int count = directory.getIntVolatile(DIRECTORY_COUNT_OFFSET);
+        int slab = NO_SLAB;
+        for (int i = knownSlabs; i < count; i++)
+        {
+            final long slabSessionId = directory.getLong(directoryEntryOffset(i));
+            sessionIdToSlab.put(slabSessionId, i);
+            if (slabSessionId == sessionId)
+            {
+                slab = i;
+            }
+        }
+        knownSlabs = Math.max(knownSlabs, count);
+
+        return slab;
+    }
+
+    private AtomicBuffer mapDirectory()
+    {
+        if (directory == null)
+        {
+            directoryBuffer = bufferFactory.map(directoryFile, directoryFileSize(slabCount));
+            directory = new UnsafeBuffer(directoryBuffer);
+        }
+
+        return directory;
+    }
+
+    public void close()
+    {
+        IoUtil.unmap(directoryBuffer);
+        slabFiles.forEach(IoUtil::unmap);
+        slabFiles.clear();
+    }
+}
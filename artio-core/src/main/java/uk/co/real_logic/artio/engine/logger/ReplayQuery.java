@@ -22,6 +22,7 @@ import org.agrona.CloseHelper;
 import org.agrona.ErrorHandler;
 import org.agrona.IoUtil;
 import org.agrona.collections.Long2ObjectCache;
+import org.agrona.concurrent.AtomicBuffer;
 import org.agrona.concurrent.IdleStrategy;
 import org.agrona.concurrent.UnsafeBuffer;
 import uk.co.real_logic.artio.DebugLogger;
@@ -29,6 +30,7 @@ import uk.co.real_logic.artio.LogTag;
 import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
 import uk.co.real_logic.artio.storage.messages.ReplayIndexRecordDecoder;
 
+import java.io.File;
 import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
 import java.util.ArrayList;
@@ -45,13 +47,16 @@ import static uk.co.real_logic.artio.engine.logger.Replayer.MOST_RECENT_MESSAGE;
  * Queries an index of a composite key of session id and sequence number.
  *
  * This object isn't thread-safe, but the underlying replay index is a single-writer, multiple-reader threadsafe index.
+ * If a slab count is configured then the index is read from {@link ReplayIndexSlabs} rather than per session files.
+ * If the cold tier is enabled then records that have been evicted from the index are read from its
+ * {@link ColdReplayIndex}.
  */
 public class ReplayQuery implements AutoCloseable
 {
     private final MessageHeaderDecoder messageFrameHeader = new MessageHeaderDecoder();
     private final ReplayIndexRecordDecoder indexRecord = new ReplayIndexRecordDecoder();
 
-    private final LongFunction<SessionQuery> newSessionQuery = SessionQuery::new;
+    private final LongFunction<SessionQuery> newSessionQuery = this::newSessionQuery;
     private final Long2ObjectCache<SessionQuery> fixSessionToIndex;
     private final String logFileDir;
     private final ExistingBufferFactory indexBufferFactory;
@@ -60,6 +65,9 @@ public class ReplayQuery implements AutoCloseable
     private final AeronArchive aeronArchive;
     private final ErrorHandler errorHandler;
     private final int archiveReplayStream;
+    private final boolean binarySearch;
+    private final ReplayIndexSlabs slabs;
+    private final boolean coldTier;
 
     private Subscription replaySubscription;
 
@@ -72,7 +80,11 @@ public class ReplayQuery implements AutoCloseable
         final IdleStrategy idleStrategy,
         final AeronArchive aeronArchive,
         final ErrorHandler errorHandler,
-        final int archiveReplayStream)
+        final int archiveReplayStream,
+        final boolean binarySearch,
+        final int indexFileSize,
+        final int slabCount,
+        final boolean coldTier)
     {
         this.logFileDir = logFileDir;
         this.indexBufferFactory = indexBufferFactory;
@@ -81,7 +93,13 @@ public class ReplayQuery implements AutoCloseable
         this.aeronArchive = aeronArchive;
         this.errorHandler = errorHandler;
         this.archiveReplayStream = archiveReplayStream;
+        this.binarySearch = binarySearch;
+        this.coldTier = coldTier;
 
+        slabs = slabCount > 0 ? new ReplayIndexSlabs(
+            logFileDir, requiredStreamId, indexFileSize, slabCount, (file, size) -> indexBufferFactory.map(file),
+            null, null) :
+            null;
         fixSessionToIndex = new Long2ObjectCache<>(cacheNumSets, cacheSetSize, SessionQuery::close);
     }
 
@@ -105,29 +123,91 @@ public class ReplayQuery implements AutoCloseable
         final int endSequenceIndex,
         final LogTag logTag)
     {
-        return fixSessionToIndex
-            .computeIfAbsent(sessionId, newSessionQuery)
-            .query(handler, beginSequenceNumber, beginSequenceIndex, endSequenceNumber, endSequenceIndex, logTag);
+        final SessionQuery sessionQuery = fixSessionToIndex.computeIfAbsent(sessionId, newSessionQuery);
+        if (sessionQuery == null)
+        {
+            // Nothing has been indexed for this session.
+            return newReplayOperation(handler, new ArrayList<>(), logTag);
+        }
+
+        return sessionQuery.query(
+            handler, beginSequenceNumber, beginSequenceIndex, endSequenceNumber, endSequenceIndex, logTag);
+    }
+
+    private SessionQuery newSessionQuery(final long sessionId)
+    {
+        if (slabs == null)
+        {
+            return newSessionFileQuery(replayIndexFile(logFileDir, sessionId, requiredStreamId), sessionId);
+        }
+
+        final int slab = slabs.findSlab(sessionId);
+        if (slab == ReplayIndexSlabs.NO_SLAB)
+        {
+            // Sessions that didn't get a slab, because they were all allocated, have their own file.
+            final File logFile = replayIndexFile(logFileDir, sessionId, requiredStreamId);
+            return logFile.exists() ? newSessionFileQuery(logFile, sessionId) : null;
+        }
+
+        return new SessionQuery(sessionId, null, slabs.slabBuffer(slab));
+    }
+
+    private SessionQuery newSessionFileQuery(final File logFile, final long sessionId)
+    {
+        final ByteBuffer wrappedBuffer = indexBufferFactory.map(logFile);
+        return new SessionQuery(sessionId, wrappedBuffer, new UnsafeBuffer(wrappedBuffer));
+    }
+
+    private ReplayOperation newReplayOperation(
+        final ControlledFragmentHandler handler, final List<RecordingRange> ranges, final LogTag logTag)
+    {
+        if (replaySubscription == null)
+        {
+            replaySubscription = aeronArchive.context().aeron().addSubscription(
+                IPC_CHANNEL, archiveReplayStream);
+        }
+
+        DebugLogger.log(logTag,
+            "ReplayQuery : Built new replay operation with Recording Ranges: %s%n",
+            ranges);
+
+        return new ReplayOperation(
+            handler,
+            ranges,
+            aeronArchive,
+            errorHandler,
+            replaySubscription,
+            archiveReplayStream,
+            logTag);
     }
 
     public void close()
     {
         fixSessionToIndex.clear();
+        if (slabs != null)
+        {
+            slabs.close();
+        }
 
         CloseHelper.close(replaySubscription);
     }
 
     private final class SessionQuery implements AutoCloseable
     {
+        // null when the buffer is a slab, which is unmapped with the slabs
         private final ByteBuffer wrappedBuffer;
         private final long sessionId;
-        private final UnsafeBuffer buffer;
+        private final AtomicBuffer buffer;
         private final int capacity;
 
-        SessionQuery(final long sessionId)
+        private ColdReplayIndex coldIndex;
+        private long lastColdRecordingId;
+        private long lastColdPosition;
+
+        SessionQuery(final long sessionId, final ByteBuffer wrappedBuffer, final AtomicBuffer buffer)
         {
-            wrappedBuffer = indexBufferFactory.map(replayIndexFile(logFileDir, sessionId, requiredStreamId));
-            buffer = new UnsafeBuffer(wrappedBuffer);
+            this.wrappedBuffer = wrappedBuffer;
+            this.buffer = buffer;
             capacity = recordCapacity(buffer.capacity());
             this.sessionId = sessionId;
         }
@@ -151,8 +231,28 @@ public class ReplayQuery implements AutoCloseable
             final List<RecordingRange> ranges = new ArrayList<>();
             RecordingRange currentRange = null;
 
+            lastColdRecordingId = ColdReplayIndex.NO_RECORD;
+            lastColdPosition = ColdReplayIndex.NO_RECORD;
+            if (coldTier)
+            {
+                queryColdTier(
+                    ranges,
+                    beginSequenceNumber,
+                    beginSequenceIndex,
+                    endSequenceNumber,
+                    endSequenceIndex,
+                    upToMostRecentMessage,
+                    actingBlockLength,
+                    actingVersion);
+            }
+
             long iteratorPosition = getIteratorPosition();
             long stopIteratingPosition = iteratorPosition + capacity;
+            if (binarySearch)
+            {
+                iteratorPosition = searchForStart(
+                    iteratorPosition, beginSequenceNumber, beginSequenceIndex, actingBlockLength, actingVersion);
+            }
 
             int lastSequenceNumber = -1;
             while (iteratorPosition != stopIteratingPosition)
@@ -192,15 +292,18 @@ public class ReplayQuery implements AutoCloseable
                         (sequenceIndex == beginSequenceIndex && sequenceNumber >= beginSequenceNumber);
                     if (withinQueryRange)
                     {
-                        currentRange = addRange(
-                            ranges,
-                            currentRange,
-                            lastSequenceNumber,
-                            beginPosition,
-                            sequenceNumber,
-                            recordingId,
-                            readLength);
-                        lastSequenceNumber = sequenceNumber;
+                        if (isAfterColdTier(recordingId, beginPosition))
+                        {
+                            currentRange = addRange(
+                                ranges,
+                                currentRange,
+                                lastSequenceNumber,
+                                beginPosition,
+                                sequenceNumber,
+                                recordingId,
+                                readLength);
+                            lastSequenceNumber = sequenceNumber;
+                        }
                         iteratorPosition += RECORD_LENGTH;
                     }
                     else // before start of query
@@ -222,6 +325,148 @@ public class ReplayQuery implements AutoCloseable
             return newReplayOperation(handler, ranges, logTag);
         }
 
+        // Adds the ranges of records in the query that have been evicted to the cold tier.
+        private void queryColdTier(
+            final List<RecordingRange> ranges,
+            final int beginSequenceNumber,
+            final int beginSequenceIndex,
+            final int endSequenceNumber,
+            final int endSequenceIndex,
+            final boolean upToMostRecentMessage,
+            final int actingBlockLength,
+            final int actingVersion)
+        {
+            if (coldIndex == null)
+            {
+                coldIndex = ColdReplayIndex.openForReading(
+                    replayIndexColdFile(logFileDir, sessionId, requiredStreamId), actingBlockLength, actingVersion);
+                if (coldIndex == null)
+                {
+                    return;
+                }
+            }
+
+            final long recordCount = coldIndex.recordCount();
+            if (recordCount == 0)
+            {
+                return;
+            }
+
+            // Records in the ring up to the last record of the cold tier are skipped as they've already been read.
+            final ReplayIndexRecordDecoder lastRecord = coldIndex.record(recordCount - 1);
+            lastColdRecordingId = lastRecord.recordingId();
+            lastColdPosition = lastRecord.position();
+
+            // Sequence numbers can go backwards within a sequence index, so only binary search if that's been ruled out.
+            final long startRecord = binarySearch ?
+                coldIndex.search(recordCount, beginSequenceNumber, beginSequenceIndex) : 0;
+            RecordingRange currentRange = null;
+            int lastSequenceNumber = -1;
+            for (long i = startRecord; i < recordCount; i++)
+            {
+                final ReplayIndexRecordDecoder record = coldIndex.record(i);
+                final int sequenceIndex = record.sequenceIndex();
+                final int sequenceNumber = record.sequenceNumber();
+                final boolean afterEnd = !upToMostRecentMessage && (sequenceIndex > endSequenceIndex ||
+                    (sequenceIndex == endSequenceIndex && sequenceNumber > endSequenceNumber));
+                if (afterEnd)
+                {
+                    break;
+                }
+
+                final boolean withinQueryRange = sequenceIndex > beginSequenceIndex ||
+                    (sequenceIndex == beginSequenceIndex && sequenceNumber >= beginSequenceNumber);
+                if (!withinQueryRange)
+                {
+                    continue;
+                }
+
+                currentRange = addRange(
+                    ranges,
+                    currentRange,
+                    lastSequenceNumber,
+                    record.position(),
+                    sequenceNumber,
+                    record.recordingId(),
+                    record.length());
+                lastSequenceNumber = sequenceNumber;
+            }
+
+            if (currentRange != null)
+            {
+                ranges.add(currentRange);
+            }
+        }
+
+        private boolean isAfterColdTier(final long recordingId, final long beginPosition)
+        {
+            return recordingId > lastColdRecordingId ||
+                (recordingId == lastColdRecordingId && beginPosition > lastColdPosition);
+        }
+
+        // Finds the position of the first record at or after the start of the query, assuming that records are in
+        // (sequenceIndex, sequenceNumber) order. Records that the writer overwrites during the search only have later
+        // keys, so they can move the result earlier but never later, and the scan from it skips any earlier records.
+        private long searchForStart(
+            final long iteratorPosition,
+            final int beginSequenceNumber,
+            final int beginSequenceIndex,
+            final int actingBlockLength,
+            final int actingVersion)
+        {
+            // Before the index has wrapped iterator positions are the positions that records were written at,
+            // afterwards they are offset by a capacity.
+            final long writtenPositionOffset = iteratorPosition < capacity ? 0 : capacity;
+
+            long low = iteratorPosition;
+            long high = Math.min(iteratorPosition + capacity, endChangeVolatile(buffer) + writtenPositionOffset);
+            while (low < high)
+            {
+                final long middle = low + (((high - low) / RECORD_LENGTH) >> 1) * RECORD_LENGTH;
+                if (isBeforeStart(middle, beginSequenceNumber, beginSequenceIndex, actingBlockLength, actingVersion))
+                {
+                    low = middle + RECORD_LENGTH;
+                }
+                else
+                {
+                    high = middle;
+                }
+            }
+
+            return low;
+        }
+
+        private boolean isBeforeStart(
+            final long iteratorPosition,
+            final int beginSequenceNumber,
+            final int beginSequenceIndex,
+            final int actingBlockLength,
+            final int actingVersion)
+        {
+            final int offset = offset(iteratorPosition, capacity);
+            while (true)
+            {
+                final long changePosition = endChangeVolatile(buffer);
+
+                indexRecord.wrap(buffer, offset, actingBlockLength, actingVersion);
+                final int sequenceIndex = indexRecord.sequenceIndex();
+                final int sequenceNumber = indexRecord.sequenceNumber();
+
+                UNSAFE.loadFence(); // LoadLoad required so previous loads don't move past version check below.
+
+                // if the block was read atomically with no updates
+                if (changePosition == beginChangeVolatile(buffer))
+                {
+                    idleStrategy.reset();
+
+                    return sequenceIndex < beginSequenceIndex ||
+                        (sequenceIndex == beginSequenceIndex && sequenceNumber < beginSequenceNumber);
+                }
+
+                idleStrategy.idle();
+            }
+        }
+
         private long skipToStart(final int beginSequenceNumber, final long iteratorPosition, final int sequenceNumber)
         {
             if (sequenceNumber < beginSequenceNumber)
@@ -243,29 +488,6 @@ public class ReplayQuery implements AutoCloseable
             return iteratorPosition + sequenceNumberJump * RECORD_LENGTH;
         }
 
-        private ReplayOperation newReplayOperation(
-            final ControlledFragmentHandler handler, final List<RecordingRange> ranges, final LogTag logTag)
-        {
-            if (replaySubscription == null)
-            {
-                replaySubscription = aeronArchive.context().aeron().addSubscription(
-                    IPC_CHANNEL, archiveReplayStream);
-            }
-
-            DebugLogger.log(logTag,
-                "ReplayQuery : Built new replay operation with Recording Ranges: %s%n",
-                ranges);
-
-            return new ReplayOperation(
-                handler,
-                ranges,
-                aeronArchive,
-                errorHandler,
-                replaySubscription,
-                archiveReplayStream,
-                logTag);
-        }
-
         private RecordingRange addRange(
             final List<RecordingRange> ranges,
             final RecordingRange currentRange,
@@ -312,6 +534,7 @@ public class ReplayQuery implements AutoCloseable
 
         public void close()
         {
+            CloseHelper.close(coldIndex);
             if (wrappedBuffer instanceof MappedByteBuffer)
             {
                 IoUtil.unmap((MappedByteBuffer)wrappedBuffer);
@@ -54,6 +54,9 @@ import static uk.co.real_logic.artio.messages.MessageStatus.OK;
  * This agent subscribes to the stream of incoming fix data messages. It parses
  * Resend Request messages and searches the log, using the replay index to find
  * relevant messages to resend.
+ *
+ * If a replay cache is configured then it also subscribes to the stream of outbound
+ * messages and replays resend requests for recently sent messages from memory.
  */
 public class Replayer implements ProtocolHandler, Agent
 {
@@ -62,6 +65,7 @@ public class Replayer implements ProtocolHandler, Agent
     static final int SIZE_OF_LENGTH_FIELD = 2;
     static final int MOST_RECENT_MESSAGE = 0;
     private static final int POLL_LIMIT = 10;
+    private static final int REPLAY_CACHE_POLL_LIMIT = 100;
 
     private final ResendRequestDecoder resendRequest = new ResendRequestDecoder();
 
@@ -82,6 +86,8 @@ public class Replayer implements ProtocolHandler, Agent
     private final EpochClock clock;
     private final ReplayHandler replayHandler;
     private final SenderSequenceNumbers senderSequenceNumbers;
+    private final Subscription replayCacheSubscription;
+    private final ReplayCache replayCache;
 
     public Replayer(
         final ReplayQuery replayQuery,
@@ -95,7 +101,9 @@ public class Replayer implements ProtocolHandler, Agent
         final EpochClock clock,
         final Set<String> gapfillOnReplayMessageTypes,
         final ReplayHandler replayHandler,
-        final SenderSequenceNumbers senderSequenceNumbers)
+        final SenderSequenceNumbers senderSequenceNumbers,
+        final Subscription replayCacheSubscription,
+        final int replayCacheSize)
     {
         this.replayQuery = replayQuery;
         this.publication = publication;
@@ -108,6 +116,8 @@ public class Replayer implements ProtocolHandler, Agent
         this.clock = clock;
         this.replayHandler = replayHandler;
         this.senderSequenceNumbers = senderSequenceNumbers;
+        this.replayCacheSubscription = replayCacheSubscription;
+        replayCache = replayCacheSize > 0 ? new ReplayCache(replayCacheSize) : null;
 
         gapFillMessageTypes = new IntHashSet();
         gapfillOnReplayMessageTypes.forEach(messageTypeAsString ->
@@ -174,6 +184,7 @@ public class Replayer implements ProtocolHandler, Agent
                 sessionId,
                 sequenceIndex,
                 replayQuery,
+                replayCache,
                 message,
                 errorHandler,
                 resendRequest.header());
@@ -196,6 +207,11 @@ public class Replayer implements ProtocolHandler, Agent
     public int doWork()
     {
         int work = senderSequenceNumbers.poll();
+        // Cache sent messages before polling for resend requests, so that requests for them can be served from it.
+        if (replayCache != null)
+        {
+            work += replayCacheSubscription.poll(replayCache, REPLAY_CACHE_POLL_LIMIT);
+        }
         work += pollReplayerSessions();
         return work + subscription.controlledPoll(protocolSubscription, POLL_LIMIT);
     }
@@ -76,6 +76,7 @@ class ReplayerSession implements ControlledFragmentHandler
     private final SenderSequenceNumbers senderSequenceNumbers;
     private final ExclusivePublication publication;
     private final ReplayQuery replayQuery;
+    private final ReplayCache replayCache;
     private final ErrorHandler errorHandler;
 
     private int beginSeqNo;
@@ -90,6 +91,12 @@ class ReplayerSession implements ControlledFragmentHandler
 
     private ReplayOperation replayOperation;
 
+    // Set whilst replaying from the replay cache rather than the archive
+    private ReplayCache.SessionCache sessionCache;
+    private long cacheCursor;
+    private int cacheEndSeqNo;
+    private int cacheReplayedMessages;
+
     private State state;
 
     ReplayerSession(
@@ -108,6 +115,7 @@ class ReplayerSession implements ControlledFragmentHandler
         final long sessionId,
         final int sequenceIndex,
         final ReplayQuery replayQuery,
+        final ReplayCache replayCache,
         final String message,
         final ErrorHandler errorHandler,
         final HeaderDecoder requestHeader)
@@ -128,6 +136,7 @@ class ReplayerSession implements ControlledFragmentHandler
         this.message = message;
         this.errorHandler = errorHandler;
         this.replayQuery = replayQuery;
+        this.replayCache = replayCache;
 
         lastSeqNo = beginSeqNo - 1;
 
@@ -166,6 +175,14 @@ class ReplayerSession implements ControlledFragmentHandler
     }
 
     void query()
+    {
+        if (replayCache == null || !queryCache())
+        {
+            queryArchive(beginSeqNo);
+        }
+    }
+
+    private void queryArchive(final int beginSeqNo)
     {
         replayOperation = replayQuery.query(
             this,
@@ -177,6 +194,82 @@ class ReplayerSession implements ControlledFragmentHandler
             LogTag.CATCHUP);
     }
 
+    private boolean queryCache()
+    {
+        final ReplayCache.SessionCache sessionCache = replayCache.sessionCache(sessionId);
+        if (sessionCache == null)
+        {
+            return false;
+        }
+
+        final int cacheEndSeqNo;
+        if (upToMostRecent)
+        {
+            cacheEndSeqNo = senderSequenceNumbers.lastSentSequenceNumber(connectionId);
+            if (cacheEndSeqNo == SenderSequenceNumbers.UNKNOWN_SESSION)
+            {
+                return false;
+            }
+        }
+        else
+        {
+            cacheEndSeqNo = endSeqNo;
+        }
+
+        final long cacheCursor = sessionCache.find(sequenceIndex, beginSeqNo, cacheEndSeqNo);
+        if (cacheCursor == ReplayCache.NOT_CACHED)
+        {
+            return false;
+        }
+
+        DebugLogger.log(REPLAY, "ReplayerSession: replaying [%d, %d] from cache%n", beginSeqNo, cacheEndSeqNo);
+
+        this.sessionCache = sessionCache;
+        this.cacheCursor = cacheCursor;
+        this.cacheEndSeqNo = cacheEndSeqNo;
+        return true;
+    }
+
+    // Returns true once every cached message in the range has been replayed, or the rest of the range has been
+    // evicted from the cache and is now being replayed from the archive.
+    private boolean attemptCacheReplay()
+    {
+        final ReplayCache.SessionCache sessionCache = this.sessionCache;
+        while (sessionCache.contains(cacheCursor))
+        {
+            if (sessionCache.sequenceIndex(cacheCursor) != sequenceIndex ||
+                sessionCache.sequenceNumber(cacheCursor) > cacheEndSeqNo)
+            {
+                return true;
+            }
+
+            if (sessionCache.replay(cacheCursor, this) == ABORT)
+            {
+                return false;
+            }
+
+            cacheReplayedMessages++;
+            cacheCursor++;
+        }
+
+        if (sessionCache.isEvicted(cacheCursor))
+        {
+            // Newer messages have evicted the rest of the range whilst back pressured.
+            DebugLogger.log(REPLAY, "ReplayerSession: replaying from %d from the archive%n", lastSeqNo + 1);
+            this.sessionCache = null;
+            queryArchive(lastSeqNo + 1);
+            return false;
+        }
+
+        return true;
+    }
+
+    private int replayedMessages()
+    {
+        final int archiveReplayedMessages = replayOperation == null ? 0 : replayOperation.replayedMessages();
+        return cacheReplayedMessages + archiveReplayedMessages;
+    }
+
     // Callback for the ReplayQuery:
     public Action onFragment(
         final DirectBuffer srcBuffer, final int srcOffset, final int srcLength, final Header header)
@@ -309,7 +402,7 @@ class ReplayerSession implements ControlledFragmentHandler
         {
             case REPLAYING:
                 DebugLogger.log(REPLAY, "ReplayerSession: REPLAYING step");
-                if (replayOperation.attemptReplay())
+                if (sessionCache != null ? attemptCacheReplay() : replayOperation.attemptReplay())
                 {
                     state = State.CHECK_REPLAY;
                     return attempReplay();
@@ -335,7 +428,7 @@ class ReplayerSession implements ControlledFragmentHandler
     private boolean completeReplay()
     {
         // Load state needed to complete the replay
-        final int replayedMessages = replayOperation.replayedMessages();
+        final int replayedMessages = replayedMessages();
 
         // If the last N messages were admin messages then we need to send a gapfill
         // after the replay query has run.
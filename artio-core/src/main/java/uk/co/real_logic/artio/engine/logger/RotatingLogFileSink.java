@@ -0,0 +1,180 @@
+/*
+ * Copyright 2015-2019 Real Logic Ltd, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.DirectBuffer;
+import org.agrona.LangUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Writes log entries to a sequence of files in a directory, starting a new file when the current one would exceed
+ * a maximum size. Files are named prefix-index.log, the index continuing from any files that already exist.
+ *
+ * Entries are buffered in a direct buffer and written out on {@link #flush()}, so no objects are allocated per entry.
+ * An entry is never split across files, but a single entry bigger than the maximum size gets a file of its own.
+ */
+public class RotatingLogFileSink implements FixMessageLogSink
+{
+    public static final int DEFAULT_WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final File directory;
+    private final String fileNamePrefix;
+    private final long maxFileSize;
+    private final ByteBuffer writeBuffer;
+    private final UnsafeBuffer writeView;
+
+    private FileChannel channel;
+    private int fileIndex;
+    private long fileLength;
+
+    public RotatingLogFileSink(final File directory, final String fileNamePrefix, final long maxFileSize)
+    {
+        this(directory, fileNamePrefix, maxFileSize, DEFAULT_WRITE_BUFFER_SIZE);
+    }
+
+    public RotatingLogFileSink(
+        final File directory, final String fileNamePrefix, final long maxFileSize, final int writeBufferSize)
+    {
+        if (maxFileSize <= 0)
+        {
+            throw new IllegalArgumentException("maxFileSize must be positive: " + maxFileSize);
+        }
+
+        this.directory = directory;
+        this.fileNamePrefix = fileNamePrefix;
+        this.maxFileSize = maxFileSize;
+        writeBuffer = ByteBuffer.allocateDirect(writeBufferSize);
+        writeView = new UnsafeBuffer(writeBuffer);
+
+        if (!directory.exists() && !directory.mkdirs())
+        {
+            throw new IllegalStateException("Unable to create log directory: " + directory);
+        }
+
+        openNextFile();
+    }
+
+    public void onLogEntry(final DirectBuffer buffer, final int offset, final int length)
+    {
+        if (fileLength > 0 && fileLength + length > maxFileSize)
+        {
+            openNextFile();
+        }
+
+        int srcOffset = offset;
+        int remaining = length;
+        while (remaining > 0)
+        {
+            if (!writeBuffer.hasRemaining())
+            {
+                writeOut();
+            }
+
+            final int position = writeBuffer.position();
+            final int chunkLength = Math.min(remaining, writeBuffer.remaining());
+            writeView.putBytes(position, buffer, srcOffset, chunkLength);
+            writeBuffer.position(position + chunkLength);
+            srcOffset += chunkLength;
+            remaining -= chunkLength;
+        }
+
+        fileLength += length;
+    }
+
+    public void flush()
+    {
+        writeOut();
+    }
+
+    public void close()
+    {
+        if (channel != null)
+        {
+            try
+            {
+                writeOut();
+                channel.close();
+            }
+            catch (final IOException ex)
+            {
+                LangUtil.rethrowUnchecked(ex);
+            }
+            finally
+            {
+                channel = null;
+            }
+        }
+    }
+
+    public File currentFile()
+    {
+        return logFile(fileIndex);
+    }
+
+    private void openNextFile()
+    {
+        close();
+
+        while (logFile(fileIndex).exists())
+        {
+            fileIndex++;
+        }
+
+        try
+        {
+            channel = FileChannel.open(logFile(fileIndex).toPath(), CREATE_NEW, WRITE);
+        }
+        catch (final IOException ex)
+        {
+            LangUtil.rethrowUnchecked(ex);
+        }
+
+        fileLength = 0;
+    }
+
+    private void writeOut()
+    {
+        writeBuffer.flip();
+        try
+        {
+            while (writeBuffer.hasRemaining())
+            {
+                channel.write(writeBuffer);
+            }
+        }
+        catch (final IOException ex)
+        {
+            LangUtil.rethrowUnchecked(ex);
+        }
+        finally
+        {
+            writeBuffer.clear();
+        }
+    }
+
+    private File logFile(final int index)
+    {
+        return new File(directory, fileNamePrefix + "-" + index + ".log");
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2015-2019 Real Logic Ltd, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+/**
+ * Determines when the sequence number indexes are synced to disk, trading the amount of the index that has to be
+ * rebuilt from the archive after a crash against the cost of syncing.
+ *
+ * Every policy syncs the indexes when the engine closes.
+ */
+public enum SequenceNumberIndexDurability
+{
+    /**
+     * Syncs records that have been indexed once the index file state flush timeout has elapsed, and when the
+     * archive's term rolls, so records that are indexed within a timeout share a single sync.
+     */
+    GROUP_COMMIT,
+
+    /**
+     * Syncs once a configured number of records have been indexed, as well as whenever {@link #GROUP_COMMIT} would.
+     */
+    RECORD_COUNT,
+
+    /**
+     * Never syncs whilst running, relying upon the index being rebuilt from the archive after a crash.
+     */
+    ARCHIVE_ONLY
+}
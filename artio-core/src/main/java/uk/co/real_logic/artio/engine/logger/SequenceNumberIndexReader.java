@@ -15,27 +15,52 @@
  */
 package uk.co.real_logic.artio.engine.logger;
 
+import org.agrona.BitUtil;
 import org.agrona.ErrorHandler;
+import org.agrona.collections.Hashing;
 import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
 import uk.co.real_logic.artio.engine.SectorFramer;
 import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
 import uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberDecoder;
 import uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEncoder;
 
+import java.nio.ByteBuffer;
+
 import static uk.co.real_logic.artio.engine.SectorFramer.OUT_OF_SPACE;
 import static uk.co.real_logic.artio.engine.SessionInfo.UNK_SESSION;
 import static uk.co.real_logic.artio.engine.logger.SequenceNumberIndexDescriptor.*;
+import static uk.co.real_logic.artio.engine.logger.SequenceNumberIndexWriter.SEQUENCE_NUMBER_OFFSET;
 import static uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEncoder.BLOCK_LENGTH;
 import static uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEncoder.SCHEMA_VERSION;
 
+/**
+ * Reads the sequence number index that's written by a {@link SequenceNumberIndexWriter}.
+ *
+ * Lookups use an off-heap open addressing hash table from session id to record offset. Records are appended to the
+ * index and never move, so the table is built when the reader is created and records that have been appended since
+ * are added to it when a lookup misses. If the index has been reset since a record was added then the record, or the
+ * last record scanned, no longer matches its session and the table is rebuilt.
+ */
 public class SequenceNumberIndexReader
 {
+    private static final int NO_RECORD = 0;
+    private static final int ENTRY_LENGTH = 16;
+    private static final int SESSION_ID_OFFSET = 0;
+    private static final int RECORD_OFFSET_OFFSET = 8;
+
     private final MessageHeaderDecoder fileHeaderDecoder = new MessageHeaderDecoder();
     private final LastKnownSequenceNumberDecoder lastKnownDecoder = new LastKnownSequenceNumberDecoder();
     private final AtomicBuffer inMemoryBuffer;
     private final SectorFramer sectorFramer;
     private final IndexedPositionReader positions;
     private final ErrorHandler errorHandler;
+    private final AtomicBuffer recordOffsets;
+    private final int recordOffsetsMask;
+
+    private int scannedPosition = HEADER_SIZE;
+    private int lastScannedOffset = NO_RECORD;
+    private long lastScannedSessionId;
 
     public SequenceNumberIndexReader(final AtomicBuffer inMemoryBuffer, final ErrorHandler errorHandler)
     {
@@ -45,30 +70,131 @@ public class SequenceNumberIndexReader
         sectorFramer = new SectorFramer(positionTableOffset);
         validateBuffer();
         positions = new IndexedPositionReader(positionsBuffer(inMemoryBuffer, positionTableOffset));
+
+        // At most half full, so probe sequences stay short.
+        final int entries = BitUtil.findNextPositivePowerOfTwo(2 * Math.max(1, positionTableOffset / RECORD_SIZE));
+        recordOffsets = new UnsafeBuffer(ByteBuffer.allocateDirect(entries * ENTRY_LENGTH));
+        recordOffsetsMask = entries - 1;
+        scanNewRecords(UNK_SESSION);
     }
 
     public int lastKnownSequenceNumber(final long sessionId)
     {
-        int position = SequenceNumberIndexDescriptor.HEADER_SIZE;
+        int recordOffset = recordOffset(sessionId);
+        if (recordOffset != NO_RECORD)
+        {
+            lastKnownDecoder.wrap(inMemoryBuffer, recordOffset, BLOCK_LENGTH, SCHEMA_VERSION);
+            if (lastKnownDecoder.sessionId() == sessionId)
+            {
+                return lastKnownDecoder.sequenceNumber();
+            }
+
+            // The index has been reset since the record was added to the table.
+            clearRecordOffsets();
+        }
+        else if (lastScannedOffset != NO_RECORD && hasBeenReset())
+        {
+            clearRecordOffsets();
+        }
+
+        recordOffset = scanNewRecords(sessionId);
+        if (recordOffset == NO_RECORD)
+        {
+            return UNK_SESSION;
+        }
+
+        lastKnownDecoder.wrap(inMemoryBuffer, recordOffset, BLOCK_LENGTH, SCHEMA_VERSION);
+        return lastKnownDecoder.sequenceNumber();
+    }
+
+    // Adds records written since the last scan to the table, returning the offset of the session's record if found.
+    private int scanNewRecords(final long sessionId)
+    {
+        int found = NO_RECORD;
+        int position = scannedPosition;
         while (true)
         {
             position = sectorFramer.claim(position, RECORD_SIZE);
             if (position == OUT_OF_SPACE)
             {
-                return UNK_SESSION;
+                return found;
             }
 
+            // The writer puts the session id before its ordered write of the sequence number, so reading the
+            // sequence number first means that a written session id is visible.
+            inMemoryBuffer.getIntVolatile(position + SEQUENCE_NUMBER_OFFSET);
             lastKnownDecoder.wrap(inMemoryBuffer, position, BLOCK_LENGTH, SCHEMA_VERSION);
+            final long recordSessionId = lastKnownDecoder.sessionId();
+            if (recordSessionId == 0)
+            {
+                // Not written yet, or still being written, so it's scanned again by the next lookup
+                return found;
+            }
 
-            if (lastKnownDecoder.sessionId() == sessionId)
+            if (putRecordOffset(recordSessionId, position) && recordSessionId == sessionId)
             {
-                return lastKnownDecoder.sequenceNumber();
+                found = position;
             }
 
+            lastScannedOffset = position;
+            lastScannedSessionId = recordSessionId;
             position += RECORD_SIZE;
+            scannedPosition = position;
         }
     }
 
+    private boolean hasBeenReset()
+    {
+        lastKnownDecoder.wrap(inMemoryBuffer, lastScannedOffset, BLOCK_LENGTH, SCHEMA_VERSION);
+        return lastKnownDecoder.sessionId() != lastScannedSessionId;
+    }
+
+    private int recordOffset(final long sessionId)
+    {
+        int index = Hashing.hash(sessionId, recordOffsetsMask);
+        while (true)
+        {
+            final int entryOffset = index * ENTRY_LENGTH;
+            final int recordOffset = recordOffsets.getInt(entryOffset + RECORD_OFFSET_OFFSET);
+            if (recordOffset == NO_RECORD || recordOffsets.getLong(entryOffset + SESSION_ID_OFFSET) == sessionId)
+            {
+                return recordOffset;
+            }
+
+            index = (index + 1) & recordOffsetsMask;
+        }
+    }
+
+    // Returns false if the session already has a record, as lookups use the first record for a session.
+    private boolean putRecordOffset(final long sessionId, final int recordOffset)
+    {
+        int index = Hashing.hash(sessionId, recordOffsetsMask);
+        while (true)
+        {
+            final int entryOffset = index * ENTRY_LENGTH;
+            if (recordOffsets.getInt(entryOffset + RECORD_OFFSET_OFFSET) == NO_RECORD)
+            {
+                recordOffsets.putLong(entryOffset + SESSION_ID_OFFSET, sessionId);
+                recordOffsets.putInt(entryOffset + RECORD_OFFSET_OFFSET, recordOffset);
+                return true;
+            }
+
+            if (recordOffsets.getLong(entryOffset + SESSION_ID_OFFSET) == sessionId)
+            {
+                return false;
+            }
+
+            index = (index + 1) & recordOffsetsMask;
+        }
+    }
+
+    private void clearRecordOffsets()
+    {
+        recordOffsets.setMemory(0, recordOffsets.capacity(), (byte)0);
+        scannedPosition = HEADER_SIZE;
+        lastScannedOffset = NO_RECORD;
+    }
+
     public long indexedPosition(final int aeronSessionId)
     {
         return positions.indexedPosition(aeronSessionId);
@@ -23,16 +23,19 @@ import org.agrona.ErrorHandler;
 import org.agrona.collections.Long2LongHashMap;
 import org.agrona.concurrent.AtomicBuffer;
 import org.agrona.concurrent.EpochClock;
+import org.agrona.concurrent.status.AtomicCounter;
 import uk.co.real_logic.artio.decoder.HeaderDecoder;
 import uk.co.real_logic.artio.engine.ChecksumFramer;
 import uk.co.real_logic.artio.engine.MappedFile;
 import uk.co.real_logic.artio.messages.*;
 import uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberDecoder;
 import uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEncoder;
+import uk.co.real_logic.artio.timing.Timer;
 import uk.co.real_logic.artio.util.AsciiBuffer;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 
 import java.io.File;
+import java.util.BitSet;
 
 import static io.aeron.protocol.DataHeaderFlyweight.BEGIN_FLAG;
 import static uk.co.real_logic.artio.engine.SectorFramer.*;
@@ -42,6 +45,12 @@ import static uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEnc
 /**
  * Writes updates into an in-memory buffer. This buffer is then flushed down to disk. A passing place
  * file is used to ensure that there's a recoverable option if it fails.
+ *
+ * Only the sectors that have been modified are checksummed and copied when the buffer is flushed. As the writable
+ * and index files are flipped on every flush, the writable file misses the sectors modified in the previous flush as
+ * well as those modified since it.
+ *
+ * When the buffer is flushed and synced is determined by its {@link SequenceNumberIndexDurability}.
  */
 public class SequenceNumberIndexWriter implements Index
 {
@@ -84,6 +93,23 @@ public class SequenceNumberIndexWriter implements Index
     private long lastUpdatedFileTimeInMs;
     private boolean hasSavedRecordSinceFileUpdate = false;
 
+    private final int sectorCount;
+    private final int checksummedSectorCount;
+    private final BitSet dirtySectors;
+    private final BitSet flushSectors;
+
+    private final SequenceNumberIndexDurability durability;
+    private final int syncRecordCount;
+    // The metrics are null if they aren't recorded
+    private final AtomicCounter syncs;
+    private final AtomicCounter syncedRecords;
+    private final Timer syncTimer;
+    private final AtomicCounter fileUsedBytes;
+    private final AtomicCounter fileCapacityCounter;
+    private int recordsSinceSync;
+    // End of the last claimed record, the records are only ever appended until the index is reset.
+    private int usedBytes;
+
     public SequenceNumberIndexWriter(
         final AtomicBuffer inMemoryBuffer,
         final MappedFile indexFile,
@@ -93,6 +119,46 @@ public class SequenceNumberIndexWriter implements Index
         final long indexFileStateFlushTimeoutInMs,
         final EpochClock clock)
     {
+        this(
+            inMemoryBuffer,
+            indexFile,
+            errorHandler,
+            streamId,
+            recordingIdLookup,
+            indexFileStateFlushTimeoutInMs,
+            clock,
+            SequenceNumberIndexDurability.GROUP_COMMIT,
+            1,
+            null,
+            null,
+            null,
+            null,
+            null);
+    }
+
+    public SequenceNumberIndexWriter(
+        final AtomicBuffer inMemoryBuffer,
+        final MappedFile indexFile,
+        final ErrorHandler errorHandler,
+        final int streamId,
+        final RecordingIdLookup recordingIdLookup,
+        final long indexFileStateFlushTimeoutInMs,
+        final EpochClock clock,
+        final SequenceNumberIndexDurability durability,
+        final int syncRecordCount,
+        final AtomicCounter syncs,
+        final AtomicCounter syncedRecords,
+        final Timer syncTimer,
+        final AtomicCounter fileUsedBytes,
+        final AtomicCounter fileCapacityCounter)
+    {
+        this.durability = durability;
+        this.syncRecordCount = syncRecordCount;
+        this.syncs = syncs;
+        this.syncedRecords = syncedRecords;
+        this.syncTimer = syncTimer;
+        this.fileUsedBytes = fileUsedBytes;
+        this.fileCapacityCounter = fileCapacityCounter;
         this.inMemoryBuffer = inMemoryBuffer;
         this.indexFile = indexFile;
         this.errorHandler = errorHandler;
@@ -110,11 +176,20 @@ public class SequenceNumberIndexWriter implements Index
 
         // TODO: Fsync parent directory
         indexedPositionsOffset = positionTableOffset(fileCapacity);
+        sectorCount = (fileCapacity + SECTOR_SIZE - 1) / SECTOR_SIZE;
+        checksummedSectorCount = indexedPositionsOffset / SECTOR_SIZE;
+        // Neither file's contents are known to match the in memory buffer until both have been fully written.
+        dirtySectors = new BitSet(sectorCount);
+        dirtySectors.set(0, sectorCount);
+        flushSectors = new BitSet(sectorCount);
+        flushSectors.set(0, sectorCount);
         checksumFramer = new ChecksumFramer(
             inMemoryBuffer, indexedPositionsOffset, errorHandler, 0, "SequenceNumberIndex");
         try
         {
             initialiseBuffer();
+            usedBytes = findUsedBytes();
+            updateFileCounters();
             positions = new IndexedPositionWriter(
                 positionsBuffer(inMemoryBuffer, indexedPositionsOffset),
                 errorHandler,
@@ -201,7 +276,7 @@ public class SequenceNumberIndexWriter implements Index
     @Override
     public int doWork()
     {
-        if (hasSavedRecordSinceFileUpdate)
+        if (hasSavedRecordSinceFileUpdate && durability != SequenceNumberIndexDurability.ARCHIVE_ONLY)
         {
             final long requiredUpdateTimeInMs = lastUpdatedFileTimeInMs + indexFileStateFlushTimeoutInMs;
             if (requiredUpdateTimeInMs < clock.time())
@@ -218,6 +293,39 @@ public class SequenceNumberIndexWriter implements Index
     {
         inMemoryBuffer.setMemory(0, indexedPositionsOffset, (byte)0);
         initialiseBlankBuffer();
+        dirtySectors.set(0, sectorCount);
+        usedBytes = SequenceNumberIndexDescriptor.HEADER_SIZE;
+        updateFileCounters();
+    }
+
+    private int findUsedBytes()
+    {
+        int position = SequenceNumberIndexDescriptor.HEADER_SIZE;
+        while (true)
+        {
+            position = checksumFramer.claim(position, RECORD_SIZE);
+            if (position == OUT_OF_SPACE)
+            {
+                return indexedPositionsOffset;
+            }
+
+            lastKnownDecoder.wrap(inMemoryBuffer, position, RECORD_SIZE, SCHEMA_VERSION);
+            if (lastKnownDecoder.sequenceNumber() == 0)
+            {
+                return position;
+            }
+
+            position += RECORD_SIZE;
+        }
+    }
+
+    private void updateFileCounters()
+    {
+        if (fileUsedBytes != null)
+        {
+            fileUsedBytes.setOrdered(usedBytes);
+            fileCapacityCounter.setOrdered(indexedPositionsOffset);
+        }
     }
 
     private void checkTermRoll(final DirectBuffer buffer, final int offset, final long endPosition, final int length)
@@ -231,24 +339,69 @@ public class SequenceNumberIndexWriter implements Index
         else if (endPosition > nextRollPosition)
         {
             nextRollPosition += termBufferLength;
+            if (durability != SequenceNumberIndexDurability.ARCHIVE_ONLY)
+            {
+                updateFile();
+            }
+        }
+    }
+
+    private void onRecordSaved()
+    {
+        hasSavedRecordSinceFileUpdate = true;
+        recordsSinceSync++;
+        if (durability == SequenceNumberIndexDurability.RECORD_COUNT && recordsSinceSync >= syncRecordCount)
+        {
             updateFile();
         }
     }
 
     private void updateFile()
     {
-        checksumFramer.updateChecksums();
+        final long startInNs = System.nanoTime();
+        // The indexed positions are updated by every fragment.
+        dirtySectors.set(checksummedSectorCount, sectorCount);
+        for (int sector = dirtySectors.nextSetBit(0);
+            sector >= 0 && sector < checksummedSectorCount;
+            sector = dirtySectors.nextSetBit(sector + 1))
+        {
+            checksumFramer.updateChecksum(sector * SECTOR_SIZE);
+        }
         positions.updateChecksums();
         saveFile();
         flipFiles();
         hasSavedRecordSinceFileUpdate = false;
         lastUpdatedFileTimeInMs = clock.time();
+        onSync(System.nanoTime() - startInNs);
+    }
+
+    private void onSync(final long durationInNs)
+    {
+        if (syncs != null)
+        {
+            syncs.increment();
+            syncedRecords.getAndAdd(recordsSinceSync);
+            syncTimer.record(durationInNs);
+        }
+        recordsSinceSync = 0;
     }
 
     private void saveFile()
     {
-        writableFile.buffer().putBytes(0, inMemoryBuffer, 0, fileCapacity);
+        final AtomicBuffer fileBuffer = writableFile.buffer();
+        final BitSet flushSectors = this.flushSectors;
+        flushSectors.or(dirtySectors);
+        for (int sector = flushSectors.nextSetBit(0); sector >= 0; sector = flushSectors.nextSetBit(sector + 1))
+        {
+            final int offset = sector * SECTOR_SIZE;
+            fileBuffer.putBytes(offset, inMemoryBuffer, offset, Math.min(SECTOR_SIZE, fileCapacity - offset));
+        }
         writableFile.force();
+
+        // After the flip the next writable file is the current index file, which lacks this flush's sectors.
+        flushSectors.clear();
+        flushSectors.or(dirtySectors);
+        dirtySectors.clear();
     }
 
     private void flipFiles()
@@ -331,6 +484,8 @@ public class SequenceNumberIndexWriter implements Index
                 position = checksumFramer.claim(position, RECORD_SIZE);
                 if (position == OUT_OF_SPACE)
                 {
+                    usedBytes = indexedPositionsOffset;
+                    updateFileCounters();
                     errorHandler.onError(new IllegalStateException(
                         "Sequence Number Index out of space, can't claim slot for " + sessionId));
                     return;
@@ -340,13 +495,13 @@ public class SequenceNumberIndexWriter implements Index
                 if (lastKnownDecoder.sequenceNumber() == 0)
                 {
                     createNewRecord(newSequenceNumber, sessionId, position);
-                    hasSavedRecordSinceFileUpdate = true;
+                    onRecordSaved();
                     return;
                 }
                 else if (lastKnownDecoder.sessionId() == sessionId)
                 {
                     updateSequenceNumber(position, newSequenceNumber);
-                    hasSavedRecordSinceFileUpdate = true;
+                    onRecordSaved();
                     return;
                 }
 
@@ -356,7 +511,7 @@ public class SequenceNumberIndexWriter implements Index
         else
         {
             updateSequenceNumber(position, newSequenceNumber);
-            hasSavedRecordSinceFileUpdate = true;
+            onRecordSaved();
         }
     }
 
@@ -370,6 +525,13 @@ public class SequenceNumberIndexWriter implements Index
             .wrap(inMemoryBuffer, position)
             .sessionId(sessionId);
         updateSequenceNumber(position, sequenceNumber);
+
+        final int endOfRecord = position + RECORD_SIZE;
+        if (endOfRecord > usedBytes)
+        {
+            usedBytes = endOfRecord;
+            updateFileCounters();
+        }
     }
 
     private void initialiseBuffer()
@@ -457,5 +619,6 @@ public class SequenceNumberIndexWriter implements Index
         final int value)
     {
         inMemoryBuffer.putIntOrdered(recordOffset + SEQUENCE_NUMBER_OFFSET, value);
+        dirtySectors.set(recordOffset / SECTOR_SIZE);
     }
 }
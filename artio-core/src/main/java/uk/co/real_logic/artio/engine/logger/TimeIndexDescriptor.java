@@ -0,0 +1,43 @@
+/*
+ * Copyright 2015-2019 Real Logic Ltd, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.BitUtil;
+
+import java.io.File;
+
+/**
+ * A time index file is a sequence of fixed length records, each of a message's timestamp and the recording id and
+ * position that the message starts at.
+ */
+final class TimeIndexDescriptor
+{
+    static final int TIMESTAMP_OFFSET = 0;
+    static final int RECORDING_ID_OFFSET = TIMESTAMP_OFFSET + BitUtil.SIZE_OF_LONG;
+    static final int POSITION_OFFSET = RECORDING_ID_OFFSET + BitUtil.SIZE_OF_LONG;
+    static final int RECORD_LENGTH = POSITION_OFFSET + BitUtil.SIZE_OF_LONG;
+
+    static final int BLOCK_LENGTH = 256 * RECORD_LENGTH;
+
+    private TimeIndexDescriptor()
+    {
+    }
+
+    static File timeIndexFile(final String logFileDir, final int streamId)
+    {
+        return new File(String.format(logFileDir + File.separator + "time-index-%d", streamId));
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2015-2019 Real Logic Ltd, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.CloseHelper;
+import org.agrona.LangUtil;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.collections.LongArrayList;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static io.aeron.archive.client.AeronArchive.NULL_POSITION;
+import static java.nio.file.StandardOpenOption.READ;
+import static uk.co.real_logic.artio.engine.logger.TimeIndexDescriptor.*;
+
+/**
+ * Reads the time index that's written by the {@link TimeIndexWriter}, a block at a time.
+ *
+ * The index is sparse, so the positions that it finds bound the messages in a time range rather than locating them
+ * exactly. This relies upon message timestamps increasing along a recording.
+ *
+ * The entries of different recordings are interleaved in the file, so the first search loads each recording's
+ * entries, which are in timestamp order, and searches are then a binary search of the recording's entries.
+ */
+final class TimeIndexReader implements AutoCloseable
+{
+    @FunctionalInterface
+    interface RecordHandler
+    {
+        void onRecord(long timestamp, long recordingId, long position);
+    }
+
+    private final ByteBuffer blockByteBuffer = ByteBuffer.allocateDirect(BLOCK_LENGTH);
+    private final UnsafeBuffer block = new UnsafeBuffer(blockByteBuffer);
+    private final Long2ObjectHashMap<RecordingEntries> recordingIdToEntries = new Long2ObjectHashMap<>();
+    private final FileChannel channel;
+
+    private boolean loadedEntries;
+
+    TimeIndexReader(final FileChannel channel)
+    {
+        this.channel = channel;
+    }
+
+    // Returns null if the engine that wrote the archive didn't have a time index.
+    static TimeIndexReader open(final File file)
+    {
+        if (!file.exists())
+        {
+            return null;
+        }
+
+        try
+        {
+            return new TimeIndexReader(FileChannel.open(file.toPath(), READ));
+        }
+        catch (final IOException ex)
+        {
+            LangUtil.rethrowUnchecked(ex);
+            return null;
+        }
+    }
+
+    void forEachRecord(final RecordHandler handler)
+    {
+        try
+        {
+            final long size = channel.size();
+            final long end = size - size % RECORD_LENGTH;
+            long filePosition = 0;
+            while (filePosition < end)
+            {
+                final int length = (int)Math.min(BLOCK_LENGTH, end - filePosition);
+                blockByteBuffer.clear().limit(length);
+                while (blockByteBuffer.hasRemaining())
+                {
+                    if (channel.read(blockByteBuffer, filePosition + blockByteBuffer.position()) < 0)
+                    {
+                        return;
+                    }
+                }
+
+                for (int offset = 0; offset < length; offset += RECORD_LENGTH)
+                {
+                    handler.onRecord(
+                        block.getLong(offset + TIMESTAMP_OFFSET),
+                        block.getLong(offset + RECORDING_ID_OFFSET),
+                        block.getLong(offset + POSITION_OFFSET));
+                }
+
+                filePosition += length;
+            }
+        }
+        catch (final IOException ex)
+        {
+            LangUtil.rethrowUnchecked(ex);
+        }
+    }
+
+    // The position of the last entry before the timestamp, as no earlier message can be at or after it.
+    long startPosition(final long recordingId, final long fromTimestamp, final long startPosition)
+    {
+        final RecordingEntries entries = entries(recordingId);
+        if (entries == null)
+        {
+            return startPosition;
+        }
+
+        final int index = entries.firstAtOrAfter(fromTimestamp) - 1;
+        if (index >= 0)
+        {
+            final long position = entries.positions.getLong(index);
+            if (position > startPosition)
+            {
+                return position;
+            }
+        }
+
+        return startPosition;
+    }
+
+    // The position of the first entry at or after the timestamp, as no later message can be before it.
+    long stopPosition(final long recordingId, final long toTimestamp, final long stopPosition)
+    {
+        final RecordingEntries entries = entries(recordingId);
+        if (entries == null)
+        {
+            return stopPosition;
+        }
+
+        final int index = entries.firstAtOrAfter(toTimestamp);
+        if (index < entries.timestamps.size())
+        {
+            final long position = entries.positions.getLong(index);
+            if (stopPosition == NULL_POSITION || position < stopPosition)
+            {
+                return position;
+            }
+        }
+
+        return stopPosition;
+    }
+
+    private RecordingEntries entries(final long recordingId)
+    {
+        if (!loadedEntries)
+        {
+            forEachRecord(this::onRecord);
+            loadedEntries = true;
+        }
+
+        return recordingIdToEntries.get(recordingId);
+    }
+
+    private void onRecord(final long timestamp, final long recordingId, final long position)
+    {
+        RecordingEntries entries = recordingIdToEntries.get(recordingId);
+        if (entries == null)
+        {
+            entries = new RecordingEntries();
+            recordingIdToEntries.put(recordingId, entries);
+        }
+
+        entries.timestamps.addLong(timestamp);
+        entries.positions.addLong(position);
+    }
+
+    private static final class RecordingEntries
+    {
+        private final LongArrayList timestamps = new LongArrayList();
+        private final LongArrayList positions = new LongArrayList();
+
+        // Returns the number of entries if they're all before the timestamp.
+        int firstAtOrAfter(final long timestamp)
+        {
+            int low = 0;
+            int high = timestamps.size();
+            while (low < high)
+            {
+                final int middle = (low + high) >>> 1;
+                if (timestamps.getLong(middle) < timestamp)
+                {
+                    low = middle + 1;
+                }
+                else
+                {
+                    high = middle;
+                }
+            }
+
+            return low;
+        }
+    }
+
+    public void close()
+    {
+        CloseHelper.close(channel);
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2015-2019 Real Logic Ltd, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.logbuffer.Header;
+import org.agrona.BitUtil;
+import org.agrona.CloseHelper;
+import org.agrona.DirectBuffer;
+import org.agrona.ErrorHandler;
+import org.agrona.LangUtil;
+import org.agrona.collections.Long2LongHashMap;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.messages.FixMessageDecoder;
+import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static io.aeron.logbuffer.FrameDescriptor.*;
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static java.nio.file.StandardOpenOption.*;
+import static uk.co.real_logic.artio.engine.logger.TimeIndexDescriptor.*;
+
+/**
+ * Builds a sparse index from the timestamps of the messages on a stream to their positions in the archive, see
+ * {@link TimeIndexDescriptor} for its layout.
+ *
+ * An entry is appended for the first message of each recording that's at least the interval after the recording's
+ * previous entry. Entries aren't synced, instead the last entry of each recording is its indexed position, so a lost
+ * entry is rebuilt when the index catches up with the archive.
+ */
+public class TimeIndexWriter implements Index
+{
+    private static final long MISSING = Long.MIN_VALUE;
+
+    private final MessageHeaderDecoder messageHeader = new MessageHeaderDecoder();
+    private final FixMessageDecoder fixMessage = new FixMessageDecoder();
+    private final Long2LongHashMap recordingIdToLastTimestamp = new Long2LongHashMap(MISSING);
+    private final Long2LongHashMap recordingIdToLastPosition = new Long2LongHashMap(MISSING);
+    private final ByteBuffer recordByteBuffer = ByteBuffer.allocateDirect(RECORD_LENGTH);
+    private final UnsafeBuffer recordBuffer = new UnsafeBuffer(recordByteBuffer);
+
+    private final int requiredStreamId;
+    private final long interval;
+    private final ErrorHandler errorHandler;
+    private final RecordingIdLookup recordingIdLookup;
+    private final FileChannel channel;
+
+    private long filePosition;
+
+    public TimeIndexWriter(
+        final String logFileDir,
+        final int requiredStreamId,
+        final long interval,
+        final ErrorHandler errorHandler,
+        final RecordingIdLookup recordingIdLookup)
+    {
+        this.requiredStreamId = requiredStreamId;
+        this.interval = interval;
+        this.errorHandler = errorHandler;
+        this.recordingIdLookup = recordingIdLookup;
+
+        try
+        {
+            channel = FileChannel.open(timeIndexFile(logFileDir, requiredStreamId).toPath(), CREATE, READ, WRITE);
+            final long size = channel.size();
+            // Any partially written record at the end is overwritten.
+            filePosition = size - size % RECORD_LENGTH;
+        }
+        catch (final IOException ex)
+        {
+            LangUtil.rethrowUnchecked(ex);
+            throw new IllegalStateException(ex);
+        }
+
+        new TimeIndexReader(channel).forEachRecord(this::onExistingRecord);
+    }
+
+    private void onExistingRecord(final long timestamp, final long recordingId, final long position)
+    {
+        recordingIdToLastTimestamp.put(recordingId, timestamp);
+        recordingIdToLastPosition.put(recordingId, position);
+    }
+
+    public void onFragment(
+        final DirectBuffer buffer,
+        final int offset,
+        final int length,
+        final Header header)
+    {
+        if (header.streamId() != requiredStreamId)
+        {
+            return;
+        }
+
+        // Only index the start of messages, as that's where a replay of them can start.
+        final byte flags = header.flags();
+        if ((flags & BEGIN_FRAG_FLAG) != BEGIN_FRAG_FLAG)
+        {
+            return;
+        }
+
+        messageHeader.wrap(buffer, offset);
+        if (messageHeader.templateId() != FixMessageDecoder.TEMPLATE_ID)
+        {
+            return;
+        }
+
+        fixMessage.wrap(
+            buffer, offset + MessageHeaderDecoder.ENCODED_LENGTH, messageHeader.blockLength(), messageHeader.version());
+        final long timestamp = fixMessage.timestamp();
+        final long recordingId = recordingIdLookup.getRecordingId(header.sessionId());
+        final long lastTimestamp = recordingIdToLastTimestamp.get(recordingId);
+        if (lastTimestamp == MISSING || timestamp - lastTimestamp >= interval)
+        {
+            final long startPosition = header.position() - BitUtil.align(length + HEADER_LENGTH, FRAME_ALIGNMENT);
+            if (startPosition > recordingIdToLastPosition.get(recordingId))
+            {
+                append(timestamp, recordingId, startPosition);
+            }
+        }
+    }
+
+    private void append(final long timestamp, final long recordingId, final long position)
+    {
+        recordBuffer.putLong(TIMESTAMP_OFFSET, timestamp);
+        recordBuffer.putLong(RECORDING_ID_OFFSET, recordingId);
+        recordBuffer.putLong(POSITION_OFFSET, position);
+
+        try
+        {
+            recordByteBuffer.clear();
+            while (recordByteBuffer.hasRemaining())
+            {
+                channel.write(recordByteBuffer, filePosition + recordByteBuffer.position());
+            }
+            filePosition += RECORD_LENGTH;
+
+            recordingIdToLastTimestamp.put(recordingId, timestamp);
+            recordingIdToLastPosition.put(recordingId, position);
+        }
+        catch (final IOException ex)
+        {
+            errorHandler.onError(ex);
+        }
+    }
+
+    public void readLastPosition(final IndexedPositionConsumer consumer)
+    {
+        // The last entry of each recording is the position that it needs to be re-indexed from, catching up doesn't
+        // need the aeron session id.
+        recordingIdToLastPosition.longForEach((recordingId, position) -> consumer.accept(0, recordingId, position));
+    }
+
+    public void close()
+    {
+        CloseHelper.close(channel);
+    }
+}
@@ -116,6 +116,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
     private final Timer receiveTimer;
     private final SessionExistsHandler sessionExistsHandler;
     private final SentPositionHandler sentPositionHandler;
+    private final SessionPoller sessionPoller;
     private final boolean enginesAreClustered;
     private final FixCounters fixCounters;
 
@@ -167,6 +168,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
         this.sessionExistsHandler = configuration.sessionExistsHandler();
         this.sentPositionHandler = configuration.sentPositionHandler();
         this.clock = clock;
+        this.sessionPoller = new SessionPoller(clock.time());
         this.enginesAreClustered = configuration.libraryAeronChannels().size() > 1;
     }
 
@@ -257,6 +259,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
     void disableSession(final InternalSession session)
     {
         sessions = ArrayUtil.remove(sessions, session);
+        sessionPoller.remove(session);
         session.disable();
     }
 
@@ -582,16 +585,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
 
     private int pollSessions(final long timeInMs)
     {
-        final InternalSession[] sessions = this.sessions;
-        int total = 0;
-
-        for (int i = 0, size = sessions.length; i < size; i++)
-        {
-            final InternalSession session = sessions[i];
-            total += session.poll(timeInMs);
-        }
-
-        return total;
+        return sessionPoller.poll(timeInMs);
     }
 
     private int pollPendingInitiatorSessions(final long timeInMs)
@@ -608,6 +602,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
                 this.pendingInitiatorSessions = pendingSessions = ArrayUtil.remove(pendingSessions, i);
                 size--;
                 sessions = ArrayUtil.add(sessions, session);
+                sessionPoller.add(session);
             }
             else
             {
@@ -800,6 +795,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
         else
         {
             sessions = ArrayUtil.add(sessions, session);
+            sessionPoller.add(session);
         }
     }
 
@@ -864,6 +860,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
                     // session will be in either pendingInitiatorSessions or sessions
                     pendingInitiatorSessions = ArrayUtil.remove(pendingInitiatorSessions, session);
                     sessions = ArrayUtil.remove(sessions, session);
+                    sessionPoller.remove(session);
                 }
 
                 return action;
@@ -1038,6 +1035,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
                         subscriber.onTimeout(libraryId);
                     }
                     session.close();
+                    sessionPoller.remove(session);
                     // TODO(Nick): Maybe we shouldn't be creating a lot of arrays and batch this up?
                     sessions = ArrayUtil.remove(sessions, i);
                     size--;
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2015-2019 Real Logic Ltd, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import uk.co.real_logic.artio.TimeoutWheel;
+import uk.co.real_logic.artio.session.InternalSession;
+import uk.co.real_logic.artio.session.SessionPollListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Polls the library's active sessions on every duty cycle whilst they have events to process, otherwise only once
+ * their next timeout is due or they have notified that something has changed their state.
+ */
+class SessionPoller implements SessionPollListener
+{
+    private final TimeoutWheel<InternalSession> pollTimeouts;
+
+    private List<InternalSession> sessionsToPoll = new ArrayList<>();
+    private List<InternalSession> sessionsBeingPolled = new ArrayList<>();
+
+    SessionPoller(final long timeInMs)
+    {
+        pollTimeouts = new TimeoutWheel<>(timeInMs);
+    }
+
+    void add(final InternalSession session)
+    {
+        session.pollListener(this);
+        onPollRequired(session);
+    }
+
+    void remove(final InternalSession session)
+    {
+        if (session.pollListener() == this)
+        {
+            session.pollListener(null);
+            cancelPollTimer(session);
+            session.pollRequired(false);
+        }
+    }
+
+    int poll(final long timeInMs)
+    {
+        final List<InternalSession> expiredSessions = pollTimeouts.poll(timeInMs);
+        for (int i = 0, size = expiredSessions.size(); i < size; i++)
+        {
+            final InternalSession session = expiredSessions.get(i);
+            session.pollTimerId(TimeoutWheel.NO_TIMER);
+            onPollRequired(session);
+        }
+
+        // Sessions that need polling again whilst this loop runs are added to the other list.
+        final List<InternalSession> sessionsBeingPolled = this.sessionsToPoll;
+        this.sessionsToPoll = this.sessionsBeingPolled;
+        this.sessionsBeingPolled = sessionsBeingPolled;
+
+        int total = 0;
+        for (int i = 0, size = sessionsBeingPolled.size(); i < size; i++)
+        {
+            final InternalSession session = sessionsBeingPolled.get(i);
+            // Not required if removed since being added
+            if (!session.pollRequired())
+            {
+                continue;
+            }
+
+            session.pollRequired(false);
+            final int sessionEvents = session.poll(timeInMs);
+            total += sessionEvents;
+
+            if (session.pollListener() == this)
+            {
+                if (sessionEvents > 0)
+                {
+                    onPollRequired(session);
+                }
+                else if (session.pollTimerId() == TimeoutWheel.NO_TIMER && !session.pollRequired())
+                {
+                    session.pollTimerId(pollTimeouts.schedule(session.nextTimeoutInMs(), session));
+                }
+            }
+        }
+        sessionsBeingPolled.clear();
+
+        return total;
+    }
+
+    public void onPollRequired(final InternalSession session)
+    {
+        if (!session.pollRequired())
+        {
+            cancelPollTimer(session);
+            session.pollRequired(true);
+            sessionsToPoll.add(session);
+        }
+    }
+
+    private void cancelPollTimer(final InternalSession session)
+    {
+        final long pollTimerId = session.pollTimerId();
+        if (pollTimerId != TimeoutWheel.NO_TIMER)
+        {
+            pollTimeouts.cancel(pollTimerId);
+            session.pollTimerId(TimeoutWheel.NO_TIMER);
+        }
+    }
+}
@@ -18,6 +18,7 @@ package uk.co.real_logic.artio.session;
 import io.aeron.logbuffer.ControlledFragmentHandler;
 import org.agrona.concurrent.EpochClock;
 import org.agrona.concurrent.status.AtomicCounter;
+import uk.co.real_logic.artio.TimeoutWheel;
 import uk.co.real_logic.artio.messages.SessionState;
 import uk.co.real_logic.artio.protocol.GatewayPublication;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
@@ -34,6 +35,10 @@ public class InternalSession extends Session
     public static final int INITIAL_END_OF_RESEND_REQUEST_RANGE = 0;
     public static final boolean INITIAL_AWAITING_HEARTBEAT = false;
 
+    private SessionPollListener pollListener;
+    private long pollTimerId = TimeoutWheel.NO_TIMER;
+    private boolean pollRequired;
+
     public InternalSession(
         final int heartbeatIntervalInS,
         final long connectionId,
@@ -76,6 +81,51 @@ public class InternalSession extends Session
         return super.poll(time);
     }
 
+    public long nextTimeoutInMs()
+    {
+        return super.nextTimeoutInMs();
+    }
+
+    void onPollRequired()
+    {
+        // Null during construction
+        final SessionPollListener pollListener = this.pollListener;
+        if (pollListener != null)
+        {
+            pollListener.onPollRequired(this);
+        }
+    }
+
+    public SessionPollListener pollListener()
+    {
+        return pollListener;
+    }
+
+    public void pollListener(final SessionPollListener pollListener)
+    {
+        this.pollListener = pollListener;
+    }
+
+    public long pollTimerId()
+    {
+        return pollTimerId;
+    }
+
+    public void pollTimerId(final long pollTimerId)
+    {
+        this.pollTimerId = pollTimerId;
+    }
+
+    public boolean pollRequired()
+    {
+        return pollRequired;
+    }
+
+    public void pollRequired(final boolean pollRequired)
+    {
+        this.pollRequired = pollRequired;
+    }
+
     public void disable()
     {
         super.disable();
@@ -487,11 +487,14 @@ public class Session implements AutoCloseable
 
         final int sentSeqNum = prepare(encoder.header());
 
+        // An Aeron claim has to be for an exact length, which isn't known until the encoder has finished and moved
+        // the start of the message to fit the BodyLength, so the message is encoded here and copied once into the
+        // publication.
         final long result = encoder.encode(asciiBuffer, 0);
         final int length = Encoder.length(result);
         final int offset = Encoder.offset(result);
 
-        return send(asciiBuffer, offset, length, sentSeqNum, encoder.messageType());
+        return saveMessage(asciiBuffer, offset, length, sentSeqNum, encoder.messageType());
     }
 
     /**
@@ -510,6 +513,12 @@ public class Session implements AutoCloseable
     {
         validateCanSendMessage();
 
+        return saveMessage(messageBuffer, offset, length, seqNum, messageType);
+    }
+
+    private long saveMessage(
+        final DirectBuffer messageBuffer, final int offset, final int length, final int seqNum, final int messageType)
+    {
         final long position = publication.saveMessage(
             messageBuffer, offset, length, libraryId, messageType, id(), sequenceIndex(), connectionId, OK, seqNum);
 
@@ -1407,11 +1416,13 @@ public class Session implements AutoCloseable
         incNextReceivedInboundMessageTime(time);
         sendingHeartbeatIntervalInMs = (long)(heartbeatIntervalInMs * HEARTBEAT_PAUSE_FACTOR);
         nextRequiredHeartbeatTimeInMs = time + sendingHeartbeatIntervalInMs;
+        onPollRequired();
     }
 
     protected Session state(final SessionState state)
     {
         this.state = state;
+        onPollRequired();
         return this;
     }
 
@@ -1554,6 +1565,18 @@ public class Session implements AutoCloseable
         close();
     }
 
+    // Invoked when the state or heartbeat interval changes, since either can make poll() due before the
+    // timeout returned by nextTimeoutInMs() when it was last scheduled. Can be invoked during construction.
+    void onPollRequired()
+    {
+    }
+
+    // The earliest time at which poll() would act upon a heartbeat or test request timeout.
+    long nextTimeoutInMs()
+    {
+        return Math.min(nextRequiredHeartbeatTimeInMs, nextRequiredInboundMessageTimeInMs);
+    }
+
     int poll(final long time)
     {
         final short state = state().value();
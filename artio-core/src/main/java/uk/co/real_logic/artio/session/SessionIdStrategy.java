@@ -86,7 +86,8 @@ public interface SessionIdStrategy
     void setupSession(CompositeKey compositeKey, SessionHeaderEncoder headerEncoder);
 
     /**
-     * Saves the given composite key to a buffer.
+     * Saves the given composite key to a buffer. Equal keys must be saved as equal bytes, as the engine looks up
+     * session ids by the saved bytes of their key.
      *
      * @param compositeKey the key to save
      * @param buffer the buffer to save it to
@@ -24,13 +24,21 @@ public class EngineTimers
 {
     private final Timer outboundTimer;
     private final Timer sendTimer;
+    private final Timer sentIndexSyncTimer;
+    private final Timer receivedIndexSyncTimer;
     private final List<Timer> timers;
 
     public EngineTimers(final Clock clock)
     {
         outboundTimer = new Timer(clock, "Outbound", 1);
         sendTimer = new Timer(clock, "Send", 2);
-        timers = Arrays.asList(outboundTimer, sendTimer);
+        sentIndexSyncTimer = new Timer(clock, "Sent Index Sync", 3);
+        receivedIndexSyncTimer = new Timer(clock, "Received Index Sync", 4);
+        timers = Arrays.asList(
+            outboundTimer,
+            sendTimer,
+            sentIndexSyncTimer,
+            receivedIndexSyncTimer);
     }
 
     public Timer outboundTimer()
@@ -43,6 +51,16 @@ public class EngineTimers
         return sendTimer;
     }
 
+    public Timer sentIndexSyncTimer()
+    {
+        return sentIndexSyncTimer;
+    }
+
+    public Timer receivedIndexSyncTimer()
+    {
+        return receivedIndexSyncTimer;
+    }
+
     public List<Timer> all()
     {
         return timers;
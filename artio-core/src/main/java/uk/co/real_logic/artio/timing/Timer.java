@@ -54,6 +54,19 @@ public class Timer
         return 0;
     }
 
+    /**
+     * Record a value that isn't a duration measured with this timer's clock, such as a count.
+     *
+     * @param value the value to record.
+     */
+    public void record(final long value)
+    {
+        if (TIME_MESSAGES)
+        {
+            recordValue(value);
+        }
+    }
+
     void recordValue(final long duration)
     {
         recorder.recordValue(duration);
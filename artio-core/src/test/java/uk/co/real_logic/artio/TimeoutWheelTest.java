@@ -0,0 +1,72 @@
+/*
+ * Copyright 2015-2019 Real Logic Ltd, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+public class TimeoutWheelTest
+{
+    private static final long START_TIME_IN_MS = 1_000_000;
+
+    private final TimeoutWheel<String> timeoutWheel = new TimeoutWheel<>(START_TIME_IN_MS);
+
+    @Test
+    public void shouldNotExpireTimeoutsBeforeTheirDeadline()
+    {
+        timeoutWheel.schedule(START_TIME_IN_MS + 100, "a");
+
+        assertThat(timeoutWheel.poll(START_TIME_IN_MS + 50), empty());
+        assertEquals(1, timeoutWheel.size());
+    }
+
+    @Test
+    public void shouldExpireTimeoutsOnceTheirDeadlineHasPassed()
+    {
+        timeoutWheel.schedule(START_TIME_IN_MS + 100, "a");
+        timeoutWheel.schedule(START_TIME_IN_MS + 10_000, "b");
+
+        final List<String> expired = timeoutWheel.poll(START_TIME_IN_MS + 200);
+
+        assertThat(expired, contains("a"));
+        assertEquals(1, timeoutWheel.size());
+    }
+
+    @Test
+    public void shouldNotExpireCancelledTimeouts()
+    {
+        final long timerId = timeoutWheel.schedule(START_TIME_IN_MS + 100, "a");
+        timeoutWheel.cancel(timerId);
+
+        assertThat(timeoutWheel.poll(START_TIME_IN_MS + 200), empty());
+        assertEquals(0, timeoutWheel.size());
+    }
+
+    @Test
+    public void shouldExpireTimeoutsMoreThanOneRotationAway()
+    {
+        timeoutWheel.schedule(START_TIME_IN_MS + 60_000, "a");
+
+        assertThat(timeoutWheel.poll(START_TIME_IN_MS + 30_000), empty());
+        assertThat(timeoutWheel.poll(START_TIME_IN_MS + 60_000), contains("a"));
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2015-2019 Real Logic Ltd, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine;
+
+import io.aeron.Aeron;
+import io.aeron.ExclusivePublication;
+import io.aeron.Subscription;
+import io.aeron.archive.client.AeronArchive;
+import org.agrona.CloseHelper;
+import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.CompositeAgent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.FixCounters;
+import uk.co.real_logic.artio.engine.logger.RecordingIdLookup;
+import uk.co.real_logic.artio.timing.EngineTimers;
+
+import java.io.File;
+import java.util.List;
+
+import static io.aeron.CommonContext.IPC_CHANNEL;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.*;
+
+public class EngineContextTest
+{
+    private static final String PREFIX = "test-";
+
+    private final File logFileDir = new File(IoUtil.tmpDirName(), "engine-context-test");
+    private final Aeron aeron = mock(Aeron.class);
+    private final AeronArchive aeronArchive = mock(AeronArchive.class, RETURNS_DEEP_STUBS);
+    private final RecordingCoordinator recordingCoordinator = mock(RecordingCoordinator.class);
+
+    private EngineConfiguration configuration;
+    private EngineContext engineContext;
+
+    @Before
+    public void setUp()
+    {
+        IoUtil.ensureDirectoryExists(logFileDir, logFileDir.getName());
+
+        when(aeron.addSubscription(anyString(), anyInt())).then((inv) -> mock(Subscription.class));
+        when(aeron.addExclusivePublication(anyString(), anyInt())).then((inv) -> mock(ExclusivePublication.class));
+        when(recordingCoordinator.inboundRecordingIdLookup()).thenReturn(mock(RecordingIdLookup.class));
+        when(recordingCoordinator.outboundRecordingIdLookup()).thenReturn(mock(RecordingIdLookup.class));
+    }
+
+    @After
+    public void tearDown()
+    {
+        CloseHelper.close(engineContext);
+        CloseHelper.close(configuration);
+        IoUtil.delete(logFileDir, true);
+    }
+
+    @Test
+    public void shouldDriveAllIndexesAndTheReplayerFromOneAgentByDefault()
+    {
+        newEngineContext(false);
+
+        final List<Agent> agents = engineContext.indexingAgents();
+        assertThat(agents, hasSize(1));
+
+        final Agent agent = agents.get(0);
+        assertThat(agent, instanceOf(CompositeAgent.class));
+        assertThat(agent.roleName(), allOf(containsString(PREFIX + "Indexer"), containsString(PREFIX + "Replayer")));
+    }
+
+    @Test
+    public void shouldDriveEachIndexFromItsOwnAgentWhenSeparated()
+    {
+        newEngineContext(true);
+
+        final List<String> roleNames = engineContext
+            .indexingAgents()
+            .stream()
+            .map(Agent::roleName)
+            .collect(toList());
+
+        assertEquals(asList(
+            PREFIX + "inboundReplayIndexer",
+            PREFIX + "inboundSequenceNumberIndexer",
+            PREFIX + "outboundReplayIndexer",
+            PREFIX + "outboundSequenceNumberIndexer",
+            PREFIX + "Replayer"),
+            roleNames);
+    }
+
+    private void newEngineContext(final boolean separateIndexingAgents)
+    {
+        configuration = new EngineConfiguration();
+        configuration
+            .libraryAeronChannel(IPC_CHANNEL)
+            .logFileDir(logFileDir.getAbsolutePath())
+            .scheduler(new DefaultEngineScheduler(separateIndexingAgents));
+        configuration.agentNamePrefix(PREFIX);
+        configuration.conclude();
+
+        engineContext = new EngineContext(
+            configuration,
+            mock(ErrorHandler.class),
+            mock(ExclusivePublication.class),
+            mock(FixCounters.class),
+            aeron,
+            aeronArchive,
+            recordingCoordinator,
+            mock(EngineTimers.class));
+    }
+}
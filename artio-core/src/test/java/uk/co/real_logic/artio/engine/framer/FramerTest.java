@@ -23,14 +23,17 @@ import org.agrona.ErrorHandler;
 import org.agrona.LangUtil;
 import org.agrona.concurrent.AgentInvoker;
 import org.agrona.concurrent.QueuedPipe;
+import org.agrona.concurrent.UnsafeBuffer;
 import org.hamcrest.Matcher;
 import org.hamcrest.Matchers;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.verification.VerificationMode;
 import uk.co.real_logic.artio.Timing;
+import uk.co.real_logic.artio.decoder.LogoutDecoder;
 import uk.co.real_logic.artio.engine.CompletionPosition;
 import uk.co.real_logic.artio.engine.EngineConfiguration;
 import uk.co.real_logic.artio.engine.RecordingCoordinator;
@@ -264,6 +267,40 @@ public class FramerTest
         verifyEndPointsDisconnected(APPLICATION_DISCONNECT);
     }
 
+    @Test
+    public void shouldFlushBatchedLogoutBeforeLibraryRequestedDisconnect() throws Exception
+    {
+        aClientConnects();
+        framer.doWork();
+
+        final long connectionId = this.connectionId.getValue();
+        when(mockSenderEndPoint.onOutboundMessage(
+            anyInt(), any(), anyInt(), anyInt(), anyInt(), anyLong(), anyLong())).thenReturn(true);
+
+        // The logout and the disconnect request are both read in the same library subscription poll
+        framer.onMessage(
+            new UnsafeBuffer(new byte[64]),
+            0,
+            64,
+            LIBRARY_ID,
+            connectionId,
+            SESSION_ID,
+            0,
+            LogoutDecoder.MESSAGE_TYPE,
+            0,
+            MessageStatus.OK,
+            1,
+            POSITION);
+        framer.onRequestDisconnect(LIBRARY_ID, connectionId, APPLICATION_DISCONNECT);
+
+        final InOrder inOrder = inOrder(mockSenderEndPoint);
+        inOrder.verify(mockSenderEndPoint).onOutboundMessage(
+            anyInt(), any(), anyInt(), anyInt(), anyInt(), anyLong(), anyLong());
+        inOrder.verify(mockSenderEndPoint).flushBatch(anyLong());
+        inOrder.verify(mockSenderEndPoint).close();
+        verifyEndPointsDisconnected(APPLICATION_DISCONNECT);
+    }
+
     @Test
     public void shouldConnectToAddress() throws Exception
     {
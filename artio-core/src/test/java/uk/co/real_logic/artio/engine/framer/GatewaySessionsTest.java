@@ -0,0 +1,274 @@
+/*
+ * Copyright 2015-2019 Real Logic Ltd, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.FixCounters;
+import uk.co.real_logic.artio.builder.Encoder;
+import uk.co.real_logic.artio.builder.HeaderEncoder;
+import uk.co.real_logic.artio.builder.HeartbeatEncoder;
+import uk.co.real_logic.artio.decoder.HeartbeatDecoder;
+import uk.co.real_logic.artio.engine.logger.SequenceNumberIndexReader;
+import uk.co.real_logic.artio.fields.UtcTimestampEncoder;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+import uk.co.real_logic.artio.session.CompositeKey;
+import uk.co.real_logic.artio.session.SessionCustomisationStrategy;
+import uk.co.real_logic.artio.session.SessionIdStrategy;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+import uk.co.real_logic.artio.validation.AuthenticationStrategy;
+import uk.co.real_logic.artio.validation.MessageValidationStrategy;
+import uk.co.real_logic.artio.validation.SessionPersistenceStrategy;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_SENDING_TIME_WINDOW;
+import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_SESSION_BUFFER_SIZE;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_REASONABLE_TRANSMISSION_TIME_IN_MS;
+import static uk.co.real_logic.artio.messages.ConnectionType.ACCEPTOR;
+import static uk.co.real_logic.artio.messages.SessionState.ACTIVE;
+
+public class GatewaySessionsTest
+{
+    private static final long CONNECTION_ID = 1;
+    private static final long SESSION_ID = 2;
+    private static final int HEARTBEAT_INTERVAL_IN_S = 1;
+
+    private static final long NEXT_TIMEOUT_IN_MS = 1_000;
+    private static final long LATER_TIMEOUT_IN_MS = 2_000;
+    // Larger than the timeout wheel's tick, so polls either side of a timeout are in different ticks
+    private static final long TICK_MARGIN_IN_MS = 10;
+
+    private final FakeEpochClock clock = new FakeEpochClock();
+    private final GatewayPublication outboundPublication = mock(GatewayPublication.class);
+    private final SessionIdStrategy sessionIdStrategy = mock(SessionIdStrategy.class);
+    private final FixCounters fixCounters = mock(FixCounters.class);
+    private final SessionContext context = mock(SessionContext.class);
+    private final ReceiverEndPoint receiverEndPoint = mock(ReceiverEndPoint.class);
+    private final SenderEndPoint senderEndPoint = mock(SenderEndPoint.class);
+
+    private final GatewaySessions gatewaySessions = new GatewaySessions(
+        clock,
+        outboundPublication,
+        sessionIdStrategy,
+        mock(SessionCustomisationStrategy.class),
+        fixCounters,
+        mock(AuthenticationStrategy.class),
+        mock(MessageValidationStrategy.class),
+        DEFAULT_SESSION_BUFFER_SIZE,
+        DEFAULT_SENDING_TIME_WINDOW,
+        DEFAULT_REASONABLE_TRANSMISSION_TIME_IN_MS,
+        false,
+        mock(ErrorHandler.class),
+        mock(SessionContexts.class),
+        mock(SessionPersistenceStrategy.class),
+        mock(SequenceNumberIndexReader.class),
+        mock(SequenceNumberIndexReader.class));
+
+    private GatewaySession gatewaySession;
+
+    @Before
+    public void setUp()
+    {
+        when(context.sessionId()).thenReturn(SESSION_ID);
+        when(fixCounters.receivedMsgSeqNo(CONNECTION_ID)).thenReturn(mock(AtomicCounter.class));
+        when(fixCounters.sentMsgSeqNo(CONNECTION_ID)).thenReturn(mock(AtomicCounter.class));
+        doAnswer(
+            (inv) ->
+            {
+                final HeaderEncoder header = (HeaderEncoder)inv.getArguments()[1];
+                header.senderCompID("sender").targetCompID("target");
+                return null;
+            }).when(sessionIdStrategy).setupSession(any(), any());
+
+        gatewaySession = spy(new GatewaySession(
+            CONNECTION_ID,
+            context,
+            "localhost",
+            ACCEPTOR,
+            mock(CompositeKey.class),
+            receiverEndPoint,
+            senderEndPoint,
+            (session) -> {},
+            false,
+            0,
+            false,
+            false));
+
+        doReturn(0).when(gatewaySession).poll(anyLong());
+        doReturn(NEXT_TIMEOUT_IN_MS).when(gatewaySession).nextTimeoutInMs();
+    }
+
+    @Test
+    public void shouldPollSessionWhenAcquired()
+    {
+        acquire();
+
+        pollSessions(0);
+
+        verify(gatewaySession).poll(0);
+    }
+
+    @Test
+    public void shouldPollSessionOnItsNextTimeout()
+    {
+        acquire();
+        pollSessions(0);
+
+        pollSessions(NEXT_TIMEOUT_IN_MS - TICK_MARGIN_IN_MS);
+        verify(gatewaySession, never()).poll(NEXT_TIMEOUT_IN_MS - TICK_MARGIN_IN_MS);
+
+        pollSessions(NEXT_TIMEOUT_IN_MS + TICK_MARGIN_IN_MS);
+        verify(gatewaySession).poll(NEXT_TIMEOUT_IN_MS + TICK_MARGIN_IN_MS);
+    }
+
+    @Test
+    public void shouldRescheduleSessionAfterItsTimeoutIsPolled()
+    {
+        acquire();
+        pollSessions(0);
+        doReturn(LATER_TIMEOUT_IN_MS).when(gatewaySession).nextTimeoutInMs();
+
+        pollSessions(NEXT_TIMEOUT_IN_MS + TICK_MARGIN_IN_MS);
+        pollSessions(LATER_TIMEOUT_IN_MS - TICK_MARGIN_IN_MS);
+        verify(gatewaySession, never()).poll(LATER_TIMEOUT_IN_MS - TICK_MARGIN_IN_MS);
+
+        pollSessions(LATER_TIMEOUT_IN_MS + TICK_MARGIN_IN_MS);
+        verify(gatewaySession).poll(LATER_TIMEOUT_IN_MS + TICK_MARGIN_IN_MS);
+    }
+
+    @Test
+    public void shouldPollSessionAgainWhilstItHasEvents()
+    {
+        doReturn(1, 0).when(gatewaySession).poll(anyLong());
+        acquire();
+
+        assertEquals(1, pollSessions(0));
+        assertEquals(0, pollSessions(1));
+        pollSessions(2);
+
+        verify(gatewaySession).poll(1);
+        verify(gatewaySession, never()).poll(2);
+    }
+
+    @Test
+    public void shouldPollSessionAfterItReceivesAMessage()
+    {
+        acquire();
+        pollSessions(0);
+
+        receiveHeartbeat();
+        pollSessions(1);
+
+        verify(gatewaySession).poll(1);
+    }
+
+    @Test
+    public void shouldPollSessionAfterEndOfDayLogout()
+    {
+        acquire();
+        pollSessions(0);
+
+        final EndOfDayOperation endOfDay = new EndOfDayOperation(
+            mock(GatewayPublication.class),
+            new ArrayList<>(),
+            gatewaySessions.sessions(),
+            mock(ReceiverEndPoints.class),
+            mock(EndOfDayCommand.class));
+        // Closes receiver end points, then logs out libraries, then logs out the gateway sessions
+        endOfDay.attempt();
+        endOfDay.attempt();
+        endOfDay.attempt();
+        pollSessions(1);
+
+        verify(gatewaySession).poll(1);
+    }
+
+    @Test
+    public void shouldNotPollReleasedSession()
+    {
+        acquire();
+        pollSessions(0);
+
+        gatewaySessions.releaseByConnectionId(CONNECTION_ID);
+        pollSessions(NEXT_TIMEOUT_IN_MS + TICK_MARGIN_IN_MS);
+
+        verify(gatewaySession, times(1)).poll(anyLong());
+    }
+
+    @Test
+    public void shouldNotPollSessionReleasedBeforeItsFirstPoll()
+    {
+        acquire();
+        gatewaySessions.releaseBySessionId(SESSION_ID);
+
+        pollSessions(0);
+
+        verify(gatewaySession, never()).poll(anyLong());
+    }
+
+    @Test
+    public void shouldNotScheduleDisconnectedSession()
+    {
+        when(receiverEndPoint.hasDisconnected()).thenReturn(true);
+        acquire();
+        pollSessions(0);
+
+        pollSessions(NEXT_TIMEOUT_IN_MS + TICK_MARGIN_IN_MS);
+
+        verify(gatewaySession, times(1)).poll(anyLong());
+    }
+
+    private void acquire()
+    {
+        gatewaySessions.acquire(
+            gatewaySession,
+            ACTIVE,
+            false,
+            HEARTBEAT_INTERVAL_IN_S,
+            0,
+            0,
+            null,
+            null,
+            mock(BlockablePosition.class));
+    }
+
+    private int pollSessions(final long timeInMs)
+    {
+        return gatewaySessions.pollSessions(timeInMs);
+    }
+
+    private void receiveHeartbeat()
+    {
+        final UtcTimestampEncoder timestampEncoder = new UtcTimestampEncoder();
+        final int timestampLength = timestampEncoder.encode(clock.time());
+        final HeartbeatEncoder heartbeat = new HeartbeatEncoder();
+        heartbeat.header()
+            .sendingTime(timestampEncoder.buffer(), timestampLength)
+            .senderCompID("target")
+            .targetCompID("sender")
+            .msgSeqNum(1);
+
+        final MutableAsciiBuffer buffer = new MutableAsciiBuffer(new byte[DEFAULT_SESSION_BUFFER_SIZE]);
+        final long result = heartbeat.encode(buffer, 0);
+        gatewaySession.onMessage(
+            buffer, Encoder.offset(result), Encoder.length(result), HeartbeatDecoder.MESSAGE_TYPE, SESSION_ID);
+    }
+}
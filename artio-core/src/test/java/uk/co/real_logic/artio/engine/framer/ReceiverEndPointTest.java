@@ -57,6 +57,7 @@ public class ReceiverEndPointTest
     private static final int LIBRARY_ID = FixEngine.ENGINE_LIBRARY_ID;
     private static final long POSITION = 1024L;
     private static final int BUFFER_SIZE = 16 * 1024;
+    private static final long IDLE_TIMEOUT_IN_MS = 1000;
     private static final int SEQUENCE_INDEX = 0;
     private static final int LOGON_LEN = LOGON_MESSAGE.length;
     public static final int OUT_OF_REQUIRED_ORDER_MSG_LEN = TAG_SPECIFIED_OUT_OF_REQUIRED_ORDER_MESSAGE_BYTES.length;
@@ -76,6 +77,12 @@ public class ReceiverEndPointTest
         .senderAndTarget()
         .onInitiateLogon("ACCEPTOR", "", "", "INIATOR", "", "");
     private ReceiverEndPoint endPoint;
+    private boolean lazyBufferCompaction = false;
+    private int bufferSize = BUFFER_SIZE;
+    private ReceiverBufferPool bufferPool = null;
+    private int readQuantum = 0;
+    private AtomicCounter quotaLimitedReads = mock(AtomicCounter.class);
+    private int bytesReceived = 0;
 
     private AcceptorLogonResult createSuccessfulPendingAuth()
     {
@@ -134,10 +141,10 @@ public class ReceiverEndPointTest
     private void givenReceiverEndPoint(final long sessionId)
     {
         endPoint = new ReceiverEndPoint(
-            mockChannel, BUFFER_SIZE, publication,
+            mockChannel, bufferSize, publication,
             CONNECTION_ID, sessionId, SEQUENCE_INDEX, mockSessionContexts,
             messagesRead, framer, errorHandler, LIBRARY_ID,
-            mockGatewaySessions);
+            mockGatewaySessions, lazyBufferCompaction, bufferPool, readQuantum, quotaLimitedReads);
         endPoint.gatewaySession(gatewaySession);
     }
 
@@ -233,6 +240,25 @@ public class ReceiverEndPointTest
         shouldFrameValidFixMessage();
     }
 
+    @Test
+    public void shouldSaveOnlyTheMessageWithBodyLengthTooShortAfterAValidMessage()
+    {
+        final int length = INVALID_LENGTH_MESSAGE.length;
+        endpointBufferUpdatedWith(
+            (buffer) ->
+            {
+                buffer.put(EG_MESSAGE).put(INVALID_LENGTH_MESSAGE);
+                return MSG_LEN + length;
+            });
+
+        endPoint.poll();
+
+        savesAFramedMessage();
+        savesInvalidMessage(MSG_LEN, length, times(1), INVALID_BODYLENGTH);
+        verifyNoError();
+        verifyNotDisconnected();
+    }
+
     @Test
     public void shouldOnlyFrameCompleteFixMessage()
     {
@@ -295,6 +321,100 @@ public class ReceiverEndPointTest
         sessionReceivesTwoMessageAtBufferStart();
     }
 
+    @Test
+    public void shouldFrameSecondSplitMessageInPlaceWithLazyBufferCompaction()
+    {
+        lazyBufferCompaction = true;
+        givenAnAuthenticatedReceiverEndPoint();
+
+        theEndpointReceivesACompleteAndAnIncompleteMessage();
+        endPoint.poll();
+
+        theEndpointReceivesTheRestOfTheMessage();
+        endPoint.poll();
+
+        savesTwoFramedMessages(1);
+
+        sessionReceivesTwoMessages();
+    }
+
+    @Test
+    public void shouldFrameMessagesAtBufferStartOnceDrainedWithLazyBufferCompaction()
+    {
+        lazyBufferCompaction = true;
+        givenAnAuthenticatedReceiverEndPoint();
+
+        theEndpointReceivesACompleteMessage();
+        endPoint.poll();
+
+        theEndpointReceivesACompleteMessage();
+        endPoint.poll();
+
+        savesFramedMessages(2, OK, MSG_LEN);
+
+        sessionReceivesTwoMessageAtBufferStart();
+    }
+
+    @Test
+    public void shouldFrameMessageLargerThanInitialBufferInPooledBuffer()
+    {
+        givenAPooledReceiverEndPoint();
+
+        theEndpointReceivesACompleteMessageInChunks();
+        endPoint.poll();
+        endPoint.poll();
+
+        savesAFramedMessage();
+        sessionReceivesOneMessage();
+        assertEquals(1, bufferPool.buffersInUse());
+    }
+
+    @Test
+    public void shouldReturnPooledBufferOnceIdle()
+    {
+        givenAPooledReceiverEndPoint();
+
+        theEndpointReceivesACompleteMessageInChunks();
+        endPoint.poll();
+        endPoint.poll();
+
+        assertEquals(0, bufferPool.releaseIdleBuffers(IDLE_TIMEOUT_IN_MS - 1));
+        assertEquals(1, bufferPool.buffersInUse());
+
+        assertEquals(1, bufferPool.releaseIdleBuffers(IDLE_TIMEOUT_IN_MS));
+        assertEquals(0, bufferPool.buffersInUse());
+    }
+
+    @Test
+    public void shouldReturnPooledBufferWhenClosed()
+    {
+        givenAPooledReceiverEndPoint();
+
+        theEndpointReceivesACompleteMessageInChunks();
+        endPoint.poll();
+        endPoint.poll();
+
+        endPoint.close(REMOTE_DISCONNECT);
+
+        assertEquals(0, bufferPool.buffersInUse());
+    }
+
+    @Test
+    public void shouldLimitReadsToReadQuantum()
+    {
+        readQuantum = MSG_LEN - 8;
+        givenAnAuthenticatedReceiverEndPoint();
+
+        theEndpointReceivesACompleteMessageInChunks();
+        polls(MSG_LEN - 8);
+        nothingMoreSaved();
+
+        polls(8);
+        savesAFramedMessage();
+        sessionReceivesOneMessage();
+        verify(quotaLimitedReads, times(1)).increment();
+    }
+
     @Test
     public void aClosedSocketSavesItsDisconnect() throws IOException
     {
@@ -495,9 +615,15 @@ public class ReceiverEndPointTest
     }
 
     private void savesInvalidMessage(final int length, final VerificationMode mode, final MessageStatus status)
+    {
+        savesInvalidMessage(0, length, mode, status);
+    }
+
+    private void savesInvalidMessage(
+        final int offset, final int length, final VerificationMode mode, final MessageStatus status)
     {
         verify(publication, mode).saveMessage(
-            anyBuffer(), eq(0), eq(length), eq(LIBRARY_ID),
+            anyBuffer(), eq(offset), eq(length), eq(LIBRARY_ID),
             anyInt(), anyLong(), anyInt(), eq(CONNECTION_ID),
             eq(status), eq(0));
     }
@@ -604,6 +730,26 @@ public class ReceiverEndPointTest
         theEndpointReceivesTwoMessages(0, MSG_LEN - 8);
     }
 
+    private void givenAPooledReceiverEndPoint()
+    {
+        bufferSize = MSG_LEN / 2;
+        bufferPool = new ReceiverBufferPool(
+            BUFFER_SIZE, IDLE_TIMEOUT_IN_MS, mock(AtomicCounter.class), mock(AtomicCounter.class));
+        givenAnAuthenticatedReceiverEndPoint();
+    }
+
+    private void theEndpointReceivesACompleteMessageInChunks()
+    {
+        endpointBufferUpdatedWith(
+            (buffer) ->
+            {
+                final int length = Math.min(buffer.remaining(), MSG_LEN - bytesReceived);
+                buffer.put(EG_MESSAGE, bytesReceived, length);
+                bytesReceived += length;
+                return length;
+            });
+    }
+
     private void theEndpointReceives(final byte[] data, final int offset, final int length)
     {
         endpointBufferUpdatedWith(
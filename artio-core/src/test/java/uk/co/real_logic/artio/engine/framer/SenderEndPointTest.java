@@ -76,7 +76,27 @@ public class SenderEndPointTest
         MAX_BYTES_IN_BUFFER,
         DEFAULT_SLOW_CONSUMER_TIMEOUT_IN_MS,
         0,
-        senderSequenceNumber);
+        senderSequenceNumber,
+        0);
+
+    private SenderEndPoint batchingEndPoint(final int writeBatchSize)
+    {
+        return new SenderEndPoint(
+            CONNECTION_ID,
+            LIBRARY_ID,
+            libraryBlockablePosition,
+            replayBlockablePosition,
+            tcpChannel,
+            bytesInBuffer,
+            invalidLibraryAttempts,
+            errorHandler,
+            framer,
+            MAX_BYTES_IN_BUFFER,
+            DEFAULT_SLOW_CONSUMER_TIMEOUT_IN_MS,
+            0,
+            senderSequenceNumber,
+            writeBatchSize);
+    }
 
     @Test
     public void shouldRetrySlowConsumerMessage()
@@ -416,6 +436,95 @@ public class SenderEndPointTest
         verifyNoMoreErrors();
     }
 
+    @Test
+    public void shouldBatchOutboundMessagesIntoSingleWrite() throws IOException
+    {
+        endPoint = batchingEndPoint(1024);
+        when(tcpChannel.write(any(ByteBuffer.class))).thenReturn(2 * BODY_LENGTH);
+
+        assertTrue(endPoint.onOutboundMessage(LIBRARY_ID, buffer, 0, BODY_LENGTH, 0, POSITION - FRAGMENT_LENGTH, 0));
+        assertFalse(endPoint.onOutboundMessage(LIBRARY_ID, buffer, 0, BODY_LENGTH, 0, POSITION, 0));
+        verify(tcpChannel, never()).write(any(ByteBuffer.class));
+
+        endPoint.flushBatch(0);
+
+        verify(tcpChannel, times(1)).write(any(ByteBuffer.class));
+        assertBytesInBuffer(0);
+        verifyDoesNotBlockLibrary();
+        verifyNoMoreErrors();
+    }
+
+    @Test
+    public void shouldRetryPartiallyWrittenBatchAsSlowConsumer() throws IOException
+    {
+        final int firstWrites = 41;
+        final int remaining = BODY_LENGTH - firstWrites;
+
+        endPoint = batchingEndPoint(1024);
+        when(tcpChannel.write(any(ByteBuffer.class))).thenReturn(BODY_LENGTH + firstWrites);
+
+        endPoint.onOutboundMessage(LIBRARY_ID, buffer, 0, BODY_LENGTH, 0, POSITION - FRAGMENT_LENGTH, 0);
+        endPoint.onOutboundMessage(LIBRARY_ID, buffer, 0, BODY_LENGTH, 0, POSITION, 0);
+        endPoint.flushBatch(0);
+        assertBytesInBuffer(remaining);
+        reset(tcpChannel);
+
+        channelWillWrite(remaining);
+        onSlowOutboundMessage();
+        byteBufferWritten();
+        assertBytesInBuffer(0);
+        verifyDoesNotBlockLibrary();
+        verifyNoMoreErrors();
+    }
+
+    @Test
+    public void shouldGatherWriteMessagesThatDoNotFitIntoBatch() throws IOException
+    {
+        endPoint = batchingEndPoint(BODY_LENGTH + 10);
+        when(tcpChannel.write(any(ByteBuffer[].class))).thenReturn((long)(2 * BODY_LENGTH));
+
+        assertTrue(endPoint.onOutboundMessage(LIBRARY_ID, buffer, 0, BODY_LENGTH, 0, POSITION - FRAGMENT_LENGTH, 0));
+        assertFalse(endPoint.onOutboundMessage(LIBRARY_ID, buffer, 0, BODY_LENGTH, 0, POSITION, 0));
+
+        verify(tcpChannel, times(1)).write(any(ByteBuffer[].class));
+        assertBytesInBuffer(0);
+
+        endPoint.flushBatch(0);
+        verify(tcpChannel, never()).write(any(ByteBuffer.class));
+        verifyNoMoreErrors();
+    }
+
+    @Test
+    public void shouldOnlyUpdateSentSequenceNumberOnceBatchIsWritten() throws IOException
+    {
+        endPoint = batchingEndPoint(1024);
+        when(tcpChannel.write(any(ByteBuffer.class))).thenReturn(2 * BODY_LENGTH);
+
+        endPoint.onOutboundMessage(LIBRARY_ID, buffer, 0, BODY_LENGTH, 1, POSITION - FRAGMENT_LENGTH, 0);
+        endPoint.onOutboundMessage(LIBRARY_ID, buffer, 0, BODY_LENGTH, 2, POSITION, 0);
+        verify(senderSequenceNumber, never()).onNewMessage(anyInt());
+
+        endPoint.flushBatch(0);
+
+        verify(senderSequenceNumber).onNewMessage(2);
+        verifyNoMoreInteractions(senderSequenceNumber);
+    }
+
+    @Test
+    public void shouldUpdateSentSequenceNumberWhenMessageIsGatherWrittenWithBatch() throws IOException
+    {
+        endPoint = batchingEndPoint(BODY_LENGTH + 10);
+        when(tcpChannel.write(any(ByteBuffer[].class))).thenReturn((long)(2 * BODY_LENGTH));
+
+        endPoint.onOutboundMessage(LIBRARY_ID, buffer, 0, BODY_LENGTH, 1, POSITION - FRAGMENT_LENGTH, 0);
+        verify(senderSequenceNumber, never()).onNewMessage(anyInt());
+
+        endPoint.onOutboundMessage(LIBRARY_ID, buffer, 0, BODY_LENGTH, 2, POSITION, 0);
+
+        verify(senderSequenceNumber).onNewMessage(2);
+        verifyNoMoreInteractions(senderSequenceNumber);
+    }
+
     private void byteBufferNotWritten()
     {
         byteBufferWritten(never());
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2015-2019 Real Logic Ltd, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.ErrorHandler;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.TimeoutWheel;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+
+public class SenderEndPointsTest
+{
+    private static final long CONNECTION_ID = 1;
+    private static final long SENDING_TIMEOUT_IN_MS = 1_000;
+    private static final long LATER_SENDING_TIMEOUT_IN_MS = 2_000;
+    // Larger than the timeout wheel's tick, so checks either side of a timeout are in different ticks
+    private static final long TICK_MARGIN_IN_MS = 10;
+
+    private final SenderEndPoint senderEndPoint = mock(SenderEndPoint.class);
+    private final SenderEndPoints senderEndPoints = new SenderEndPoints(mock(ErrorHandler.class), 0);
+
+    private long slowConsumerTimerId = TimeoutWheel.NO_TIMER;
+
+    @Before
+    public void setUp()
+    {
+        when(senderEndPoint.connectionId()).thenReturn(CONNECTION_ID);
+        when(senderEndPoint.isSlowConsumer()).thenReturn(true);
+        when(senderEndPoint.sendingTimeoutTimeInMs()).thenReturn(SENDING_TIMEOUT_IN_MS);
+        when(senderEndPoint.checkTimeouts(anyLong())).thenReturn(true);
+        when(senderEndPoint.slowConsumerTimerId()).then((inv) -> slowConsumerTimerId);
+        doAnswer(
+            (inv) ->
+            {
+                slowConsumerTimerId = inv.getArgument(0);
+                return null;
+            }).when(senderEndPoint).slowConsumerTimerId(anyLong());
+
+        senderEndPoints.add(senderEndPoint);
+    }
+
+    @Test
+    public void shouldNotCheckEndPointThatHasNotBecomeSlow()
+    {
+        assertEquals(0, checkTimeouts(SENDING_TIMEOUT_IN_MS + TICK_MARGIN_IN_MS));
+
+        verify(senderEndPoint, never()).checkTimeouts(anyLong());
+    }
+
+    @Test
+    public void shouldCheckSlowConsumerOnceItsSendingTimeoutHasPassed()
+    {
+        senderEndPoints.onSlowStatus(CONNECTION_ID, true);
+
+        assertEquals(0, checkTimeouts(SENDING_TIMEOUT_IN_MS - TICK_MARGIN_IN_MS));
+        verify(senderEndPoint, never()).checkTimeouts(anyLong());
+
+        assertEquals(1, checkTimeouts(SENDING_TIMEOUT_IN_MS + TICK_MARGIN_IN_MS));
+        verify(senderEndPoint).checkTimeouts(SENDING_TIMEOUT_IN_MS + TICK_MARGIN_IN_MS);
+    }
+
+    @Test
+    public void shouldRescheduleSlowConsumerThatHasWrittenSinceBecomingSlow()
+    {
+        when(senderEndPoint.checkTimeouts(anyLong())).thenReturn(false, true);
+        senderEndPoints.onSlowStatus(CONNECTION_ID, true);
+
+        when(senderEndPoint.sendingTimeoutTimeInMs()).thenReturn(LATER_SENDING_TIMEOUT_IN_MS);
+        assertEquals(0, checkTimeouts(SENDING_TIMEOUT_IN_MS + TICK_MARGIN_IN_MS));
+
+        assertEquals(0, checkTimeouts(LATER_SENDING_TIMEOUT_IN_MS - TICK_MARGIN_IN_MS));
+        verify(senderEndPoint, times(1)).checkTimeouts(anyLong());
+
+        assertEquals(1, checkTimeouts(LATER_SENDING_TIMEOUT_IN_MS + TICK_MARGIN_IN_MS));
+        verify(senderEndPoint).checkTimeouts(LATER_SENDING_TIMEOUT_IN_MS + TICK_MARGIN_IN_MS);
+    }
+
+    @Test
+    public void shouldNotRescheduleEndPointThatIsNoLongerSlow()
+    {
+        when(senderEndPoint.checkTimeouts(anyLong())).thenReturn(false);
+        senderEndPoints.onSlowStatus(CONNECTION_ID, true);
+
+        when(senderEndPoint.isSlowConsumer()).thenReturn(false);
+        checkTimeouts(SENDING_TIMEOUT_IN_MS + TICK_MARGIN_IN_MS);
+        checkTimeouts(LATER_SENDING_TIMEOUT_IN_MS + TICK_MARGIN_IN_MS);
+
+        verify(senderEndPoint, times(1)).checkTimeouts(anyLong());
+        assertEquals(TimeoutWheel.NO_TIMER, slowConsumerTimerId);
+    }
+
+    @Test
+    public void shouldOnlyScheduleOneTimeoutWhenRepeatedlyBecomingSlow()
+    {
+        senderEndPoints.onSlowStatus(CONNECTION_ID, true);
+        senderEndPoints.onSlowStatus(CONNECTION_ID, true);
+
+        assertEquals(1, checkTimeouts(SENDING_TIMEOUT_IN_MS + TICK_MARGIN_IN_MS));
+
+        verify(senderEndPoint, times(1)).checkTimeouts(anyLong());
+    }
+
+    @Test
+    public void shouldCancelTimeoutWhenNoLongerSlow()
+    {
+        senderEndPoints.onSlowStatus(CONNECTION_ID, true);
+
+        senderEndPoints.onSlowStatus(CONNECTION_ID, false);
+        assertEquals(TimeoutWheel.NO_TIMER, slowConsumerTimerId);
+
+        assertEquals(0, checkTimeouts(SENDING_TIMEOUT_IN_MS + TICK_MARGIN_IN_MS));
+        verify(senderEndPoint, never()).checkTimeouts(anyLong());
+    }
+
+    @Test
+    public void shouldCancelTimeoutWhenConnectionRemoved()
+    {
+        senderEndPoints.onSlowStatus(CONNECTION_ID, true);
+
+        senderEndPoints.removeConnection(CONNECTION_ID);
+        verify(senderEndPoint).close();
+
+        assertEquals(0, checkTimeouts(SENDING_TIMEOUT_IN_MS + TICK_MARGIN_IN_MS));
+        verify(senderEndPoint, never()).checkTimeouts(anyLong());
+    }
+
+    private int checkTimeouts(final long timeInMs)
+    {
+        return senderEndPoints.checkTimeouts(timeInMs);
+    }
+}
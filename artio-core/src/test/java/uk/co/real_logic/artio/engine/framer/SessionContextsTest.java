@@ -113,6 +113,22 @@ public class SessionContextsTest
         assertNotEquals("C is a duplicate of B", bContext, cContext);
     }
 
+    @Test
+    public void resetsSequenceIndexOfSessionLoadedFromFile()
+    {
+        final SessionContext aContext = sessionContexts.onLogon(aSession);
+        aContext.onSequenceReset();
+
+        final SessionContexts sessionContextsAfterRestart = newSessionContexts(buffer);
+        assertTrue(sessionContextsAfterRestart.isKnownSessionId(aContext.sessionId()));
+        assertEquals(aContext.sessionId(), sessionContextsAfterRestart.lookupSessionId(aSession));
+
+        sessionContextsAfterRestart.sequenceReset(aContext.sessionId());
+
+        final SessionContext aContextAfterRestart = sessionContextsAfterRestart.onLogon(aSession);
+        assertEquals(aContext.sequenceIndex() + 1, aContextAfterRestart.sequenceIndex());
+    }
+
     @Test
     public void checksFileCorruption()
     {
@@ -160,6 +176,44 @@ public class SessionContextsTest
             .forEach((i) -> assertValuesEqual(contexts.get(i), contextsAfterRestart.onLogon(keys.get(i))));
     }
 
+    @Test
+    public void growsFileWhenOutOfSpace() throws IOException
+    {
+        final int keyCount = 600;
+        final int maxFileSize = BUFFER_SIZE * 4;
+        final File file = File.createTempFile("sessionContexts", "tmp");
+        IoUtil.deleteIfExists(file);
+        final MappedFile growableFile = MappedFile.map(file, BUFFER_SIZE);
+        try
+        {
+            final SessionContexts growableContexts = new SessionContexts(
+                growableFile, idStrategy, errorHandler, maxFileSize, null, null);
+            final List<CompositeKey> keys = IntStream
+                .range(0, keyCount)
+                .mapToObj((i) -> idStrategy.onInitiateLogon("b" + i, null, null, "a" + i, null, null))
+                .collect(toList());
+            final List<SessionContext> contexts = keys
+                .stream()
+                .map(growableContexts::onLogon)
+                .collect(toList());
+
+            assertEquals(maxFileSize, growableFile.buffer().capacity());
+            verifyNoMoreInteractions(errorHandler);
+
+            final SessionContexts contextsAfterRestart = new SessionContexts(
+                growableFile, idStrategy, errorHandler, maxFileSize, null, null);
+            IntStream
+                .range(0, keyCount)
+                .forEach((i) -> assertEquals(
+                    contexts.get(i).sessionId(), contextsAfterRestart.lookupSessionId(keys.get(i))));
+        }
+        finally
+        {
+            growableFile.close();
+            IoUtil.deleteIfExists(file);
+        }
+    }
+
     @Test
     public void resetsSessionContexts()
     {
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2015-2019 Real Logic Ltd, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static uk.co.real_logic.artio.engine.framer.SessionKeyTable.MISSING;
+
+public class SessionKeyTableTest
+{
+    private static final int KEY_COUNT = 1000;
+
+    private final SessionKeyTable table = new SessionKeyTable(16);
+    private final UnsafeBuffer keyBuffer = new UnsafeBuffer(new byte[64]);
+
+    @Test
+    public void shouldFindKeysAfterGrowing()
+    {
+        for (int i = 0; i < KEY_COUNT; i++)
+        {
+            put("sender" + i + "target" + i, i + 1, i * 10);
+        }
+
+        assertEquals(KEY_COUNT, table.size());
+        for (int i = 0; i < KEY_COUNT; i++)
+        {
+            final int slot = find("sender" + i + "target" + i);
+            assertEquals(i + 1, table.sessionId(slot));
+            assertEquals(i * 10, table.filePosition(slot));
+        }
+        assertEquals(MISSING, find("sender" + KEY_COUNT + "target" + KEY_COUNT));
+    }
+
+    @Test
+    public void shouldUpdateValuesOfExistingKey()
+    {
+        put("a-b", 1, 8);
+        put("a-b", 2, 16);
+
+        final int slot = find("a-b");
+        assertEquals(1, table.size());
+        assertEquals(2, table.sessionId(slot));
+        assertEquals(16, table.filePosition(slot));
+        assertEquals(slot, table.findBySessionId(2));
+        assertEquals(MISSING, table.findBySessionId(1));
+    }
+
+    @Test
+    public void shouldNotFindKeysAfterClear()
+    {
+        put("a-b", 1, 8);
+
+        table.clear();
+
+        assertEquals(0, table.size());
+        assertEquals(MISSING, find("a-b"));
+    }
+
+    private void put(final String key, final long sessionId, final int filePosition)
+    {
+        final int length = keyBuffer.putStringWithoutLengthAscii(0, key);
+        table.put(keyBuffer, 0, length, sessionId, filePosition);
+    }
+
+    private int find(final String key)
+    {
+        final int length = keyBuffer.putStringWithoutLengthAscii(0, key);
+        return table.find(keyBuffer, 0, length);
+    }
+}
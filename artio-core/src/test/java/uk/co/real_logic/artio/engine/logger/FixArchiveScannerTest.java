@@ -0,0 +1,202 @@
+/*
+ * Copyright 2015-2019 Real Logic Ltd, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.Aeron;
+import io.aeron.CommonContext;
+import io.aeron.ExclusivePublication;
+import io.aeron.archive.ArchivingMediaDriver;
+import io.aeron.archive.client.AeronArchive;
+import io.aeron.archive.codecs.SourceLocation;
+import io.aeron.archive.status.RecordingPos;
+import org.agrona.concurrent.status.CountersReader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.CommonConfiguration;
+import uk.co.real_logic.artio.TestFixtures;
+import uk.co.real_logic.artio.dictionary.generation.Exceptions;
+import uk.co.real_logic.artio.messages.FixMessageDecoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.*;
+import static uk.co.real_logic.artio.TestFixtures.cleanupMediaDriver;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_ARCHIVE_SCANNER_STREAM;
+import static uk.co.real_logic.artio.engine.logger.FixMessagePredicates.*;
+
+public class FixArchiveScannerTest extends AbstractLogTest
+{
+    private static final String CHANNEL = CommonContext.IPC_CHANNEL;
+    private static final int RECORDINGS = 5;
+    private static final int MESSAGES_PER_RECORDING = 20;
+    private static final int PARALLELISM = 3;
+
+    private final List<ExclusivePublication> publications = new ArrayList<>();
+
+    private ArchivingMediaDriver mediaDriver;
+    private AeronArchive aeronArchive;
+
+    @Before
+    public void setUp()
+    {
+        mediaDriver = TestFixtures.launchMediaDriver();
+        aeronArchive = AeronArchive.connect();
+        aeronArchive.startRecording(CHANNEL, STREAM_ID, SourceLocation.LOCAL);
+
+        // Each exclusive publication is a new image, so the archive records it as a separate recording
+        for (int recording = 0; recording < RECORDINGS; recording++)
+        {
+            final ExclusivePublication publication = aeron().addExclusivePublication(CHANNEL, STREAM_ID);
+            publications.add(publication);
+
+            for (int sequenceNumber = 1; sequenceNumber <= MESSAGES_PER_RECORDING; sequenceNumber++)
+            {
+                bufferContainsExampleMessage(false, recording, sequenceNumber, SEQUENCE_INDEX);
+                while (publication.offer(buffer, START, fragmentLength()) <= 0)
+                {
+                    Thread.yield();
+                }
+            }
+
+            awaitRecorded(publication);
+        }
+    }
+
+    @After
+    public void teardown()
+    {
+        Exceptions.closeAll(publications);
+        Exceptions.closeAll(aeronArchive);
+        cleanupMediaDriver(mediaDriver);
+    }
+
+    @Test(timeout = 20_000L)
+    public void shouldDeliverMessagesInSequentialOrderWhenScanningInParallel()
+    {
+        final List<String> sequentialMessages = new ArrayList<>();
+        scan(1, true,
+            (message, buffer, offset, length, header) -> sequentialMessages.add(messageId(message)));
+
+        final List<String> parallelMessages = new ArrayList<>();
+        scan(PARALLELISM, true,
+            (message, buffer, offset, length, header) -> parallelMessages.add(messageId(message)));
+
+        assertThat(sequentialMessages, hasSize(RECORDINGS * MESSAGES_PER_RECORDING));
+        assertEquals(sequentialMessages, parallelMessages);
+    }
+
+    @Test(timeout = 20_000L)
+    public void shouldDeliverEveryMessageOnceWhenScanningUnordered()
+    {
+        final Map<String, Integer> deliveries = new ConcurrentHashMap<>();
+        scan(PARALLELISM, false,
+            (message, buffer, offset, length, header) -> deliveries.merge(messageId(message), 1, Integer::sum));
+
+        assertEquals(RECORDINGS * MESSAGES_PER_RECORDING, deliveries.size());
+        for (final Map.Entry<String, Integer> delivery : deliveries.entrySet())
+        {
+            assertEquals(delivery.getKey(), 1, (int)delivery.getValue());
+        }
+    }
+
+    @Test(timeout = 20_000L)
+    public void shouldFilterEveryMessageOnceWhenScanningUnordered()
+    {
+        final Map<String, Integer> deliveries = new ConcurrentHashMap<>();
+        final FixMessagePredicate predicate = whereHeader(senderCompIdOf(BUFFER_SENDER))
+            .and(bodyMatches(Pattern.compile(".*\\x0134=1[0-9]\\x01.*")));
+        scan(PARALLELISM, false, filterBy(
+            (message, buffer, offset, length, header) -> deliveries.merge(messageId(message), 1, Integer::sum),
+            predicate));
+
+        // Sequence numbers 10 to 19 of each recording
+        assertEquals(RECORDINGS * 10, deliveries.size());
+        for (final Map.Entry<String, Integer> delivery : deliveries.entrySet())
+        {
+            assertEquals(delivery.getKey(), 1, (int)delivery.getValue());
+        }
+    }
+
+    @Test(timeout = 20_000L)
+    public void shouldRaiseScanLaneFailureOnCallingThread()
+    {
+        final IllegalStateException failure = new IllegalStateException("lane failure");
+
+        try
+        {
+            scan(PARALLELISM, false,
+                (message, buffer, offset, length, header) ->
+                {
+                    if (message.session() == RECORDINGS - 1)
+                    {
+                        throw failure;
+                    }
+                });
+
+            fail("Scan should have raised the lane's failure");
+        }
+        catch (final IllegalStateException ex)
+        {
+            assertSame(failure, ex);
+        }
+    }
+
+    private void scan(final int parallelism, final boolean ordered, final FixMessageConsumer handler)
+    {
+        final FixArchiveScanner.Context context = new FixArchiveScanner.Context()
+            .aeronDirectoryName(mediaDriver.mediaDriver().aeronDirectoryName())
+            .idleStrategy(CommonConfiguration.backoffIdleStrategy())
+            .parallelism(parallelism)
+            .ordered(ordered);
+
+        try (FixArchiveScanner scanner = new FixArchiveScanner(context))
+        {
+            scanner.scan(CHANNEL, STREAM_ID, handler, false, DEFAULT_ARCHIVE_SCANNER_STREAM);
+        }
+    }
+
+    private static String messageId(final FixMessageDecoder message)
+    {
+        return message.session() + ":" + message.body();
+    }
+
+    private void awaitRecorded(final ExclusivePublication publication)
+    {
+        final CountersReader counters = aeron().countersReader();
+        int counterId;
+        while ((counterId = RecordingPos.findCounterIdBySession(counters, publication.sessionId())) ==
+            CountersReader.NULL_COUNTER_ID)
+        {
+            Thread.yield();
+        }
+
+        while (counters.getCounterValue(counterId) < publication.position())
+        {
+            Thread.yield();
+        }
+    }
+
+    private Aeron aeron()
+    {
+        return aeronArchive.context().aeron();
+    }
+}
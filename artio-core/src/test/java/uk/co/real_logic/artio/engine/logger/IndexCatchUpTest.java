@@ -0,0 +1,165 @@
+/*
+ * Copyright 2015-2019 Real Logic Ltd, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.Aeron;
+import io.aeron.Image;
+import io.aeron.Subscription;
+import io.aeron.archive.client.AeronArchive;
+import io.aeron.logbuffer.FragmentHandler;
+import io.aeron.logbuffer.Header;
+import org.agrona.DirectBuffer;
+import org.agrona.ErrorHandler;
+import org.agrona.collections.Int2ObjectHashMap;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static io.aeron.CommonContext.IPC_CHANNEL;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class IndexCatchUpTest
+{
+    private static final int ARCHIVE_REPLAY_STREAM = 110;
+    private static final int FRAGMENT_LENGTH = 1024;
+    private static final int AERON_SESSION_ID = 3;
+    private static final int REPLAY_SESSION_ID_OFFSET = 100;
+
+    private static final long FIRST_RECORDING = 1;
+    private static final long SECOND_RECORDING = 2;
+    private static final long THIRD_RECORDING = 3;
+
+    private final AeronArchive aeronArchive = mock(AeronArchive.class);
+    private final AeronArchive.Context archiveContext = mock(AeronArchive.Context.class);
+    private final Aeron aeron = mock(Aeron.class);
+    private final Subscription subscription = mock(Subscription.class);
+    private final ErrorHandler errorHandler = mock(ErrorHandler.class);
+    private final UnsafeBuffer buffer = new UnsafeBuffer(new byte[FRAGMENT_LENGTH]);
+    private final Int2ObjectHashMap<Image> replayImages = new Int2ObjectHashMap<>();
+
+    @Before
+    public void setUp()
+    {
+        when(aeronArchive.context()).thenReturn(archiveContext);
+        when(archiveContext.aeron()).thenReturn(aeron);
+        when(aeron.addSubscription(IPC_CHANNEL, ARCHIVE_REPLAY_STREAM)).thenReturn(subscription);
+        when(subscription.imageBySessionId(anyInt())).then(inv -> replayImages.get(inv.<Integer>getArgument(0)));
+
+        when(aeronArchive.startReplay(anyLong(), anyLong(), anyLong(), eq(IPC_CHANNEL), eq(ARCHIVE_REPLAY_STREAM)))
+            .then(inv ->
+            {
+                final long recordingId = inv.getArgument(0);
+                final long startPosition = inv.getArgument(1);
+                final int replaySessionId = (int)recordingId + REPLAY_SESSION_ID_OFFSET;
+                replayImages.put(replaySessionId, replayImage(replaySessionId, startPosition));
+                return (long)replaySessionId;
+            });
+
+        recordingStopsAt(FIRST_RECORDING, 8 * FRAGMENT_LENGTH);
+        recordingStopsAt(SECOND_RECORDING, 4 * FRAGMENT_LENGTH);
+        recordingStopsAt(THIRD_RECORDING, 16 * FRAGMENT_LENGTH);
+    }
+
+    @Test(timeout = 20_000L)
+    public void shouldCatchUpEachIndexToItsRecordingsStopPositions()
+    {
+        final FakeIndex twoRecordingIndex = new FakeIndex()
+            .indexedUpTo(FIRST_RECORDING, 2 * FRAGMENT_LENGTH)
+            .indexedUpTo(SECOND_RECORDING, 0);
+        final FakeIndex oneRecordingIndex = new FakeIndex()
+            .indexedUpTo(THIRD_RECORDING, 5 * FRAGMENT_LENGTH);
+        final FakeIndex caughtUpIndex = new FakeIndex()
+            .indexedUpTo(FIRST_RECORDING, 8 * FRAGMENT_LENGTH);
+
+        new IndexCatchUp(aeronArchive, errorHandler, ARCHIVE_REPLAY_STREAM)
+            .catchUp(Arrays.asList(twoRecordingIndex, oneRecordingIndex, caughtUpIndex));
+
+        twoRecordingIndex.assertIndexedUpTo(FIRST_RECORDING, 8 * FRAGMENT_LENGTH);
+        twoRecordingIndex.assertIndexedUpTo(SECOND_RECORDING, 4 * FRAGMENT_LENGTH);
+        oneRecordingIndex.assertIndexedUpTo(THIRD_RECORDING, 16 * FRAGMENT_LENGTH);
+        caughtUpIndex.assertIndexedUpTo(FIRST_RECORDING, 8 * FRAGMENT_LENGTH);
+
+        verify(aeronArchive).startReplay(
+            FIRST_RECORDING, 2 * FRAGMENT_LENGTH, 6 * FRAGMENT_LENGTH, IPC_CHANNEL, ARCHIVE_REPLAY_STREAM);
+        verify(aeronArchive).startReplay(
+            SECOND_RECORDING, 0, 4 * FRAGMENT_LENGTH, IPC_CHANNEL, ARCHIVE_REPLAY_STREAM);
+        verify(aeronArchive).startReplay(
+            THIRD_RECORDING, 5 * FRAGMENT_LENGTH, 11 * FRAGMENT_LENGTH, IPC_CHANNEL, ARCHIVE_REPLAY_STREAM);
+        verifyNoMoreInteractions(errorHandler);
+    }
+
+    private void recordingStopsAt(final long recordingId, final long stopPosition)
+    {
+        when(aeronArchive.getStopPosition(recordingId)).thenReturn(stopPosition);
+    }
+
+    // Delivers one fragment per poll, so that the replays of different indexes are interleaved.
+    private Image replayImage(final int replaySessionId, final long startPosition)
+    {
+        final long[] position = { startPosition };
+        final Image image = mock(Image.class);
+        final Header header = mock(Header.class);
+        when(header.sessionId()).thenReturn(replaySessionId);
+        when(header.position()).then(inv -> position[0]);
+        when(image.position()).then(inv -> position[0]);
+        when(image.poll(any(), anyInt())).then(inv ->
+        {
+            position[0] += FRAGMENT_LENGTH;
+            final FragmentHandler handler = inv.getArgument(0);
+            handler.onFragment(buffer, 0, FRAGMENT_LENGTH, header);
+            return 1;
+        });
+
+        return image;
+    }
+
+    private static final class FakeIndex implements Index
+    {
+        private final Map<Long, Long> recordingIdToPosition = new LinkedHashMap<>();
+
+        FakeIndex indexedUpTo(final long recordingId, final long position)
+        {
+            recordingIdToPosition.put(recordingId, position);
+            return this;
+        }
+
+        void assertIndexedUpTo(final long recordingId, final long position)
+        {
+            assertEquals(position, (long)recordingIdToPosition.get(recordingId));
+        }
+
+        public void onFragment(final DirectBuffer buffer, final int offset, final int length, final Header header)
+        {
+            recordingIdToPosition.put((long)header.sessionId() - REPLAY_SESSION_ID_OFFSET, header.position());
+        }
+
+        public void readLastPosition(final IndexedPositionConsumer consumer)
+        {
+            recordingIdToPosition.forEach((recordingId, position) ->
+                consumer.accept(AERON_SESSION_ID, recordingId, position));
+        }
+
+        public void close()
+        {
+        }
+    }
+}
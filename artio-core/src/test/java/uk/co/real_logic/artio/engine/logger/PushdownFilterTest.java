@@ -0,0 +1,124 @@
+/*
+ * Copyright 2015-2019 Real Logic Ltd, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.logbuffer.FragmentHandler;
+import io.aeron.logbuffer.Header;
+import io.aeron.protocol.DataHeaderFlyweight;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.engine.logger.FixMessagePredicates.*;
+
+public class PushdownFilterTest extends AbstractLogTest
+{
+    private static final int SECOND_FRAGMENT_LENGTH = 5;
+
+    private final FixMessageConsumer consumer = mock(FixMessageConsumer.class);
+    private final FragmentHandler assembler = mock(FragmentHandler.class);
+    private final Header fragmentHeader = mock(Header.class);
+
+    @Before
+    public void setUp()
+    {
+        when(fragmentHeader.sessionId()).thenReturn(1);
+        bufferContainsExampleMessage(false);
+    }
+
+    @Test
+    public void shouldPassOnFragmentsOfMatchingMessages()
+    {
+        onFragmentedMessage(sessionOf(SESSION_ID));
+
+        verify(assembler, times(2)).onFragment(any(), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    public void shouldSkipFragmentsOfMessagesFromOtherSessions()
+    {
+        onFragmentedMessage(sessionOf(SESSION_ID_2));
+
+        verifyNoMoreInteractions(assembler);
+    }
+
+    @Test
+    public void shouldSkipFragmentsOfMessagesWithOtherHeaders()
+    {
+        onFragmentedMessage(whereHeader(senderCompIdOf("other")).and(bodyMatches(Pattern.compile(".*"))));
+
+        verifyNoMoreInteractions(assembler);
+    }
+
+    @Test
+    public void shouldPassOnFragmentsWhenHeaderIsSplit()
+    {
+        onFragmentedMessage(whereHeader(senderCompIdOf("other")), PREFIX_LENGTH + 10);
+
+        verify(assembler, times(2)).onFragment(any(), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    public void shouldNotPushDownBodyPredicates()
+    {
+        assertNull(framePredicate(filterBy(consumer, bodyMatches(Pattern.compile("abc")))));
+        assertNull(framePredicate(filterBy(consumer, bodyMatches(Pattern.compile("abc")).or(alwaysTrue()))));
+    }
+
+    @Test
+    public void shouldCreateNewHeaderPredicateForEachScanningThread()
+    {
+        final FixMessageConsumer filtered = filterBy(
+            consumer, whereHeader(senderCompIdOf("other")).and(sessionOf(SESSION_ID)));
+
+        assertNotSame(framePredicate(filtered), framePredicate(filtered));
+    }
+
+    @Test
+    public void shouldPassOnUnfragmentedMessages()
+    {
+        final FragmentHandler filter = new PushdownFilter(framePredicate(
+            filterBy(consumer, sessionOf(SESSION_ID_2))), assembler);
+
+        when(fragmentHeader.flags()).thenReturn((byte)DataHeaderFlyweight.BEGIN_AND_END_FLAGS);
+        filter.onFragment(buffer, START, fragmentLength(), fragmentHeader);
+
+        verify(assembler).onFragment(buffer, START, fragmentLength(), fragmentHeader);
+    }
+
+    private void onFragmentedMessage(final FixMessagePredicate predicate)
+    {
+        onFragmentedMessage(predicate, fragmentLength() - SECOND_FRAGMENT_LENGTH);
+    }
+
+    private void onFragmentedMessage(final FixMessagePredicate predicate, final int firstFragmentLength)
+    {
+        final FragmentHandler filter = PushdownFilter.of(framePredicate(filterBy(consumer, predicate)), assembler);
+
+        when(fragmentHeader.flags()).thenReturn((byte)DataHeaderFlyweight.BEGIN_FLAG);
+        filter.onFragment(buffer, START, firstFragmentLength, fragmentHeader);
+
+        when(fragmentHeader.flags()).thenReturn((byte)DataHeaderFlyweight.END_FLAG);
+        filter.onFragment(
+            buffer, START + firstFragmentLength, fragmentLength() - firstFragmentLength, fragmentHeader);
+    }
+}
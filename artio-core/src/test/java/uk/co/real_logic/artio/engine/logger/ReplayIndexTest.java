@@ -44,13 +44,13 @@ import java.nio.ByteBuffer;
 import java.util.stream.IntStream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.*;
 import static uk.co.real_logic.artio.LogTag.REPLAY;
 import static uk.co.real_logic.artio.TestFixtures.cleanupMediaDriver;
 import static uk.co.real_logic.artio.TestFixtures.largeTestReqId;
 import static uk.co.real_logic.artio.engine.EngineConfiguration.*;
-import static uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor.RECORD_LENGTH;
-import static uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor.REPLAY_POSITION_BUFFER_SIZE;
+import static uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor.*;
 import static uk.co.real_logic.artio.engine.logger.Replayer.MOST_RECENT_MESSAGE;
 
 public class ReplayIndexTest extends AbstractLogTest
@@ -69,6 +69,7 @@ public class ReplayIndexTest extends AbstractLogTest
 
     private ControlledFragmentHandler mockHandler = mock(ControlledFragmentHandler.class);
     private ErrorHandler errorHandler = mock(ErrorHandler.class);
+    private File slabLogFileDir = new File(IoUtil.tmpDirName(), "replay-index-slabs-test");
 
     private ArchivingMediaDriver mediaDriver;
     private AeronArchive aeronArchive;
@@ -88,7 +89,9 @@ public class ReplayIndexTest extends AbstractLogTest
             newBufferFactory,
             replayPositionBuffer,
             errorHandler,
-            recordingIdLookup);
+            recordingIdLookup,
+            0,
+            false);
     }
 
     private Aeron aeron()
@@ -116,16 +119,7 @@ public class ReplayIndexTest extends AbstractLogTest
         IoUtil.deleteIfExists(logFile);
 
         newReplayIndex();
-        query = new ReplayQuery(
-            DEFAULT_LOG_FILE_DIR,
-            DEFAULT_LOGGER_CACHE_NUM_SETS,
-            DEFAULT_LOGGER_CACHE_SET_SIZE,
-            existingBufferFactory,
-            DEFAULT_OUTBOUND_LIBRARY_STREAM,
-            new NoOpIdleStrategy(),
-            aeronArchive,
-            errorHandler,
-            DEFAULT_ARCHIVE_REPLAY_STREAM);
+        query = newReplayQuery(false);
 
         returnBuffer(indexBuffer, SESSION_ID);
         returnBuffer(ByteBuffer.allocate(16 * 1024), SESSION_ID_2);
@@ -137,6 +131,7 @@ public class ReplayIndexTest extends AbstractLogTest
     {
         Exceptions.closeAll(replayIndex, aeronArchive);
         cleanupMediaDriver(mediaDriver);
+        IoUtil.delete(slabLogFileDir, true);
     }
 
     @Test(timeout = 20_000L)
@@ -290,6 +285,168 @@ public class ReplayIndexTest extends AbstractLogTest
         verifyMessagesRead(expectedMessages);
     }
 
+    @Test(timeout = 20_000L)
+    public void shouldBinarySearchOverSequenceIndexBoundaries()
+    {
+        query = newReplayQuery(true);
+
+        indexExampleMessage(SESSION_ID, SEQUENCE_NUMBER - 1, SEQUENCE_INDEX);
+        indexExampleMessage();
+
+        final int nextSequenceIndex = SEQUENCE_INDEX + 1;
+        final int endSequenceNumber = 1;
+
+        indexExampleMessage(SESSION_ID, endSequenceNumber, nextSequenceIndex);
+        indexExampleMessage(SESSION_ID, endSequenceNumber + 1, nextSequenceIndex);
+
+        final int msgCount = query(SEQUENCE_NUMBER, SEQUENCE_INDEX, endSequenceNumber, nextSequenceIndex);
+
+        verifyMessagesRead(2);
+        assertEquals(2, msgCount);
+    }
+
+    @Test //(timeout = 20_000L)
+    public void shouldBinarySearchWhenBufferFull()
+    {
+        query = newReplayQuery(true);
+
+        final int beginSequenceNumber = totalMessages / 2;
+        final int endSequenceNumber = totalMessages + 1;
+        // +1 because these are inclusive
+        final int expectedMessages = endSequenceNumber - beginSequenceNumber + 1;
+
+        IntStream.rangeClosed(1, endSequenceNumber).forEach(
+            (seqNum) -> indexExampleMessage(SESSION_ID, seqNum, SEQUENCE_INDEX));
+
+        final int msgCount = query(beginSequenceNumber, SEQUENCE_INDEX, endSequenceNumber, SEQUENCE_INDEX);
+
+        assertEquals(expectedMessages, msgCount);
+        verifyMessagesRead(expectedMessages);
+    }
+
+    @Test(timeout = 20_000L)
+    public void shouldQuerySessionsIndexedInSlabs()
+    {
+        useSlabs(2);
+
+        indexExampleMessage(SESSION_ID, SEQUENCE_NUMBER, SEQUENCE_INDEX);
+        indexExampleMessage(SESSION_ID_2, SEQUENCE_NUMBER, SEQUENCE_INDEX);
+        indexExampleMessage(SESSION_ID, SEQUENCE_NUMBER + 1, SEQUENCE_INDEX);
+
+        assertEquals(2, query(SESSION_ID, SEQUENCE_NUMBER, SEQUENCE_INDEX, SEQUENCE_NUMBER + 1, SEQUENCE_INDEX));
+        assertEquals(1, query(SESSION_ID_2, SEQUENCE_NUMBER, SEQUENCE_INDEX, SEQUENCE_NUMBER, SEQUENCE_INDEX));
+        verifyMessagesRead(3);
+        final File logFile = replayIndexFile(slabLogFileDir.getAbsolutePath(), SESSION_ID, STREAM_ID);
+        verify(newBufferFactory, never()).map(eq(logFile), anyInt());
+        verify(existingBufferFactory, never()).map(logFile);
+    }
+
+    @Test(timeout = 20_000L)
+    public void shouldOnlyCreateSlabDirectoryWhenIndexStarts()
+    {
+        useSlabs(2);
+
+        verify(newBufferFactory).map(eq(slabDirectoryFile()), anyInt());
+        verify(newBufferFactory, never()).map(eq(slabFile()), anyInt());
+
+        indexExampleMessage(SESSION_ID, SEQUENCE_NUMBER, SEQUENCE_INDEX);
+        indexExampleMessage(SESSION_ID_2, SEQUENCE_NUMBER, SEQUENCE_INDEX);
+
+        verify(newBufferFactory, times(1)).map(eq(slabFile()), anyInt());
+    }
+
+    @Test(timeout = 20_000L)
+    public void shouldNotFindSessionsInSlabsBeforeTheDirectoryIsCreated()
+    {
+        IoUtil.ensureDirectoryExists(slabLogFileDir, slabLogFileDir.getName());
+        query = newSlabReplayQuery(2);
+
+        assertEquals(0, query(SESSION_ID, SEQUENCE_NUMBER, SEQUENCE_INDEX, SEQUENCE_NUMBER, SEQUENCE_INDEX));
+        verify(existingBufferFactory, never()).map(any());
+        verifyNoMoreInteractions(errorHandler);
+    }
+
+    @Test(timeout = 20_000L)
+    public void shouldGiveSessionsTheirOwnFileOnceAllSlabsAllocated()
+    {
+        useSlabs(1);
+        final File sessionFile = replayIndexFile(slabLogFileDir.getAbsolutePath(), SESSION_ID_2, STREAM_ID);
+        final ByteBuffer sessionBuffer = ByteBuffer.allocate(DEFAULT_REPLAY_INDEX_FILE_SIZE);
+        when(newBufferFactory.map(eq(sessionFile), anyInt())).then(inv ->
+        {
+            assertTrue(sessionFile.createNewFile());
+            return sessionBuffer;
+        });
+        when(existingBufferFactory.map(sessionFile)).thenReturn(sessionBuffer);
+
+        indexExampleMessage(SESSION_ID, SEQUENCE_NUMBER, SEQUENCE_INDEX);
+        indexExampleMessage(SESSION_ID_2, SEQUENCE_NUMBER, SEQUENCE_INDEX);
+        indexExampleMessage(SESSION_ID_2, SEQUENCE_NUMBER + 1, SEQUENCE_INDEX);
+
+        assertEquals(2, query(SESSION_ID_2, SEQUENCE_NUMBER, SEQUENCE_INDEX, SEQUENCE_NUMBER + 1, SEQUENCE_INDEX));
+        assertEquals(1, query(SESSION_ID, SEQUENCE_NUMBER, SEQUENCE_INDEX, SEQUENCE_NUMBER, SEQUENCE_INDEX));
+        verify(newBufferFactory, times(1)).map(eq(sessionFile), anyInt());
+        verify(errorHandler, never()).onError(any());
+    }
+
+    @Test(timeout = 20_000L)
+    public void shouldQueryRecordsEvictedToColdTier()
+    {
+        final File logFileDir = new File(IoUtil.tmpDirName(), "replay-index-cold-tier-test");
+        IoUtil.delete(logFileDir, true);
+        IoUtil.ensureDirectoryExists(logFileDir, logFileDir.getName());
+        try
+        {
+            useColdTier(logFileDir.getAbsolutePath(), INITIAL_RECORD_OFFSET + 4 * RECORD_LENGTH);
+
+            final int messages = 10;
+            final int endSequenceNumber = SEQUENCE_NUMBER + messages - 1;
+            for (int sequenceNumber = SEQUENCE_NUMBER; sequenceNumber <= endSequenceNumber; sequenceNumber++)
+            {
+                indexExampleMessage(SESSION_ID, sequenceNumber, SEQUENCE_INDEX);
+            }
+
+            final int msgCount = query(SEQUENCE_NUMBER, SEQUENCE_INDEX, endSequenceNumber, SEQUENCE_INDEX);
+
+            verifyMessagesRead(messages);
+            assertEquals(messages, msgCount);
+        }
+        finally
+        {
+            query.close();
+            IoUtil.delete(logFileDir, true);
+        }
+    }
+
+    @Test(timeout = 20_000L)
+    public void shouldScanColdTierWhenSequenceNumbersGoBackwards()
+    {
+        final File logFileDir = new File(IoUtil.tmpDirName(), "replay-index-cold-tier-test");
+        IoUtil.delete(logFileDir, true);
+        IoUtil.ensureDirectoryExists(logFileDir, logFileDir.getName());
+        try
+        {
+            useColdTier(logFileDir.getAbsolutePath(), INITIAL_RECORD_OFFSET + 4 * RECORD_LENGTH);
+
+            // The first four records are evicted to the cold tier, where 10 and 11 are followed by lower numbers.
+            final int[] sequenceNumbers = { 10, 11, 1, 2, 12, 13, 14, 15 };
+            for (final int sequenceNumber : sequenceNumbers)
+            {
+                indexExampleMessage(SESSION_ID, sequenceNumber, SEQUENCE_INDEX);
+            }
+
+            final int msgCount = query(10, SEQUENCE_INDEX, 11, SEQUENCE_INDEX);
+
+            verifyMessagesRead(2);
+            assertEquals(2, msgCount);
+        }
+        finally
+        {
+            query.close();
+            IoUtil.delete(logFileDir, true);
+        }
+    }
+
     @Test(timeout = 20_000L)
     public void shouldUpdatePositionForIndexedRecord()
     {
@@ -330,6 +487,123 @@ public class ReplayIndexTest extends AbstractLogTest
         indexExampleMessage(SESSION_ID, SEQUENCE_NUMBER, SEQUENCE_INDEX);
     }
 
+    private ReplayQuery newReplayQuery(final boolean binarySearch)
+    {
+        return new ReplayQuery(
+            DEFAULT_LOG_FILE_DIR,
+            DEFAULT_LOGGER_CACHE_NUM_SETS,
+            DEFAULT_LOGGER_CACHE_SET_SIZE,
+            existingBufferFactory,
+            DEFAULT_OUTBOUND_LIBRARY_STREAM,
+            new NoOpIdleStrategy(),
+            aeronArchive,
+            errorHandler,
+            DEFAULT_ARCHIVE_REPLAY_STREAM,
+            binarySearch,
+            DEFAULT_REPLAY_INDEX_FILE_SIZE,
+            0,
+            false);
+    }
+
+    private void useSlabs(final int slabCount)
+    {
+        IoUtil.delete(slabLogFileDir, true);
+        IoUtil.ensureDirectoryExists(slabLogFileDir, slabLogFileDir.getName());
+
+        final ByteBuffer directoryBuffer = ByteBuffer.allocate(directoryFileSize(slabCount));
+        final ByteBuffer slabFileBuffer = ByteBuffer.allocate(
+            slabsPerFile(DEFAULT_REPLAY_INDEX_FILE_SIZE, slabCount) * DEFAULT_REPLAY_INDEX_FILE_SIZE);
+        final File directoryFile = slabDirectoryFile();
+        final File slabFile = slabFile();
+        // The buffer factory is mocked, so create the directory file that mapping it would have created.
+        when(newBufferFactory.map(eq(directoryFile), anyInt())).then(inv ->
+        {
+            assertTrue(directoryFile.createNewFile());
+            return directoryBuffer;
+        });
+        when(newBufferFactory.map(eq(slabFile), anyInt())).thenReturn(slabFileBuffer);
+        when(existingBufferFactory.map(directoryFile)).thenReturn(directoryBuffer);
+        when(existingBufferFactory.map(slabFile)).thenReturn(slabFileBuffer);
+
+        replayIndex = new ReplayIndex(
+            slabLogFileDir.getAbsolutePath(),
+            STREAM_ID,
+            DEFAULT_REPLAY_INDEX_FILE_SIZE,
+            DEFAULT_LOGGER_CACHE_NUM_SETS,
+            DEFAULT_LOGGER_CACHE_SET_SIZE,
+            newBufferFactory,
+            replayPositionBuffer,
+            errorHandler,
+            recordingIdLookup,
+            slabCount,
+            false);
+
+        query = newSlabReplayQuery(slabCount);
+    }
+
+    private ReplayQuery newSlabReplayQuery(final int slabCount)
+    {
+        return new ReplayQuery(
+            slabLogFileDir.getAbsolutePath(),
+            DEFAULT_LOGGER_CACHE_NUM_SETS,
+            DEFAULT_LOGGER_CACHE_SET_SIZE,
+            existingBufferFactory,
+            DEFAULT_OUTBOUND_LIBRARY_STREAM,
+            new NoOpIdleStrategy(),
+            aeronArchive,
+            errorHandler,
+            DEFAULT_ARCHIVE_REPLAY_STREAM,
+            false,
+            DEFAULT_REPLAY_INDEX_FILE_SIZE,
+            slabCount,
+            false);
+    }
+
+    private File slabDirectoryFile()
+    {
+        return replayIndexDirectoryFile(slabLogFileDir.getAbsolutePath(), STREAM_ID);
+    }
+
+    private File slabFile()
+    {
+        return replayIndexSlabFile(slabLogFileDir.getAbsolutePath(), STREAM_ID, 0);
+    }
+
+    private void useColdTier(final String logFileDir, final int indexFileSize)
+    {
+        final ByteBuffer ringBuffer = ByteBuffer.allocate(indexFileSize);
+        when(newBufferFactory.map(any(), anyInt())).thenReturn(ringBuffer);
+        when(existingBufferFactory.map(any())).thenReturn(ringBuffer);
+
+        replayIndex = new ReplayIndex(
+            logFileDir,
+            STREAM_ID,
+            indexFileSize,
+            DEFAULT_LOGGER_CACHE_NUM_SETS,
+            DEFAULT_LOGGER_CACHE_SET_SIZE,
+            newBufferFactory,
+            replayPositionBuffer,
+            errorHandler,
+            recordingIdLookup,
+            0,
+            true);
+
+        query = new ReplayQuery(
+            logFileDir,
+            DEFAULT_LOGGER_CACHE_NUM_SETS,
+            DEFAULT_LOGGER_CACHE_SET_SIZE,
+            existingBufferFactory,
+            DEFAULT_OUTBOUND_LIBRARY_STREAM,
+            new NoOpIdleStrategy(),
+            aeronArchive,
+            errorHandler,
+            DEFAULT_ARCHIVE_REPLAY_STREAM,
+            false,
+            indexFileSize,
+            0,
+            true);
+    }
+
     private void verifyNoMessageRead()
     {
         verifyMessagesRead(never());
@@ -19,6 +19,7 @@ import io.aeron.Subscription;
 import io.aeron.driver.Configuration;
 import io.aeron.logbuffer.ControlledFragmentHandler;
 import io.aeron.logbuffer.ControlledFragmentHandler.Action;
+import io.aeron.logbuffer.FragmentHandler;
 import io.aeron.logbuffer.Header;
 import io.aeron.protocol.DataHeaderFlyweight;
 import org.agrona.DirectBuffer;
@@ -73,9 +74,11 @@ public class ReplayerTest extends AbstractLogTest
             "112=a12345678910123456789101234567891012345\00110=005\001").getBytes(US_ASCII);
 
     private static final int MAX_CLAIM_ATTEMPTS = 100;
+    private static final int REPLAY_CACHE_SIZE = 4;
 
     private ReplayQuery replayQuery = mock(ReplayQuery.class);
     private Subscription subscription = mock(Subscription.class);
+    private Subscription replayCacheSubscription = mock(Subscription.class);
     private IdleStrategy idleStrategy = mock(IdleStrategy.class);
     private ErrorHandler errorHandler = mock(ErrorHandler.class);
     private EpochClock clock = mock(EpochClock.class);
@@ -102,6 +105,11 @@ public class ReplayerTest extends AbstractLogTest
 
         setReplayedMessages(1);
 
+        newReplayer(0);
+    }
+
+    private void newReplayer(final int replayCacheSize)
+    {
         replayer = new Replayer(
             replayQuery,
             publication,
@@ -114,7 +122,9 @@ public class ReplayerTest extends AbstractLogTest
             clock,
             EngineConfiguration.DEFAULT_GAPFILL_ON_REPLAY_MESSAGE_TYPES,
             replayHandler,
-            senderSequenceNumbers);
+            senderSequenceNumbers,
+            replayCacheSubscription,
+            replayCacheSize);
     }
 
     private void setReplayedMessages(final int replayedMessages)
@@ -167,6 +177,45 @@ public class ReplayerTest extends AbstractLogTest
         verifyReplayCompleteMessageSent();
     }
 
+    @Test
+    public void shouldPublishCachedMessagesWithSetPossDupFlag()
+    {
+        newReplayer(REPLAY_CACHE_SIZE);
+
+        bufferContainsExampleMessage(true);
+
+        final int srcLength = fragmentLength();
+        setupMessage(srcLength);
+
+        cacheFragment(srcLength);
+
+        final long result = bufferHasResendRequest(END_SEQ_NO);
+        onRequestResendMessage(result);
+
+        replayer.doWork();
+
+        assertHasResentWithPossDupFlag(srcLength, times(1));
+        verifyNoMoreInteractions(replayQuery);
+
+        replayer.doWork();
+
+        verifyReplayCompleteMessageSent();
+    }
+
+    @Test
+    public void shouldQueryArchiveWhenRangeNotCached()
+    {
+        newReplayer(REPLAY_CACHE_SIZE);
+
+        bufferContainsExampleMessage(true);
+        cacheFragment(fragmentLength());
+
+        final long result = bufferHasResendRequest(END_SEQ_NO + 1);
+        onRequestResendMessage(result);
+
+        verifyQueriedService(END_SEQ_NO + 1);
+    }
+
     @Test
     public void shouldSupportConcurrentReplayRequests()
     {
@@ -640,6 +689,18 @@ public class ReplayerTest extends AbstractLogTest
         return BEGIN_SEQ_NO + 1;
     }
 
+    private void cacheFragment(final int length)
+    {
+        when(replayCacheSubscription.poll(any(), anyInt())).then(inv ->
+        {
+            final FragmentHandler fragmentHandler = inv.getArgument(0);
+            fragmentHandler.onFragment(buffer, START, length, fragmentHeader);
+            return 1;
+        }).thenReturn(0);
+
+        replayer.doWork();
+    }
+
     private void onFragment(final int length)
     {
         onFragment(length, CONTINUE, getHandler());
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2015-2019 Real Logic Ltd, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class RotatingLogFileSinkTest
+{
+    private static final String ENTRY = "1 IN 8=FIX.4.4\u00019=5\u000135=0\u000110=000\u0001\n";
+    private static final int ENTRY_LENGTH = ENTRY.length();
+
+    private final File logDir = new File(IoUtil.tmpDirName(), "rotating-log-file-sink-test");
+    private final UnsafeBuffer buffer = new UnsafeBuffer(ENTRY.getBytes(US_ASCII));
+
+    private RotatingLogFileSink sink;
+
+    @Before
+    public void setUp()
+    {
+        IoUtil.delete(logDir, true);
+        sink = new RotatingLogFileSink(logDir, "fix", ENTRY_LENGTH * 2, 16);
+    }
+
+    @After
+    public void tearDown()
+    {
+        sink.close();
+        IoUtil.delete(logDir, true);
+    }
+
+    @Test
+    public void shouldWriteEntriesLargerThanWriteBuffer() throws IOException
+    {
+        sink.onLogEntry(buffer, 0, ENTRY_LENGTH);
+        sink.flush();
+
+        assertEquals(ENTRY, readLogFile(0));
+    }
+
+    @Test
+    public void shouldRotateFileWhenEntryWouldExceedMaxSize() throws IOException
+    {
+        sink.onLogEntry(buffer, 0, ENTRY_LENGTH);
+        sink.onLogEntry(buffer, 0, ENTRY_LENGTH);
+        sink.onLogEntry(buffer, 0, ENTRY_LENGTH);
+        sink.close();
+
+        assertEquals(ENTRY + ENTRY, readLogFile(0));
+        assertEquals(ENTRY, readLogFile(1));
+    }
+
+    @Test
+    public void shouldNotOverwriteExistingFiles() throws IOException
+    {
+        sink.onLogEntry(buffer, 0, ENTRY_LENGTH);
+        sink.close();
+
+        sink = new RotatingLogFileSink(logDir, "fix", ENTRY_LENGTH * 2, 16);
+        sink.close();
+
+        assertEquals(ENTRY, readLogFile(0));
+        assertEquals("", readLogFile(1));
+        assertFalse(new File(logDir, "fix-2.log").exists());
+    }
+
+    private String readLogFile(final int index) throws IOException
+    {
+        return new String(Files.readAllBytes(new File(logDir, "fix-" + index + ".log").toPath()), US_ASCII);
+    }
+}
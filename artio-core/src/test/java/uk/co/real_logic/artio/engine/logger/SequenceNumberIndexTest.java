@@ -24,6 +24,7 @@ import org.agrona.ErrorHandler;
 import org.agrona.IoUtil;
 import org.agrona.concurrent.AtomicBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
 import org.hamcrest.Matchers;
 import org.junit.After;
 import org.junit.Before;
@@ -33,6 +34,7 @@ import uk.co.real_logic.artio.FileSystemCorruptionException;
 import uk.co.real_logic.artio.engine.MappedFile;
 import uk.co.real_logic.artio.engine.SessionInfo;
 import uk.co.real_logic.artio.engine.framer.FakeEpochClock;
+import uk.co.real_logic.artio.timing.Timer;
 
 import java.io.File;
 
@@ -192,6 +194,121 @@ public class SequenceNumberIndexTest extends AbstractLogTest
         }
     }
 
+    @Test
+    public void shouldFlushModifiedSectorsToBothFiles()
+    {
+        final int sessions = SECTOR_SIZE / RECORD_SIZE + 1;
+        for (int sessionId = 1; sessionId <= sessions; sessionId++)
+        {
+            bufferContainsExampleMessage(true, sessionId, SEQUENCE_NUMBER, SEQUENCE_INDEX);
+            indexRecord();
+        }
+        flushOnTimeout();
+
+        bufferContainsExampleMessage(true, 1, SEQUENCE_NUMBER + 1, SEQUENCE_INDEX);
+        indexRecord();
+        flushOnTimeout();
+
+        bufferContainsExampleMessage(true, sessions, SEQUENCE_NUMBER + 2, SEQUENCE_INDEX);
+        indexRecord();
+        flushOnTimeout();
+
+        writer.close();
+
+        final SequenceNumberIndexReader newReader = newInstanceAfterRestart();
+        assertLastKnownSequenceNumberIs(1, SEQUENCE_NUMBER + 1, newReader);
+        for (int sessionId = 2; sessionId < sessions; sessionId++)
+        {
+            assertLastKnownSequenceNumberIs(sessionId, SEQUENCE_NUMBER, newReader);
+        }
+        assertLastKnownSequenceNumberIs(sessions, SEQUENCE_NUMBER + 2, newReader);
+    }
+
+    private void flushOnTimeout()
+    {
+        clock.advanceMilliSeconds(DEFAULT_INDEX_FILE_STATE_FLUSH_TIMEOUT_IN_MS + 1);
+        assertEquals(1, writer.doWork());
+    }
+
+    @Test
+    public void shouldSyncOnceRecordCountIndexed()
+    {
+        final AtomicCounter syncs = new AtomicCounter(new UnsafeBuffer(new byte[SECTOR_SIZE]), 0);
+        final AtomicCounter syncedRecords = new AtomicCounter(new UnsafeBuffer(new byte[SECTOR_SIZE]), 1);
+        writer.close();
+        writer = newWriter(SequenceNumberIndexDurability.RECORD_COUNT, syncs, syncedRecords);
+
+        indexFixMessage();
+        assertEquals(0, syncs.get());
+
+        indexFixMessage();
+        assertEquals(1, syncs.get());
+        assertEquals(2, syncedRecords.get());
+
+        final SequenceNumberIndexReader newReader = newInstanceAfterRestart();
+        assertLastKnownSequenceNumberIs(SESSION_ID, SEQUENCE_NUMBER, newReader);
+    }
+
+    @Test
+    public void shouldNotFlushOnTimeoutWhenArchiveOnly()
+    {
+        final AtomicCounter syncs = new AtomicCounter(new UnsafeBuffer(new byte[SECTOR_SIZE]), 0);
+        final AtomicCounter syncedRecords = new AtomicCounter(new UnsafeBuffer(new byte[SECTOR_SIZE]), 1);
+        writer.close();
+        writer = newWriter(SequenceNumberIndexDurability.ARCHIVE_ONLY, syncs, syncedRecords);
+
+        indexFixMessage();
+        clock.advanceMilliSeconds(DEFAULT_INDEX_FILE_STATE_FLUSH_TIMEOUT_IN_MS + 1);
+
+        assertEquals(0, writer.doWork());
+        assertEquals(0, syncs.get());
+
+        writer.close();
+        assertEquals(1, syncs.get());
+    }
+
+    @Test
+    public void shouldRecordUsedBytesOfIndexFile()
+    {
+        final AtomicCounter usedBytes = new AtomicCounter(new UnsafeBuffer(new byte[SECTOR_SIZE]), 0);
+        final AtomicCounter capacity = new AtomicCounter(new UnsafeBuffer(new byte[SECTOR_SIZE]), 1);
+        writer.close();
+        writer = newWriter(SequenceNumberIndexDurability.GROUP_COMMIT, null, null, usedBytes, capacity);
+
+        assertEquals(HEADER_SIZE, usedBytes.get());
+        assertEquals(positionTableOffset(BUFFER_SIZE), capacity.get());
+
+        indexFixMessage();
+        indexFixMessage();
+        assertEquals(HEADER_SIZE + RECORD_SIZE, usedBytes.get());
+
+        bufferContainsExampleMessage(true, SESSION_ID_2, SEQUENCE_NUMBER, SEQUENCE_INDEX);
+        indexRecord();
+        assertEquals(HEADER_SIZE + 2 * RECORD_SIZE, usedBytes.get());
+
+        writer.resetSequenceNumbers();
+        assertEquals(HEADER_SIZE, usedBytes.get());
+    }
+
+    private SequenceNumberIndexWriter newWriter(
+        final SequenceNumberIndexDurability durability, final AtomicCounter syncs, final AtomicCounter syncedRecords)
+    {
+        return newWriter(durability, syncs, syncedRecords, null, null);
+    }
+
+    private SequenceNumberIndexWriter newWriter(
+        final SequenceNumberIndexDurability durability,
+        final AtomicCounter syncs,
+        final AtomicCounter syncedRecords,
+        final AtomicCounter fileUsedBytes,
+        final AtomicCounter fileCapacity)
+    {
+        return new SequenceNumberIndexWriter(inMemoryBuffer, newIndexFile(), errorHandler, STREAM_ID,
+            recordingIdLookup, DEFAULT_INDEX_FILE_STATE_FLUSH_TIMEOUT_IN_MS, clock, durability, 2, syncs,
+            syncedRecords, new Timer(System::nanoTime, "Sync", 1), new Timer(System::nanoTime, "Records", 2),
+            fileUsedBytes, fileCapacity);
+    }
+
     /**
      * Simulate scenario that you've crashed halfway through file flip.
      */
@@ -302,6 +419,33 @@ public class SequenceNumberIndexTest extends AbstractLogTest
         assertUnknownSession();
     }
 
+    @Test
+    public void shouldLookupSessionsIndexedAfterAReset()
+    {
+        final long otherSessionId = SESSION_ID + 1;
+        indexFixMessage();
+        assertLastKnownSequenceNumberIs(SESSION_ID, SEQUENCE_NUMBER);
+
+        writer.resetSequenceNumbers();
+        bufferContainsExampleMessage(true, otherSessionId, SEQUENCE_NUMBER + 1, SEQUENCE_INDEX);
+        indexRecord();
+
+        assertUnknownSession();
+        assertLastKnownSequenceNumberIs(otherSessionId, SEQUENCE_NUMBER + 1);
+    }
+
+    @Test
+    public void shouldNotSkipRecordWhoseSessionIdIsStillBeingWritten()
+    {
+        // The first record's sequence number is visible before its session id
+        final int recordOffset = HEADER_SIZE;
+        inMemoryBuffer.putIntOrdered(recordOffset + SEQUENCE_NUMBER_OFFSET, SEQUENCE_NUMBER);
+        assertUnknownSession();
+
+        inMemoryBuffer.putLong(recordOffset, SESSION_ID);
+        assertLastKnownSequenceNumberIs(SESSION_ID, SEQUENCE_NUMBER);
+    }
+
     @After
     public void verifyNoErrors()
     {
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2015-2019 Real Logic Ltd, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.logbuffer.Header;
+import io.aeron.protocol.DataHeaderFlyweight;
+import org.agrona.BitUtil;
+import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+
+import static io.aeron.logbuffer.FrameDescriptor.FRAME_ALIGNMENT;
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.engine.logger.TimeIndexDescriptor.timeIndexFile;
+
+public class TimeIndexTest extends AbstractLogTest
+{
+    private static final long RECORDING_ID = 3;
+    private static final long INTERVAL = 10;
+    private static final long NO_STOP_POSITION = Long.MAX_VALUE;
+
+    private final File logFileDir = new File(IoUtil.tmpDirName(), "time-index-test");
+    private final Header fragmentHeader = mock(Header.class);
+    private final ErrorHandler errorHandler = mock(ErrorHandler.class);
+    private final RecordingIdLookup recordingIdLookup = mock(RecordingIdLookup.class);
+
+    private TimeIndexWriter writer;
+    private int alignedFrameLength;
+
+    @Before
+    public void setUp()
+    {
+        IoUtil.delete(logFileDir, true);
+        IoUtil.ensureDirectoryExists(logFileDir, logFileDir.getName());
+
+        when(fragmentHeader.streamId()).thenReturn(STREAM_ID);
+        when(fragmentHeader.flags()).thenReturn((byte)DataHeaderFlyweight.BEGIN_AND_END_FLAGS);
+        when(recordingIdLookup.getRecordingId(anyInt())).thenReturn(RECORDING_ID);
+
+        bufferContainsExampleMessage(false);
+        alignedFrameLength = BitUtil.align(fragmentLength() + HEADER_LENGTH, FRAME_ALIGNMENT);
+
+        writer = newWriter();
+    }
+
+    @After
+    public void tearDown()
+    {
+        writer.close();
+        IoUtil.delete(logFileDir, true);
+    }
+
+    @Test
+    public void shouldBoundMessagesInTimeRange()
+    {
+        indexMessagesTimestampedEvery(5, 7);
+
+        try (TimeIndexReader reader = TimeIndexReader.open(timeIndexFile(logFileDir.getAbsolutePath(), STREAM_ID)))
+        {
+            // Entries are at timestamps 0, 10, 20 and 30
+            assertEquals(startPosition(2), reader.startPosition(RECORDING_ID, 15, 0));
+            assertEquals(startPosition(6), reader.stopPosition(RECORDING_ID, 22, NO_STOP_POSITION));
+
+            assertEquals(0, reader.startPosition(RECORDING_ID, 0, 0));
+            assertEquals(NO_STOP_POSITION, reader.stopPosition(RECORDING_ID, 31, NO_STOP_POSITION));
+            assertEquals(0, reader.startPosition(RECORDING_ID + 1, 15, 0));
+        }
+    }
+
+    @Test
+    public void shouldBoundMessagesOfInterleavedRecordingsSeparately()
+    {
+        final long otherRecordingId = RECORDING_ID + 1;
+        for (int i = 0; i < 4; i++)
+        {
+            indexMessage(RECORDING_ID, i, i * INTERVAL);
+            indexMessage(otherRecordingId, i, 100 + i * INTERVAL);
+        }
+
+        try (TimeIndexReader reader = TimeIndexReader.open(timeIndexFile(logFileDir.getAbsolutePath(), STREAM_ID)))
+        {
+            // Entries are at timestamps 0, 10, 20 and 30 and at 100, 110, 120 and 130 respectively
+            assertEquals(startPosition(1), reader.startPosition(RECORDING_ID, 15, 0));
+            assertEquals(startPosition(2), reader.stopPosition(RECORDING_ID, 15, NO_STOP_POSITION));
+            assertEquals(startPosition(1), reader.startPosition(otherRecordingId, 115, 0));
+            assertEquals(startPosition(2), reader.stopPosition(otherRecordingId, 115, NO_STOP_POSITION));
+
+            assertEquals(startPosition(3), reader.startPosition(RECORDING_ID, 100, 0));
+            assertEquals(NO_STOP_POSITION, reader.stopPosition(RECORDING_ID, 100, NO_STOP_POSITION));
+            assertEquals(0, reader.startPosition(otherRecordingId, 30, 0));
+            assertEquals(startPosition(0), reader.stopPosition(otherRecordingId, 30, NO_STOP_POSITION));
+        }
+    }
+
+    @Test
+    public void shouldContinueIndexFromLastEntryAfterRestart()
+    {
+        indexMessagesTimestampedEvery(5, 3);
+        writer.close();
+
+        writer = newWriter();
+        final IndexedPositionConsumer positionConsumer = mock(IndexedPositionConsumer.class);
+        writer.readLastPosition(positionConsumer);
+        verify(positionConsumer).accept(anyInt(), eq(RECORDING_ID), eq(startPosition(2)));
+
+        // Catching up re-indexes the last entry's message, which shouldn't be appended twice.
+        indexMessage(2, 10);
+        indexMessage(3, 20);
+
+        try (TimeIndexReader reader = TimeIndexReader.open(timeIndexFile(logFileDir.getAbsolutePath(), STREAM_ID)))
+        {
+            assertEquals(startPosition(2), reader.startPosition(RECORDING_ID, 20, 0));
+            assertEquals(startPosition(3), reader.stopPosition(RECORDING_ID, 11, NO_STOP_POSITION));
+        }
+        verifyNoMoreInteractions(errorHandler);
+    }
+
+    private TimeIndexWriter newWriter()
+    {
+        return new TimeIndexWriter(
+            logFileDir.getAbsolutePath(), STREAM_ID, INTERVAL, errorHandler, recordingIdLookup);
+    }
+
+    private void indexMessagesTimestampedEvery(final long timestampStep, final int messageCount)
+    {
+        for (int i = 0; i < messageCount; i++)
+        {
+            indexMessage(i, i * timestampStep);
+        }
+    }
+
+    private void indexMessage(final long recordingId, final int messageIndex, final long timestamp)
+    {
+        when(recordingIdLookup.getRecordingId(anyInt())).thenReturn(recordingId);
+        indexMessage(messageIndex, timestamp);
+    }
+
+    private void indexMessage(final int messageIndex, final long timestamp)
+    {
+        messageFrame.timestamp(timestamp);
+        when(fragmentHeader.position()).thenReturn(startPosition(messageIndex + 1));
+        writer.onFragment(buffer, START, fragmentLength(), fragmentHeader);
+    }
+
+    private long startPosition(final int messageIndex)
+    {
+        return (long)messageIndex * alignedFrameLength;
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2015-2019 Real Logic Ltd, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import org.agrona.concurrent.status.AtomicCounter;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.engine.framer.FakeEpochClock;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+import uk.co.real_logic.artio.session.InternalSession;
+import uk.co.real_logic.artio.session.SessionIdStrategy;
+import uk.co.real_logic.artio.session.SessionProxy;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_SENDING_TIME_WINDOW;
+import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_SESSION_BUFFER_SIZE;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_REASONABLE_TRANSMISSION_TIME_IN_MS;
+import static uk.co.real_logic.artio.library.SessionConfiguration.DEFAULT_ENABLE_LAST_MSG_SEQ_NUM_PROCESSED;
+import static uk.co.real_logic.artio.messages.SessionState.ACTIVE;
+
+public class SessionPollerTest
+{
+    private static final long CONNECTION_ID = 2;
+    private static final int HEARTBEAT_INTERVAL_IN_S = 1;
+    private static final int LIBRARY_ID = 3;
+    private static final int SEQUENCE_INDEX = 0;
+
+    private static final long NEXT_TIMEOUT_IN_MS = 1_000;
+    private static final long LATER_TIMEOUT_IN_MS = 2_000;
+    // Larger than the timeout wheel's tick, so polls either side of a timeout are in different ticks
+    private static final long TICK_MARGIN_IN_MS = 10;
+
+    private final FakeEpochClock clock = new FakeEpochClock();
+    private final SessionPoller sessionPoller = new SessionPoller(clock.time());
+
+    private InternalSession session;
+
+    @Before
+    public void setUp()
+    {
+        session = spy(new InternalSession(
+            HEARTBEAT_INTERVAL_IN_S,
+            CONNECTION_ID,
+            clock,
+            ACTIVE,
+            mock(SessionProxy.class),
+            mock(GatewayPublication.class),
+            mock(SessionIdStrategy.class),
+            DEFAULT_SENDING_TIME_WINDOW,
+            mock(AtomicCounter.class),
+            mock(AtomicCounter.class),
+            LIBRARY_ID,
+            1,
+            SEQUENCE_INDEX,
+            DEFAULT_REASONABLE_TRANSMISSION_TIME_IN_MS,
+            new MutableAsciiBuffer(new byte[DEFAULT_SESSION_BUFFER_SIZE]),
+            DEFAULT_ENABLE_LAST_MSG_SEQ_NUM_PROCESSED));
+
+        doReturn(0).when(session).poll(anyLong());
+        doReturn(NEXT_TIMEOUT_IN_MS).when(session).nextTimeoutInMs();
+    }
+
+    @Test
+    public void shouldPollSessionWhenAdded()
+    {
+        sessionPoller.add(session);
+
+        poll(0);
+
+        verify(session).poll(0);
+    }
+
+    @Test
+    public void shouldPollSessionOnItsNextTimeout()
+    {
+        sessionPoller.add(session);
+        poll(0);
+
+        poll(NEXT_TIMEOUT_IN_MS - TICK_MARGIN_IN_MS);
+        verify(session, never()).poll(NEXT_TIMEOUT_IN_MS - TICK_MARGIN_IN_MS);
+
+        poll(NEXT_TIMEOUT_IN_MS + TICK_MARGIN_IN_MS);
+        verify(session).poll(NEXT_TIMEOUT_IN_MS + TICK_MARGIN_IN_MS);
+    }
+
+    @Test
+    public void shouldRescheduleSessionAfterItsTimeoutIsPolled()
+    {
+        sessionPoller.add(session);
+        poll(0);
+        doReturn(LATER_TIMEOUT_IN_MS).when(session).nextTimeoutInMs();
+
+        poll(NEXT_TIMEOUT_IN_MS + TICK_MARGIN_IN_MS);
+        poll(LATER_TIMEOUT_IN_MS - TICK_MARGIN_IN_MS);
+        verify(session, never()).poll(LATER_TIMEOUT_IN_MS - TICK_MARGIN_IN_MS);
+
+        poll(LATER_TIMEOUT_IN_MS + TICK_MARGIN_IN_MS);
+        verify(session).poll(LATER_TIMEOUT_IN_MS + TICK_MARGIN_IN_MS);
+    }
+
+    @Test
+    public void shouldPollSessionAgainWhilstItHasEvents()
+    {
+        doReturn(1, 0).when(session).poll(anyLong());
+        sessionPoller.add(session);
+
+        assertEquals(1, poll(0));
+        assertEquals(0, poll(1));
+        poll(2);
+
+        verify(session).poll(1);
+        verify(session, never()).poll(2);
+    }
+
+    @Test
+    public void shouldPollSessionBeforeItsTimeoutWhenStateChanges()
+    {
+        sessionPoller.add(session);
+        poll(0);
+
+        session.disable();
+        poll(1);
+
+        verify(session).poll(1);
+    }
+
+    @Test
+    public void shouldPollSessionBeforeItsTimeoutWhenPollRequired()
+    {
+        sessionPoller.add(session);
+        poll(0);
+
+        // As notified when the session's heartbeat interval changes
+        sessionPoller.onPollRequired(session);
+        poll(1);
+
+        verify(session).poll(1);
+        poll(2);
+        verify(session, never()).poll(2);
+    }
+
+    @Test
+    public void shouldNotPollRemovedSession()
+    {
+        sessionPoller.add(session);
+        poll(0);
+
+        sessionPoller.remove(session);
+        poll(NEXT_TIMEOUT_IN_MS + TICK_MARGIN_IN_MS);
+
+        verify(session, times(1)).poll(anyLong());
+        assertNull(session.pollListener());
+    }
+
+    @Test
+    public void shouldNotPollSessionRemovedBeforeItsFirstPoll()
+    {
+        sessionPoller.add(session);
+        sessionPoller.remove(session);
+
+        poll(0);
+        session.disable();
+        poll(1);
+
+        verify(session, never()).poll(anyLong());
+    }
+
+    private int poll(final long timeInMs)
+    {
+        return sessionPoller.poll(timeInMs);
+    }
+}
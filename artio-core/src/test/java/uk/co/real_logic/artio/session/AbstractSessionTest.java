@@ -944,6 +944,34 @@ public abstract class AbstractSessionTest
         verifyDisconnect(times(1));
     }
 
+    @Test
+    public void shouldRequirePollWhenLogonChangesHeartbeatIntervalAndState()
+    {
+        readyForLogon();
+        final InternalSession session = (InternalSession)session();
+        final SessionPollListener pollListener = mock(SessionPollListener.class);
+        session.pollListener(pollListener);
+
+        onLogon(1);
+
+        // Once for the logon's heartbeat interval and once for becoming active
+        verify(pollListener, times(2)).onPollRequired(session);
+        assertState(ACTIVE);
+    }
+
+    @Test
+    public void shouldRequirePollWhenStateChanges()
+    {
+        givenActive();
+        final InternalSession session = (InternalSession)session();
+        final SessionPollListener pollListener = mock(SessionPollListener.class);
+        session.pollListener(pollListener);
+
+        session.disable();
+
+        verify(pollListener).onPollRequired(session);
+    }
+
     @Test
     public void shouldEncodeAsciiBufferHeaderExternally()
     {
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2015-2019 Real Logic Ltd, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import java.util.concurrent.TimeUnit;
+
+import static uk.co.real_logic.artio.dictionary.StandardFixConstants.START_OF_HEADER;
+
+/**
+ * Compares the word at a time implementations of scanning and checksumming in {@link MutableAsciiBuffer} against
+ * the byte at a time loops that they replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class AsciiBufferScanBenchmark
+{
+    private final MutableAsciiBuffer buffer = new MutableAsciiBuffer(TestData.NEW_ORDER_SINGLE);
+    private final int end = buffer.capacity() - 1;
+    private final int checksumEnd = end - "10=194\001".length() + 1;
+
+    @Benchmark
+    public void scanAllFields(final Blackhole bh)
+    {
+        final MutableAsciiBuffer buffer = this.buffer;
+        final int end = this.end;
+        int position = 0;
+        while (position <= end)
+        {
+            final int equalsPosition = buffer.scan(position, end, '=');
+            final int endOfField = buffer.scan(equalsPosition + 1, end, START_OF_HEADER);
+            bh.consume(endOfField);
+            position = endOfField + 1;
+        }
+    }
+
+    @Benchmark
+    public void scanAllFieldsByteByByte(final Blackhole bh)
+    {
+        final MutableAsciiBuffer buffer = this.buffer;
+        final int end = this.end;
+        int position = 0;
+        while (position <= end)
+        {
+            final int equalsPosition = byteByByteScan(buffer, position, end, (byte)'=');
+            final int endOfField = byteByByteScan(buffer, equalsPosition + 1, end, START_OF_HEADER);
+            bh.consume(endOfField);
+            position = endOfField + 1;
+        }
+    }
+
+    @Benchmark
+    public int computeChecksum()
+    {
+        return buffer.computeChecksum(0, checksumEnd);
+    }
+
+    @Benchmark
+    public int computeChecksumByteByByte()
+    {
+        final MutableAsciiBuffer buffer = this.buffer;
+        int total = 0;
+        for (int index = 0, end = checksumEnd; index < end; index++)
+        {
+            total += (int)buffer.getByte(index);
+        }
+
+        return total % 256;
+    }
+
+    private static int byteByByteScan(
+        final MutableAsciiBuffer buffer, final int startInclusive, final int endInclusive, final byte terminator)
+    {
+        for (int i = startInclusive; i <= endInclusive; i++)
+        {
+            if (buffer.getByte(i) == terminator)
+            {
+                return i;
+            }
+        }
+
+        return MutableAsciiBuffer.UNKNOWN_INDEX;
+    }
+}
@@ -96,6 +96,20 @@ public class ArchiveScannerIntegrationTest extends AbstractGatewayToGatewaySyste
         assertArchiveContainsMessages("hi");
     }
 
+    @Test
+    public void canScanArchiveOfflineWhenGatewayStopped()
+    {
+        setupAndExchangeMessages();
+
+        CloseHelper.close(initiatingLibrary);
+        CloseHelper.close(acceptingLibrary);
+
+        CloseHelper.close(initiatingEngine);
+        CloseHelper.close(acceptingEngine);
+
+        assertArchiveContainsMessages("hi", mediaDriver.archive().context().archiveDir().getAbsolutePath());
+    }
+
     private void setupAndExchangeMessages()
     {
         messagesCanBeExchanged();
@@ -103,8 +117,13 @@ public class ArchiveScannerIntegrationTest extends AbstractGatewayToGatewaySyste
         assertInitiatingSequenceIndexIs(0);
     }
 
-    @SuppressWarnings("unchecked")
     private void assertArchiveContainsMessages(final String testReqIdPrefix)
+    {
+        assertArchiveContainsMessages(testReqIdPrefix, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void assertArchiveContainsMessages(final String testReqIdPrefix, final String archiveDirectoryName)
     {
         final List<String> messages = new ArrayList<>();
         final EngineConfiguration configuration = acceptingEngine.configuration();
@@ -113,7 +132,8 @@ public class ArchiveScannerIntegrationTest extends AbstractGatewayToGatewaySyste
 
         final FixArchiveScanner.Context context = new FixArchiveScanner.Context()
             .aeronDirectoryName(configuration.aeronContext().aeronDirectoryName())
-            .idleStrategy(CommonConfiguration.backoffIdleStrategy());
+            .idleStrategy(CommonConfiguration.backoffIdleStrategy())
+            .archiveDirectoryName(archiveDirectoryName);
 
         try (FixArchiveScanner scanner = new FixArchiveScanner(context))
         {